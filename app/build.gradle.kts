@@ -32,10 +32,13 @@ android {
 }
 
 dependencies {
+    implementation(project(":core"))
     // CameraX
     implementation("androidx.camera:camera-camera2:1.3.1")
     implementation("androidx.camera:camera-lifecycle:1.3.1")
     implementation("androidx.camera:camera-view:1.3.1")
+    // Monitoring service
+    implementation("androidx.lifecycle:lifecycle-service:2.6.2")
     // Required
     // ML Kit Face Detection
     implementation("com.google.mlkit:face-detection:16.1.5")
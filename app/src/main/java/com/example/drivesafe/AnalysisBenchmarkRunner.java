@@ -0,0 +1,167 @@
+package com.example.drivesafe;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.PixelFormat;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.camera.core.CameraSelector;
+import androidx.camera.core.ImageAnalysis;
+import androidx.camera.core.ImageProxy;
+import androidx.camera.lifecycle.ProcessCameraProvider;
+import androidx.core.content.ContextCompat;
+import androidx.lifecycle.LifecycleOwner;
+
+import com.google.mlkit.vision.common.InputImage;
+import com.google.mlkit.vision.face.Face;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs {@link AnalysisBenchmark} on the front camera: binds an analysis stream
+ * at each operating point in turn, times the fast detector tier on its frames
+ * (format conversion included) and hands back the scored result.
+ *
+ * Only an {@link ImageAnalysis} use case is bound, so it must not run while
+ * monitoring holds the camera. Call {@link #start} / {@link #cancel} on the
+ * main thread; callbacks run there too.
+ */
+final class AnalysisBenchmarkRunner {
+
+    interface Callback {
+        void onProgress(AnalysisMode mode, int point, int points);
+
+        /** The scored run, or null if the camera could not be opened. */
+        void onFinished(AnalysisBenchmark result);
+    }
+
+    private final Context context;
+    private final LifecycleOwner owner;
+    private final Callback callback;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService analysisExecutor = Executors.newSingleThreadExecutor();
+    private final AnalysisBenchmark benchmark = new AnalysisBenchmark(AnalysisMode.candidates());
+    // Detections still running when the run ends report to a shut-down executor; drop them
+    private final Executor resultExecutor = command -> {
+        try {
+            analysisExecutor.execute(command);
+        } catch (RejectedExecutionException ignored) { }
+    };
+
+    // ─── Main Thread ─────────────────────────────────────────────────────
+    private ProcessCameraProvider provider;
+    private ImageAnalysis analysis;
+    private boolean finished = false;
+    private volatile int point = -1;  // read by the analyzer to drop frames of earlier points
+
+    // ─── Analysis Thread Only ────────────────────────────────────────────
+    private DetectorCascade cascade;
+    private final int[] framesSeen = new int[benchmark.size()];
+    private Bitmap rgba;
+
+    AnalysisBenchmarkRunner(Context context, LifecycleOwner owner, Callback callback) {
+        this.context = context.getApplicationContext();
+        this.owner = owner;
+        this.callback = callback;
+    }
+
+    void start() {
+        analysisExecutor.execute(() -> cascade = new DetectorCascade(
+                Constants.DEFAULT_MIN_FACE_SIZE, Constants.EAR_THRESHOLD, false, 1));
+        ProcessCameraProvider.getInstance(context).addListener(() -> {
+            try {
+                provider = ProcessCameraProvider.getInstance(context).get();
+            } catch (Exception e) {
+                Log.e(Constants.TAG, "Benchmark could not get the camera", e);
+                finish(true);
+                return;
+            }
+            advanceFrom(-1);
+        }, ContextCompat.getMainExecutor(context));
+    }
+
+    /** Stops without a result callback. */
+    void cancel() {
+        mainHandler.removeCallbacksAndMessages(null);
+        point = benchmark.size();
+        finish(false);
+    }
+
+    /** Moves on from point {@code from} once it completes or times out; stale calls are ignored. */
+    private void advanceFrom(int from) {
+        if (point != from) return;
+        mainHandler.removeCallbacksAndMessages(null);
+        if (analysis != null) {
+            provider.unbind(analysis);
+            analysis = null;
+        }
+        final int p = ++point;
+        if (p >= benchmark.size()) {
+            finish(true);
+            return;
+        }
+        callback.onProgress(benchmark.mode(p), p, benchmark.size());
+        ImageAnalysis next = AnalysisFrames.builder(benchmark.mode(p))
+                .setBackpressureStrategy(ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST).build();
+        next.setAnalyzer(analysisExecutor, image -> analyze(image, p));
+        try {
+            provider.bindToLifecycle(owner, CameraSelector.DEFAULT_FRONT_CAMERA, next);
+            analysis = next;
+            mainHandler.postDelayed(() -> advanceFrom(p), Constants.BENCHMARK_POINT_TIMEOUT_MS);
+        } catch (Exception e) {
+            Log.w(Constants.TAG, "Benchmark skips " + benchmark.mode(p), e);
+            mainHandler.post(() -> advanceFrom(p));
+        }
+    }
+
+    private void finish(boolean report) {
+        if (finished) return;
+        finished = true;
+        if (analysis != null && provider != null) provider.unbind(analysis);
+        analysis = null;
+        analysisExecutor.execute(() -> {
+            if (cascade != null) cascade.close();
+            cascade = null;
+            if (!report) return;
+            mainHandler.post(() -> callback.onFinished(provider != null ? benchmark : null));
+        });
+        analysisExecutor.shutdown();
+    }
+
+    // ─── Analyzer ────────────────────────────────────────────────────────
+
+    private void analyze(ImageProxy image, int p) {
+        if (p != point || cascade == null || benchmark.isComplete(p) || image.getImage() == null) {
+            image.close();
+            return;
+        }
+        int rotation = image.getImageInfo().getRotationDegrees();
+        final long startNanos = SystemClock.elapsedRealtimeNanos();
+        InputImage input = image.getFormat() == PixelFormat.RGBA_8888
+                ? InputImage.fromBitmap(rgba = AnalysisFrames.copyRgba(image, rgba), rotation)
+                : InputImage.fromMediaImage(image.getImage(), rotation);
+        cascade.detector(DetectorCascade.TIER_FAST, 0).process(input)
+                .addOnSuccessListener(resultExecutor, faces -> {
+                    long elapsed = SystemClock.elapsedRealtimeNanos() - startNanos;
+                    image.close();
+                    if (p != point || framesSeen[p]++ < Constants.BENCHMARK_WARMUP_FRAMES) return;
+                    Face face = faces.isEmpty() ? null
+                            : FaceSelector.largest(faces, f -> f.getBoundingBox().width() * f.getBoundingBox().height());
+                    benchmark.onFrame(p, elapsed, face != null, face != null ? eyeOpen(face) : Float.NaN);
+                    if (benchmark.isComplete(p)) mainHandler.post(() -> advanceFrom(p));
+                })
+                .addOnFailureListener(resultExecutor, e -> image.close());
+    }
+
+    private static float eyeOpen(Face face) {
+        Float l = face.getLeftEyeOpenProbability(), r = face.getRightEyeOpenProbability();
+        if (l == null || r == null) return l != null ? l : r != null ? r : Float.NaN;
+        return (l + r) / 2f;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.drivesafe;
+
+import android.graphics.Bitmap;
+import android.util.Size;
+
+import androidx.annotation.Nullable;
+import androidx.camera.core.ImageAnalysis;
+import androidx.camera.core.ImageProxy;
+import androidx.camera.core.resolutionselector.AspectRatioStrategy;
+import androidx.camera.core.resolutionselector.ResolutionSelector;
+import androidx.camera.core.resolutionselector.ResolutionStrategy;
+
+import java.nio.ByteBuffer;
+
+/** Analysis stream setup and frame conversion for an {@link AnalysisMode}. */
+final class AnalysisFrames {
+
+    private AnalysisFrames() { /* Non-instantiable */ }
+
+    /** An {@link ImageAnalysis} builder with the mode's target size and output format; back-pressure is left to the caller. */
+    static ImageAnalysis.Builder builder(AnalysisMode mode) {
+        ImageAnalysis.Builder builder = new ImageAnalysis.Builder()
+                .setOutputImageFormat(mode.rgba
+                        ? ImageAnalysis.OUTPUT_IMAGE_FORMAT_RGBA_8888
+                        : ImageAnalysis.OUTPUT_IMAGE_FORMAT_YUV_420_888);
+        if (!mode.isAuto()) {
+            builder.setResolutionSelector(new ResolutionSelector.Builder()
+                    .setAspectRatioStrategy(AspectRatioStrategy.RATIO_4_3_FALLBACK_AUTO_STRATEGY)
+                    .setResolutionStrategy(new ResolutionStrategy(new Size(mode.width, mode.height),
+                            ResolutionStrategy.FALLBACK_RULE_CLOSEST_HIGHER_THEN_LOWER))
+                    .build());
+        }
+        return builder;
+    }
+
+    /**
+     * Copies an RGBA_8888 frame into {@code reuse} when it fits, else into a new
+     * bitmap. ML Kit reads the bitmap asynchronously, so it must not be reused
+     * until that frame's detection has finished.
+     */
+    static Bitmap copyRgba(ImageProxy image, @Nullable Bitmap reuse) {
+        ImageProxy.PlaneProxy plane = image.getPlanes()[0];
+        int w = image.getWidth(), h = image.getHeight();
+        // Padded rows cannot be bulk-copied; CameraX repacks them
+        if (plane.getPixelStride() != 4 || plane.getRowStride() != w * 4) return image.toBitmap();
+        Bitmap bitmap = reuse != null && reuse.getWidth() == w && reuse.getHeight() == h
+                ? reuse : Bitmap.createBitmap(w, h, Bitmap.Config.ARGB_8888);
+        ByteBuffer pixels = plane.getBuffer();
+        pixels.rewind();
+        bitmap.copyPixelsFromBuffer(pixels);
+        return bitmap;
+    }
+}
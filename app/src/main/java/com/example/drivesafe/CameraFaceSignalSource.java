@@ -0,0 +1,369 @@
+package com.example.drivesafe;
+
+import android.graphics.Bitmap;
+import android.graphics.ImageFormat;
+import android.graphics.PixelFormat;
+import android.graphics.PointF;
+import android.graphics.Rect;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.camera.core.ImageAnalysis;
+import androidx.camera.core.ImageProxy;
+
+import com.google.mlkit.vision.common.InputImage;
+import com.google.mlkit.vision.face.Face;
+import com.google.mlkit.vision.face.FaceContour;
+import com.google.mlkit.vision.face.FaceLandmark;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Live {@link FaceSignalSource}: CameraX frames through the ML Kit detector cascade.
+ *
+ * Set it as the {@link ImageAnalysis} analyzer on the analysis executor. Per
+ * frame it applies the adaptive analysis rate, crops to the tracked face
+ * region, runs the fast or full detector tier and reduces the detected face to
+ * a {@link FaceSignal}. The driver state returned by the listener feeds the
+ * rate scheduler and the cascade.
+ *
+ * With a pipeline depth above 1 that many frames can be in detection at
+ * once, each on its own detector lane. The camera must then hold that many
+ * images ({@code STRATEGY_BLOCK_PRODUCER} with a matching queue depth): each
+ * image is closed as soon as its detection finishes, and results go to the
+ * listener in capture order through a {@link FrameReorderBuffer}. Crop and
+ * tier decisions for a new frame use whatever results have been released so
+ * far.
+ *
+ * YUV frames pass a {@link FrameQuality} gate first: frames too dark, glared
+ * or blurred to trust are not sent to the detector, and after
+ * {@link Constants#QUALITY_LOW_VISIBILITY_FRAMES} in a row the listener gets
+ * low-visibility signals instead of face signals.
+ *
+ * Frames may be YUV_420_888 or RGBA_8888 ({@link AnalysisMode}). RGBA frames
+ * are copied to a per-lane bitmap and always scanned in full: the face-region
+ * crop works on YUV planes only.
+ *
+ * {@link #configure} and {@link #release} run on the analysis thread;
+ * {@link #start} / {@link #stop} only gate delivery and may be called anywhere.
+ */
+public final class CameraFaceSignalSource implements FaceSignalSource, ImageAnalysis.Analyzer {
+
+    /** ML Kit faces seen through {@link DriverLock}; the tracking ID is absent when tracking is off. */
+    private static final DriverLock.Faces<Face> FACES = new DriverLock.Faces<Face>() {
+        @Override public int trackingId(Face f) {
+            Integer id = f.getTrackingId();
+            return id != null ? id : DriverLock.NO_ID;
+        }
+        @Override public int left(Face f) { return f.getBoundingBox().left; }
+        @Override public int top(Face f) { return f.getBoundingBox().top; }
+        @Override public int right(Face f) { return f.getBoundingBox().right; }
+        @Override public int bottom(Face f) { return f.getBoundingBox().bottom; }
+    };
+
+    /** A frame in flight: what the result handler needs once its turn in capture order comes. */
+    private static final class PendingFrame {
+        long captureNanos;
+        int tier;
+        int offsetX, offsetY;  // crop-upright -> full-frame, as of this frame's crop
+        List<Face> faces;      // null if detection failed or was skipped
+        boolean poorQuality;   // failed the frame-quality gate, never detected
+    }
+
+    private final Executor resultExecutor;
+    private final CaptureClock captureClock;
+    private final PipelineStats pipelineStats;
+
+    private volatile Listener listener;
+
+    // ─── Analysis Thread Only ────────────────────────────────────────────
+    private final AnalysisRateScheduler rateScheduler = new AnalysisRateScheduler();
+    private final FaceRoiTracker roiTracker = new FaceRoiTracker();
+    private final FaceSignal signal = new FaceSignal();
+    private final float[] eyeContour = new float[ContourEar.EYE_POINTS * 2];
+    private final FrameQuality frameQuality = new FrameQuality();
+    private int poorFrames = 0;        // consecutive gated frames, in capture order
+    private DetectorCascade detectorCascade;
+    private FrameReorderBuffer inFlight;
+    private PendingFrame[] pending;
+    private YuvCropper[] roiCroppers;  // per lane: a crop must outlive its detection
+    private Bitmap[] rgbaBitmaps;      // per lane, likewise for RGBA frames
+    private DriverLock driverLock;     // one channel per detector instance
+    private int generation = 0;        // bumped per configure; stale results are dropped
+    private long fullCheckIntervalMs = Constants.CASCADE_FULL_CHECK_INTERVAL_MS;
+    private boolean largestFaceOnly = false;
+    private boolean contourEar = false;   // contour openness available
+    private boolean contourOnly = false;  // replaces the probability instead of averaging with it
+
+    /**
+     * @param resultExecutor executor for ML Kit results; must run on the analysis thread
+     * @param captureClock   used to measure capture-to-analyzer latency
+     */
+    public CameraFaceSignalSource(Executor resultExecutor, CaptureClock captureClock, PipelineStats pipelineStats) {
+        this.resultExecutor = resultExecutor;
+        this.captureClock = captureClock;
+        this.pipelineStats = pipelineStats;
+    }
+
+    /**
+     * Analysis thread: (re)creates the detectors, starts warming them up and
+     * resets per-session state.
+     *
+     * @param earSource     one of {@code Constants.EAR_SOURCE_*}
+     * @param pipelineDepth frames that may be in detection at once; 1 runs them one by one
+     */
+    public void configure(float minFaceSize, float earThreshold, long warningDurationMs, boolean largestFaceOnly,
+                          String earSource, int pipelineDepth) {
+        if (detectorCascade != null) detectorCascade.close();
+        boolean contours = !Constants.EAR_SOURCE_PROBABILITY.equals(earSource);
+        int depth = Math.max(1, pipelineDepth);
+        detectorCascade = new DetectorCascade(minFaceSize, earThreshold, contours, depth);
+        detectorCascade.setFullCheckIntervalMs(fullCheckIntervalMs);
+        detectorCascade.warmUp();
+        generation++;
+        inFlight = new FrameReorderBuffer(depth);
+        pending = new PendingFrame[depth];
+        roiCroppers = new YuvCropper[depth];
+        rgbaBitmaps = new Bitmap[depth];
+        for (int i = 0; i < depth; i++) {
+            pending[i] = new PendingFrame();
+            roiCroppers[i] = new YuvCropper();
+        }
+        driverLock = new DriverLock(2 * depth);
+        this.largestFaceOnly = largestFaceOnly;
+        contourEar = contours;
+        contourOnly = Constants.EAR_SOURCE_CONTOUR.equals(earSource);
+        rateScheduler.reset(earThreshold, warningDurationMs);
+        roiTracker.reset();
+        poorFrames = 0;
+    }
+
+    /**
+     * Analysis thread: applies a {@link DegradationGovernor} operating point. Both
+     * values outlive {@link #configure}.
+     *
+     * @param minAnalysisIntervalMs floor on the gap between analyzed frames; capped by the rate scheduler
+     * @param fullCheckIntervalMs   interval of the cascade's periodic full-tier check
+     */
+    public void setDegradation(long minAnalysisIntervalMs, long fullCheckIntervalMs) {
+        rateScheduler.setMinIntervalMs(minAnalysisIntervalMs);
+        this.fullCheckIntervalMs = fullCheckIntervalMs;
+        if (detectorCascade != null) detectorCascade.setFullCheckIntervalMs(fullCheckIntervalMs);
+    }
+
+    /**
+     * Analysis thread: moves the eye-closed threshold used to spot near-closure
+     * frames (rate scheduler and detector tier), e.g. to a calibrated personal
+     * one. Reset to the configured value by {@link #configure}.
+     */
+    public void setEarThreshold(float earThreshold) {
+        rateScheduler.setEarThreshold(earThreshold);
+        if (detectorCascade != null) detectorCascade.setEarThreshold(earThreshold);
+    }
+
+    /** Analysis thread: the stream was rebound at another size, so the tracked face region no longer applies. */
+    public void onStreamChanged() {
+        roiTracker.reset();
+    }
+
+    /** Analysis thread: closes the detectors. */
+    public void release() {
+        if (detectorCascade == null) return;
+        detectorCascade.close();
+        detectorCascade = null;
+        generation++;
+    }
+
+    @Override
+    public void start(Listener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void stop() {
+        listener = null;
+    }
+
+    @Override
+    public float getAnalysisRateHz() { return rateScheduler.getAnalysisRateHz(); }
+
+    // ─── Analyzer ────────────────────────────────────────────────────────
+
+    @Override
+    public void analyze(@NonNull ImageProxy imageProxy) {
+        DetectorCascade cascade = detectorCascade;
+        if (listener == null || cascade == null || imageProxy.getImage() == null) { imageProxy.close(); return; }
+        final long captureNanos = imageProxy.getImageInfo().getTimestamp();
+        long captureMs = captureNanos / 1_000_000L;
+        final PipelineStats stats = pipelineStats;
+        if (stats.isEnabled()) {
+            stats.onFrameDelivered(captureNanos);
+            stats.record(PipelineStats.STAGE_ACQUIRE, captureClock.sinceCapture(captureNanos,
+                    SystemClock.elapsedRealtimeNanos(), System.nanoTime()));
+        }
+        // A full window only happens if the camera queues more frames than the pipeline depth
+        if (inFlight.isFull() || !rateScheduler.shouldAnalyze(captureMs)) {
+            stats.onFrameSkipped();
+            imageProxy.close();
+            return;
+        }
+        final int lane = inFlight.acquire();
+        final PendingFrame frame = pending[lane];
+        frame.captureNanos = captureNanos;
+        frame.faces = null;
+        frame.poorQuality = imageProxy.getFormat() == ImageFormat.YUV_420_888 && measureQuality(imageProxy) != FrameQuality.OK;
+        if (frame.poorQuality) {
+            // Keeps its slot so a low-visibility signal still comes out in capture order
+            stats.onFrameSkipped();
+            imageProxy.close();
+            onDetected(lane, cascade);
+            return;
+        }
+        stats.onFrameAnalyzed();
+        int rotation = imageProxy.getImageInfo().getRotationDegrees();
+        boolean cropped = imageProxy.getFormat() == ImageFormat.YUV_420_888
+                && roiTracker.prepare(imageProxy.getWidth(), imageProxy.getHeight(), rotation);
+        frame.offsetX = cropped ? roiTracker.getOffsetX() : 0;
+        frame.offsetY = cropped ? roiTracker.getOffsetY() : 0;
+        frame.tier = cascade.chooseTier(captureMs);
+        InputImage image;
+        if (cropped) {
+            image = cropToRoi(imageProxy, rotation, roiCroppers[lane]);
+        } else if (imageProxy.getFormat() == PixelFormat.RGBA_8888) {
+            rgbaBitmaps[lane] = AnalysisFrames.copyRgba(imageProxy, rgbaBitmaps[lane]);
+            image = InputImage.fromBitmap(rgbaBitmaps[lane], rotation);
+        } else {
+            image = InputImage.fromMediaImage(imageProxy.getImage(), rotation);
+        }
+        final int tier = frame.tier;
+        final int gen = generation;
+        final long startNanos = SystemClock.elapsedRealtimeNanos();
+        cascade.detector(tier, lane).process(image)
+                .addOnSuccessListener(resultExecutor, faces -> {
+                    // The image is no longer needed; closing it lets the camera queue the next frame
+                    imageProxy.close();
+                    if (gen != generation) return;
+                    long elapsed = SystemClock.elapsedRealtimeNanos() - startNanos;
+                    stats.record(PipelineStats.STAGE_DETECT, elapsed);
+                    frame.faces = faces;
+                    onDetected(lane, cascade);
+                })
+                .addOnFailureListener(resultExecutor, e -> {
+                    imageProxy.close();
+                    if (gen == generation) onDetected(lane, cascade);
+                });
+    }
+
+    /** Completes a lane and hands every frame whose turn has come to the listener, in capture order. */
+    private void onDetected(int lane, DetectorCascade cascade) {
+        inFlight.complete(lane);
+        int slot;
+        while ((slot = inFlight.poll()) >= 0) {
+            PendingFrame frame = pending[slot];
+            List<Face> faces = frame.faces;
+            frame.faces = null;
+            Listener l = listener;
+            if (frame.poorQuality) {
+                frame.poorQuality = false;
+                rateScheduler.onFaceLost(frame.captureNanos / 1_000_000L);
+                if (++poorFrames >= Constants.QUALITY_LOW_VISIBILITY_FRAMES && l != null) {
+                    signal.set(frame.captureNanos, false, 0f, 0f, 0f, false, Float.NaN);
+                    signal.lowVisibility = true;
+                    l.onFaceSignal(signal);
+                }
+                continue;
+            }
+            poorFrames = 0;
+            if (faces == null) {
+                roiTracker.onFaceLost();
+            } else if (l != null) {
+                long resultNanos = SystemClock.elapsedRealtimeNanos();
+                if (faces.isEmpty()) {
+                    roiTracker.onFaceLost();
+                    cascade.onFaceLost();
+                    rateScheduler.onFaceLost(frame.captureNanos / 1_000_000L);
+                    signal.faceFound = false;
+                    signal.lowVisibility = false;
+                    signal.captureNanos = frame.captureNanos;
+                    l.onFaceSignal(signal);
+                } else {
+                    handleFaces(l, faces, frame, slot, cascade);
+                    if (pipelineStats.isEnabled()) {
+                        pipelineStats.record(PipelineStats.STAGE_HANDLE, SystemClock.elapsedRealtimeNanos() - resultNanos);
+                    }
+                }
+            }
+        }
+    }
+
+    /** Samples the frame's Y plane in place. */
+    private int measureQuality(ImageProxy imageProxy) {
+        ImageProxy.PlaneProxy y = imageProxy.getPlanes()[0];
+        return frameQuality.measure(y.getBuffer(), y.getRowStride(), y.getPixelStride(),
+                imageProxy.getWidth(), imageProxy.getHeight());
+    }
+
+    /** Openness (0–1) from both eyes' contour EAR, or NaN when the face has no eye contours. */
+    private float contourOpenness(Face face) {
+        float l = eyeAspectRatio(face.getContour(FaceContour.LEFT_EYE));
+        float r = eyeAspectRatio(face.getContour(FaceContour.RIGHT_EYE));
+        float ear = Float.isNaN(l) ? r : Float.isNaN(r) ? l : (l + r) / 2f;
+        return Float.isNaN(ear) ? Float.NaN : ContourEar.openness(ear);
+    }
+
+    private float eyeAspectRatio(FaceContour contour) {
+        if (contour == null) return Float.NaN;
+        List<PointF> points = contour.getPoints();
+        int n = Math.min(points.size(), ContourEar.EYE_POINTS);
+        for (int i = 0; i < n; i++) {
+            PointF p = points.get(i);
+            eyeContour[2 * i] = p.x;
+            eyeContour[2 * i + 1] = p.y;
+        }
+        return ContourEar.eyeAspectRatio(eyeContour, points.size());
+    }
+
+    /** Copies the tracked face region into an NV21 image so the detector only scans that area. */
+    private InputImage cropToRoi(ImageProxy imageProxy, int rotation, YuvCropper cropper) {
+        ImageProxy.PlaneProxy[] planes = imageProxy.getPlanes();
+        int w = roiTracker.getCropWidth(), h = roiTracker.getCropHeight();
+        ByteBuffer nv21 = cropper.crop(
+                planes[0].getBuffer(), planes[0].getRowStride(), planes[0].getPixelStride(),
+                planes[1].getBuffer(), planes[2].getBuffer(), planes[1].getRowStride(), planes[1].getPixelStride(),
+                roiTracker.getCropLeft(), roiTracker.getCropTop(), w, h,
+                imageProxy.getWidth(), imageProxy.getHeight());
+        return InputImage.fromByteBuffer(nv21, w, h, rotation, InputImage.IMAGE_FORMAT_NV21);
+    }
+
+    /** Reduces the detected faces to one signal, delivers it and feeds the resulting state back. */
+    private void handleFaces(Listener l, List<Face> faces, PendingFrame frame, int lane, DetectorCascade cascade) {
+        int tier = frame.tier;
+        long captureNanos = frame.captureNanos;
+        Face face = driverLock.select(tier * inFlight.getDepth() + lane, faces, FACES,
+                frame.offsetX, frame.offsetY, captureNanos / 1_000_000L, largestFaceOnly);
+        Rect box = face.getBoundingBox();
+        // Later frames may already have moved the crop window, so convert with this frame's offsets
+        roiTracker.onFaceFound(box.left + frame.offsetX, box.top + frame.offsetY,
+                box.right + frame.offsetX, box.bottom + frame.offsetY, false);
+        Float le = face.getLeftEyeOpenProbability(), re = face.getRightEyeOpenProbability();
+        float e = ((le != null ? le : 1.0f) + (re != null ? re : 1.0f)) / 2.0f;
+        if (contourEar) {
+            // Contours come with the most prominent face only; fall back to the probability without them
+            float c = contourOpenness(face);
+            if (!Float.isNaN(c)) e = contourOnly ? c : (e + c) / 2f;
+        }
+        float ty = face.getHeadEulerAngleY(), tx = face.getHeadEulerAngleX();
+        boolean yawn = false;
+        FaceLandmark mb = face.getLandmark(FaceLandmark.MOUTH_BOTTOM), nb = face.getLandmark(FaceLandmark.NOSE_BASE);
+        if (mb != null && nb != null && (mb.getPosition().y - nb.getPosition().y) > (box.height() * Constants.YAWN_RATIO)) yawn = true;
+
+        signal.set(captureNanos, true, e, ty, tx, yawn, Float.NaN);
+        int state = l.onFaceSignal(signal);
+
+        long captureMs = captureNanos / 1_000_000L;
+        rateScheduler.onResult(captureMs, e, ty, tx, state);
+        cascade.onSignals(tier, captureMs, e, yawn);
+    }
+}
@@ -6,7 +6,6 @@ import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
 
-import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
@@ -19,7 +18,11 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 
     private static final String DATABASE_NAME = "SafeDriveLogs.db";
     // Version 4: Added Yawns and Distractions
-    private static final int DATABASE_VERSION = 4;
+    // Version 5: Added PERCLOS and blink-duration summary
+    // Version 6: Added frame pipeline stats (frame rates, dropped frames, stage latencies)
+    // Version 7: Added GovernorTransitions (degradation level changes)
+    // Version 8: Added time-to-first-face
+    private static final int DATABASE_VERSION = 8;
 
     private static DatabaseHelper sInstance;
 
@@ -47,7 +50,19 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                 "FATIGUE_CRITICAL_COUNT INTEGER DEFAULT 0, " +
                 "BLINK_COUNT INTEGER DEFAULT 0, " +
                 "YAWN_COUNT INTEGER DEFAULT 0, " +
-                "DISTRACTION_COUNT INTEGER DEFAULT 0)");
+                "DISTRACTION_COUNT INTEGER DEFAULT 0, " +
+                "PERCLOS REAL DEFAULT 0, " +
+                "PEAK_PERCLOS REAL DEFAULT 0, " +
+                "MEAN_BLINK_MS REAL DEFAULT 0, " +
+                "LONG_BLINK_COUNT INTEGER DEFAULT 0, " +
+                "CAMERA_FPS REAL DEFAULT 0, " +
+                "ANALYSIS_FPS REAL DEFAULT 0, " +
+                "DROPPED_FRAMES INTEGER DEFAULT 0, " +
+                "SKIPPED_FRAMES INTEGER DEFAULT 0, " +
+                "FIRST_FACE_MS INTEGER DEFAULT 0)");
+
+        createStageLatencyTable(db);
+        createGovernorTransitionsTable(db);
 
         // Speed limit violations logged independently (GPS always running)
         db.execSQL("CREATE TABLE SpeedAlerts (" +
@@ -59,9 +74,65 @@ public class DatabaseHelper extends SQLiteOpenHelper {
 
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        db.execSQL("DROP TABLE IF EXISTS Sessions");
-        db.execSQL("DROP TABLE IF EXISTS SpeedAlerts");
-        onCreate(db);
+        if (oldVersion < 4) {
+            db.execSQL("DROP TABLE IF EXISTS Sessions");
+            db.execSQL("DROP TABLE IF EXISTS SpeedAlerts");
+            db.execSQL("DROP TABLE IF EXISTS StageLatency");
+            db.execSQL("DROP TABLE IF EXISTS GovernorTransitions");
+            onCreate(db);
+            return;
+        }
+        // From version 4 on, keep the driver's history and only add new columns
+        if (oldVersion < 5) {
+            db.execSQL("ALTER TABLE Sessions ADD COLUMN PERCLOS REAL DEFAULT 0");
+            db.execSQL("ALTER TABLE Sessions ADD COLUMN PEAK_PERCLOS REAL DEFAULT 0");
+            db.execSQL("ALTER TABLE Sessions ADD COLUMN MEAN_BLINK_MS REAL DEFAULT 0");
+            db.execSQL("ALTER TABLE Sessions ADD COLUMN LONG_BLINK_COUNT INTEGER DEFAULT 0");
+        }
+        if (oldVersion < 6) {
+            db.execSQL("ALTER TABLE Sessions ADD COLUMN CAMERA_FPS REAL DEFAULT 0");
+            db.execSQL("ALTER TABLE Sessions ADD COLUMN ANALYSIS_FPS REAL DEFAULT 0");
+            db.execSQL("ALTER TABLE Sessions ADD COLUMN DROPPED_FRAMES INTEGER DEFAULT 0");
+            db.execSQL("ALTER TABLE Sessions ADD COLUMN SKIPPED_FRAMES INTEGER DEFAULT 0");
+            createStageLatencyTable(db);
+        }
+        if (oldVersion < 7) {
+            createGovernorTransitionsTable(db);
+        }
+        if (oldVersion < 8) {
+            db.execSQL("ALTER TABLE Sessions ADD COLUMN FIRST_FACE_MS INTEGER DEFAULT 0");
+        }
+    }
+
+    // One row per pipeline stage per instrumented session; BUCKETS keeps the raw
+    // histogram (PipelineStats bucket order) so sessions can be re-aggregated
+    private void createStageLatencyTable(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE StageLatency (" +
+                "ID INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                "SESSION_ID INTEGER, " +
+                "STAGE TEXT, " +
+                "SAMPLES INTEGER, " +
+                "MEAN_MS REAL, " +
+                "P50_MS REAL, " +
+                "P95_MS REAL, " +
+                "P99_MS REAL, " +
+                "MAX_MS REAL, " +
+                "BUCKETS TEXT)");
+    }
+
+    // One row per degradation governor level change, with the inputs behind it;
+    // HEADROOM is null where the platform does not report it
+    private void createGovernorTransitionsTable(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE GovernorTransitions (" +
+                "ID INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                "SESSION_ID INTEGER, " +
+                "TIME DATETIME DEFAULT CURRENT_TIMESTAMP, " +
+                "FROM_LEVEL INTEGER, " +
+                "TO_LEVEL INTEGER, " +
+                "THERMAL_STATUS INTEGER, " +
+                "HEADROOM REAL, " +
+                "BATTERY_PERCENT INTEGER, " +
+                "CHARGING INTEGER)");
     }
 
     // ─── SESSION METHODS ─────────────────────────────────────────────────────
@@ -85,7 +156,8 @@ public class DatabaseHelper extends SQLiteOpenHelper {
      */
     public void endSession(long sessionId, int durationSeconds,
                            int warningCount, int criticalCount, int blinkCount,
-                           int yawnCount, int distractionCount) {
+                           int yawnCount, int distractionCount,
+                           float perclos, float peakPerclos, float meanBlinkMs, int longBlinkCount) {
         if (sessionId < 0) return;
         SQLiteDatabase db = this.getWritableDatabase();
         ContentValues values = new ContentValues();
@@ -96,12 +168,81 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         values.put("BLINK_COUNT", blinkCount);
         values.put("YAWN_COUNT", yawnCount);
         values.put("DISTRACTION_COUNT", distractionCount);
+        values.put("PERCLOS", perclos);
+        values.put("PEAK_PERCLOS", peakPerclos);
+        values.put("MEAN_BLINK_MS", meanBlinkMs);
+        values.put("LONG_BLINK_COUNT", longBlinkCount);
         db.update("Sessions", values, "ID = ?", new String[]{String.valueOf(sessionId)});
 
         Log.d(Constants.TAG, "endSession() updated ID=" + sessionId
                 + " duration=" + durationSeconds + "s warn=" + warningCount
                 + " crit=" + criticalCount + " blinks=" + blinkCount
-                + " yawns=" + yawnCount + " distract=" + distractionCount);
+                + " yawns=" + yawnCount + " distract=" + distractionCount
+                + " perclos=" + perclos + " longBlinks=" + longBlinkCount);
+    }
+
+    /**
+     * Stores the frame pipeline stats of an instrumented session: frame rates and
+     * dropped frames on the Sessions row, one StageLatency row per recorded stage.
+     */
+    public void savePipelineStats(long sessionId, PipelineStats stats) {
+        if (sessionId < 0) return;
+        SQLiteDatabase db = this.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            ContentValues values = new ContentValues();
+            values.put("CAMERA_FPS", stats.getCameraFps());
+            values.put("ANALYSIS_FPS", stats.getAnalysisFps());
+            values.put("DROPPED_FRAMES", stats.getDroppedFrames());
+            values.put("SKIPPED_FRAMES", stats.getSkippedFrames());
+            db.update("Sessions", values, "ID = ?", new String[]{String.valueOf(sessionId)});
+
+            for (int stage = 0; stage < PipelineStats.STAGE_COUNT; stage++) {
+                long samples = stats.getSamples(stage);
+                if (samples == 0) continue;
+                ContentValues row = new ContentValues();
+                row.put("SESSION_ID", sessionId);
+                row.put("STAGE", PipelineStats.stageName(stage));
+                row.put("SAMPLES", samples);
+                row.put("MEAN_MS", stats.getMeanMs(stage));
+                row.put("P50_MS", stats.getPercentileMs(stage, 0.50f));
+                row.put("P95_MS", stats.getPercentileMs(stage, 0.95f));
+                row.put("P99_MS", stats.getPercentileMs(stage, 0.99f));
+                row.put("MAX_MS", stats.getMaxMs(stage));
+                row.put("BUCKETS", stats.bucketsCsv(stage));
+                db.insert("StageLatency", null, row);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /** Stores the time from the start request to the session's first detected face. */
+    public void saveFirstFaceMs(long sessionId, long firstFaceMs) {
+        if (sessionId < 0) return;
+        SQLiteDatabase db = this.getWritableDatabase();
+        ContentValues values = new ContentValues();
+        values.put("FIRST_FACE_MS", firstFaceMs);
+        db.update("Sessions", values, "ID = ?", new String[]{String.valueOf(sessionId)});
+    }
+
+    /** Logs a degradation governor level change during a session. */
+    public void addGovernorTransition(long sessionId, int fromLevel, int toLevel, int thermalStatus,
+                                      float headroom, int batteryPercent, boolean charging) {
+        if (sessionId < 0) return;
+        SQLiteDatabase db = this.getWritableDatabase();
+        ContentValues values = new ContentValues();
+        values.put("SESSION_ID", sessionId);
+        values.put("TIME", currentTimestamp());
+        values.put("FROM_LEVEL", fromLevel);
+        values.put("TO_LEVEL", toLevel);
+        values.put("THERMAL_STATUS", thermalStatus);
+        if (Float.isNaN(headroom)) values.putNull("HEADROOM");
+        else values.put("HEADROOM", headroom);
+        values.put("BATTERY_PERCENT", batteryPercent);
+        values.put("CHARGING", charging ? 1 : 0);
+        db.insert("GovernorTransitions", null, values);
     }
 
     /** Returns all completed sessions, newest first. */
@@ -113,8 +254,14 @@ public class DatabaseHelper extends SQLiteOpenHelper {
             cursor = db.rawQuery(
                     "SELECT ID, START_TIME, END_TIME, DURATION_SECONDS, " +
                             "FATIGUE_WARNING_COUNT, FATIGUE_CRITICAL_COUNT, BLINK_COUNT, " +
-                            "YAWN_COUNT, DISTRACTION_COUNT " +
-                            "FROM Sessions WHERE END_TIME IS NOT NULL ORDER BY ID DESC", null);
+                            "YAWN_COUNT, DISTRACTION_COUNT, " +
+                            "PERCLOS, PEAK_PERCLOS, MEAN_BLINK_MS, LONG_BLINK_COUNT, " +
+                            "CAMERA_FPS, ANALYSIS_FPS, DROPPED_FRAMES, SKIPPED_FRAMES, FIRST_FACE_MS, " +
+                            "(SELECT P95_MS FROM StageLatency L WHERE L.SESSION_ID = S.ID AND L.STAGE = ?), " +
+                            "(SELECT P95_MS FROM StageLatency L WHERE L.SESSION_ID = S.ID AND L.STAGE = ?) " +
+                            "FROM Sessions S WHERE END_TIME IS NOT NULL ORDER BY ID DESC",
+                    new String[]{PipelineStats.stageName(PipelineStats.STAGE_DETECT),
+                            PipelineStats.stageName(PipelineStats.STAGE_TOTAL)});
 
             Log.d(Constants.TAG, "getAllSessions() query returned " + cursor.getCount() + " rows");
             while (cursor.moveToNext()) {
@@ -128,6 +275,17 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                 s.blinkCount = cursor.getInt(6);
                 s.yawnCount = cursor.getInt(7);
                 s.distractionCount = cursor.getInt(8);
+                s.perclos = cursor.getFloat(9);
+                s.peakPerclos = cursor.getFloat(10);
+                s.meanBlinkMs = cursor.getFloat(11);
+                s.longBlinkCount = cursor.getInt(12);
+                s.cameraFps = cursor.getFloat(13);
+                s.analysisFps = cursor.getFloat(14);
+                s.droppedFrames = cursor.getLong(15);
+                s.skippedFrames = cursor.getLong(16);
+                s.firstFaceMs = cursor.getLong(17);
+                s.detectP95Ms = cursor.isNull(18) ? 0f : cursor.getFloat(18);
+                s.lagP95Ms = cursor.isNull(19) ? 0f : cursor.getFloat(19);
                 sessions.add(s);
             }
         } finally {
@@ -175,6 +333,8 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         SQLiteDatabase db = this.getWritableDatabase();
         db.delete("Sessions", null, null);
         db.delete("SpeedAlerts", null, null);
+        db.delete("StageLatency", null, null);
+        db.delete("GovernorTransitions", null, null);
     }
 
     private String currentTimestamp() {
@@ -194,23 +354,26 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         public int blinkCount;
         public int yawnCount;
         public int distractionCount;
+        public float perclos;        // 0–1, eyes-closed share of observed time
+        public float peakPerclos;    // highest 60 s sliding-window PERCLOS
+        public float meanBlinkMs;
+        public int longBlinkCount;
+        public float cameraFps;      // 0 when the session was not instrumented
+        public float analysisFps;
+        public long droppedFrames;
+        public long skippedFrames;
+        public long firstFaceMs;     // start request to first detected face; 0 if never measured
+        public float detectP95Ms;    // detect stage p95; 0 when the session was not instrumented
+        public float lagP95Ms;       // capture-to-decision p95, likewise
 
         /** Human-readable duration, e.g. "12 min 5 sec" */
         public String formattedDuration() {
-            if (durationSeconds < 60)
-                return durationSeconds + " sec";
-            int m = durationSeconds / 60;
-            int s = durationSeconds % 60;
-            if (m < 60)
-                return m + " min" + (s > 0 ? " " + s + " sec" : "");
-            int h = m / 60;
-            int rem = m % 60;
-            return h + " hr" + (rem > 0 ? " " + rem + " min" : "");
+            return SessionFormat.duration(durationSeconds);
         }
 
         /** Human-readable date+time from the SQLite timestamp. */
         public String formattedStartTime() {
-            return formatSqliteDateTime(startTime);
+            return SessionFormat.sqliteDateTime(startTime);
         }
 
         /** Verdict label + colour for the session summary. */
@@ -235,19 +398,7 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         public float limitKmh;
 
         public String formattedTime() {
-            return formatSqliteDateTime(time);
-        }
-    }
-
-    private static String formatSqliteDateTime(String sqlTs) {
-        if (sqlTs == null) return "";
-        try {
-            SimpleDateFormat in  = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault());
-            SimpleDateFormat out = new SimpleDateFormat("MMM d, yyyy  h:mm a", Locale.getDefault());
-            Date d = in.parse(sqlTs);
-            return d != null ? out.format(d) : sqlTs;
-        } catch (ParseException e) {
-            return sqlTs;
+            return SessionFormat.sqliteDateTime(time);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,120 @@
+package com.example.drivesafe;
+
+import android.graphics.Bitmap;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.mlkit.vision.common.InputImage;
+import com.google.mlkit.vision.face.FaceDetection;
+import com.google.mlkit.vision.face.FaceDetector;
+import com.google.mlkit.vision.face.FaceDetectorOptions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Two-tier face detection.
+ *
+ * The fast tier (fast performance mode, eye classification, no landmarks)
+ * handles presence, head pose and eye-open probability on most frames. The
+ * full tier (accurate mode, all landmarks and classifications) runs only when
+ * a result has to be confirmed: eyes near the closure threshold, a yawn in
+ * progress, or the periodic yawn check every
+ * {@link Constants#CASCADE_FULL_CHECK_INTERVAL_MS} (longer under thermal
+ * degradation; confirmations are never deferred).
+ *
+ * Both tiers track faces across frames ({@link DriverLock}) unless contours
+ * are on: contour mode only reports the most prominent face, so tracking
+ * adds nothing there.
+ *
+ * With {@code contours} both tiers also return eye contours for the
+ * geometric EAR ({@link ContourEar}). That is the most expensive detector
+ * option, so it is only enabled when configured; its cost shows in the
+ * pipeline diagnostics' detect stage.
+ *
+ * For pipelined detection each tier has one detector per lane: a detector
+ * instance runs its frames one at a time, so frames in flight together need
+ * their own. Tier decisions are shared by all lanes.
+ *
+ * Tier decisions are made by a {@link CascadePolicy}.
+ *
+ * Not thread-safe: call from the analysis thread only.
+ */
+public final class DetectorCascade {
+
+    public static final int TIER_FAST = CascadePolicy.TIER_FAST;
+    public static final int TIER_FULL = CascadePolicy.TIER_FULL;
+
+    private final FaceDetector[] fastDetectors;
+    private final FaceDetector[] fullDetectors;
+    private final CascadePolicy policy;
+
+    public DetectorCascade(float minFaceSize, float earThreshold, boolean contours, int lanes) {
+        this.policy = new CascadePolicy(earThreshold);
+        int contourMode = contours ? FaceDetectorOptions.CONTOUR_MODE_ALL : FaceDetectorOptions.CONTOUR_MODE_NONE;
+        FaceDetectorOptions.Builder fast = new FaceDetectorOptions.Builder()
+                .setPerformanceMode(FaceDetectorOptions.PERFORMANCE_MODE_FAST)
+                .setClassificationMode(FaceDetectorOptions.CLASSIFICATION_MODE_ALL)
+                .setContourMode(contourMode)
+                .setMinFaceSize(minFaceSize);
+        FaceDetectorOptions.Builder full = new FaceDetectorOptions.Builder()
+                .setPerformanceMode(FaceDetectorOptions.PERFORMANCE_MODE_ACCURATE)
+                .setClassificationMode(FaceDetectorOptions.CLASSIFICATION_MODE_ALL)
+                .setLandmarkMode(FaceDetectorOptions.LANDMARK_MODE_ALL)
+                .setContourMode(contourMode)
+                .setMinFaceSize(minFaceSize);
+        if (!contours) {
+            fast.enableTracking();
+            full.enableTracking();
+        }
+        FaceDetectorOptions fastOptions = fast.build(), fullOptions = full.build();
+        fastDetectors = new FaceDetector[lanes];
+        fullDetectors = new FaceDetector[lanes];
+        for (int i = 0; i < lanes; i++) {
+            fastDetectors[i] = FaceDetection.getClient(fastOptions);
+            fullDetectors[i] = FaceDetection.getClient(fullOptions);
+        }
+    }
+
+    /**
+     * Runs a blank frame through every detector so the models load now, while the
+     * camera is still opening, instead of on the driver's first frames. These
+     * passes are not counted in the tier stats.
+     */
+    public Task<List<Task<?>>> warmUp() {
+        InputImage blank = InputImage.fromBitmap(Bitmap.createBitmap(
+                Constants.WARMUP_FRAME_WIDTH, Constants.WARMUP_FRAME_HEIGHT, Bitmap.Config.ARGB_8888), 0);
+        List<Task<?>> passes = new ArrayList<>(fastDetectors.length * 2);
+        for (FaceDetector d : fastDetectors) passes.add(d.process(blank));
+        for (FaceDetector d : fullDetectors) passes.add(d.process(blank));
+        return Tasks.whenAllComplete(passes);
+    }
+
+    /** Picks the tier for the next frame. */
+    public int chooseTier(long nowMs) { return policy.chooseTier(nowMs); }
+
+    /** Interval of the periodic full-tier check; confirmations do not wait for it. */
+    public void setFullCheckIntervalMs(long ms) { policy.setFullCheckIntervalMs(ms); }
+
+    /** Eye-closed threshold that makes a frame a closure candidate for the full tier. */
+    public void setEarThreshold(float threshold) { policy.setEarThreshold(threshold); }
+
+    public FaceDetector detector(int tier, int lane) {
+        return tier == TIER_FULL ? fullDetectors[lane] : fastDetectors[lane];
+    }
+
+    public int getLanes() { return fastDetectors.length; }
+
+    /** Feeds back the driver signals from a frame processed on {@code tier}. */
+    public void onSignals(int tier, long nowMs, float ear, boolean yawning) {
+        policy.onSignals(tier, nowMs, ear, yawning);
+    }
+
+    /** No face: presence checks go back to the fast tier. */
+    public void onFaceLost() { policy.onFaceLost(); }
+
+    public void close() {
+        for (FaceDetector d : fastDetectors) d.close();
+        for (FaceDetector d : fullDetectors) d.close();
+    }
+}
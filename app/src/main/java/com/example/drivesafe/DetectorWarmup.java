@@ -0,0 +1,38 @@
+package com.example.drivesafe;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.camera.lifecycle.ProcessCameraProvider;
+
+/**
+ * One-time warm-up ahead of the first monitoring session, started while the
+ * splash video plays: CameraX begins initialising its provider in the
+ * background, and a throwaway detector cascade loads the native face detector
+ * and its models. The first session then opens the camera from a ready
+ * provider, and its own detectors find the models already loaded.
+ *
+ * Main thread only.
+ */
+final class DetectorWarmup {
+
+    private static boolean started = false;
+
+    private DetectorWarmup() { /* Non-instantiable */ }
+
+    static void start(Context context) {
+        if (started) return;
+        started = true;
+        Context app = context.getApplicationContext();
+        // Initialises asynchronously; later getInstance calls share the same future
+        ProcessCameraProvider.getInstance(app);
+
+        SharedPreferences prefs = app.getSharedPreferences(Constants.PREFS_NAME, Context.MODE_PRIVATE);
+        String earSource = prefs.getBoolean(Constants.KEY_SMART_DETECTION_ENABLED, false)
+                ? prefs.getString(Constants.KEY_EAR_SOURCE, Constants.EAR_SOURCE_PROBABILITY)
+                : Constants.EAR_SOURCE_PROBABILITY;
+        final DetectorCascade cascade = new DetectorCascade(Constants.DEFAULT_MIN_FACE_SIZE, Constants.EAR_THRESHOLD,
+                !Constants.EAR_SOURCE_PROBABILITY.equals(earSource), 1);
+        cascade.warmUp().addOnCompleteListener(task -> cascade.close());
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.drivesafe;
 
 import android.app.AlertDialog;
+import android.content.Context;
 import android.os.Bundle;
 import android.util.Log;
 import android.view.LayoutInflater;
@@ -15,6 +16,7 @@ import androidx.annotation.Nullable;
 import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
 
+import java.io.File;
 import java.util.List;
 
 public class DriveHistoryFragment extends Fragment {
@@ -62,12 +64,28 @@ public class DriveHistoryFragment extends Fragment {
                 .setMessage(R.string.clear_all_message)
                 .setPositiveButton(R.string.clear, (dialog, which) -> {
                     dbHelper.clearAll();
+                    deleteSessionFiles();
                     loadData();
                 })
                 .setNegativeButton(R.string.cancel, null)
                 .show();
     }
 
+    /** Session archives and flight recorder incidents are keyed by Sessions row ID, so they go with the rows. */
+    private void deleteSessionFiles() {
+        Context ctx = getContext();
+        if (ctx == null) return;
+        deleteFiles(new File(ctx.getFilesDir(), Constants.ARCHIVE_DIR));
+        deleteFiles(new File(new File(ctx.getFilesDir(), Constants.FLIGHT_RECORDER_DIR),
+                Constants.FLIGHT_RECORDER_INCIDENT_DIR));
+    }
+
+    private static void deleteFiles(File dir) {
+        File[] files = dir.listFiles();
+        if (files == null) return;
+        for (File f : files) f.delete();
+    }
+
     /** Reload when the tab becomes visible via show/hide transactions. */
     @Override
     public void onHiddenChanged(boolean hidden) {
@@ -124,6 +142,19 @@ public class DriveHistoryFragment extends Fragment {
             ((TextView) card.findViewById(R.id.sessionYawnCount))
                     .setText(String.valueOf(session.yawnCount));
 
+            ((TextView) card.findViewById(R.id.sessionEyeMetrics))
+                    .setText(getString(R.string.session_eye_metrics_format,
+                            session.perclos * 100f, session.peakPerclos * 100f,
+                            session.meanBlinkMs, session.longBlinkCount));
+
+            if (session.cameraFps > 0) {
+                TextView pipeline = card.findViewById(R.id.sessionPipeline);
+                pipeline.setText(getString(R.string.session_pipeline_format,
+                        session.cameraFps, session.analysisFps, session.droppedFrames,
+                        session.detectP95Ms, session.lagP95Ms));
+                pipeline.setVisibility(View.VISIBLE);
+            }
+
             TextView verdict = card.findViewById(R.id.sessionVerdict);
             verdict.setText(session.verdict());
             verdict.setTextColor(session.verdictColor());
@@ -0,0 +1,162 @@
+package com.example.drivesafe;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+import android.view.View;
+import android.widget.TextView;
+
+import androidx.core.content.ContextCompat;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Vsync-coalesced renderer for the eye-tracking status views.
+ *
+ * Snapshots may be submitted from any thread at analysis rate. Only the most
+ * recent one is drawn, at most once per display frame, and a view is touched
+ * only when its rendered value actually changed. Event flags of snapshots
+ * that were skipped are OR-ed together and handed to the callback with the
+ * next drawn snapshot, so no alert is lost by coalescing.
+ */
+public final class EyeStatusRenderer implements Choreographer.FrameCallback {
+
+    public interface Callback {
+        /**
+         * UI thread, once per display frame that has a pending snapshot.
+         *
+         * @param events event flags accumulated since the previous call
+         * @return false to skip drawing this snapshot (e.g. monitoring has stopped)
+         */
+        boolean onDisplayFrame(DriverStateSnapshot latest, int events);
+    }
+
+    private static final int NONE = Integer.MIN_VALUE;
+
+    private final Callback callback;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable scheduleFrame = () -> Choreographer.getInstance().postFrameCallback(this);
+
+    private final AtomicReference<DriverStateSnapshot> pending = new AtomicReference<>();
+    private final AtomicInteger pendingEvents = new AtomicInteger();
+    private final AtomicBoolean frameScheduled = new AtomicBoolean();
+
+    private Context context;
+    private TextView statusText, eyeValueText, blinkRateText, perclosText;
+    private View statusCircle;
+
+    // ─── Last Rendered Values (UI thread) ────────────────────────────────
+    private int renderedState = NONE;
+    private int renderedEarHundredths = NONE;
+    private int renderedBlinkRate = NONE;
+    private int renderedPerclosPercent = NONE;
+    private final char[] earChars = {'E', 'A', 'R', ':', ' ', '0', '.', '0', '0'};
+
+    public EyeStatusRenderer(Context context, TextView statusText, TextView eyeValueText,
+                             TextView blinkRateText, TextView perclosText, View statusCircle,
+                             Callback callback) {
+        this.context = context;
+        this.statusText = statusText;
+        this.eyeValueText = eyeValueText;
+        this.blinkRateText = blinkRateText;
+        this.perclosText = perclosText;
+        this.statusCircle = statusCircle;
+        this.callback = callback;
+    }
+
+    /** Any thread: queues a snapshot for the next display frame. */
+    public void submit(DriverStateSnapshot snapshot) {
+        pending.set(snapshot);
+        if (snapshot.events != 0) pendingEvents.getAndAccumulate(snapshot.events, (a, b) -> a | b);
+        if (frameScheduled.compareAndSet(false, true)) mainHandler.post(scheduleFrame);
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        frameScheduled.set(false);
+        DriverStateSnapshot snapshot = pending.getAndSet(null);
+        int events = pendingEvents.getAndSet(0);
+        if (snapshot == null || statusText == null) return;
+        if (!callback.onDisplayFrame(snapshot, events)) return;
+
+        if (snapshot.state != renderedState) {
+            renderedState = snapshot.state;
+            applyState(snapshot.state);
+        }
+
+        int earHundredths = Math.max(0, Math.min(100, Math.round(snapshot.ear * 100f)));
+        if (earHundredths != renderedEarHundredths && eyeValueText != null) {
+            renderedEarHundredths = earHundredths;
+            if (earHundredths == 100) {
+                earChars[5] = '1'; earChars[7] = '0'; earChars[8] = '0';
+            } else {
+                earChars[5] = '0';
+                earChars[7] = (char) ('0' + earHundredths / 10);
+                earChars[8] = (char) ('0' + earHundredths % 10);
+            }
+            eyeValueText.setText(earChars, 0, earChars.length);
+        }
+
+        if (snapshot.blinkRate != renderedBlinkRate && blinkRateText != null) {
+            renderedBlinkRate = snapshot.blinkRate;
+            blinkRateText.setText(context.getString(R.string.blink_rate_format, snapshot.blinkRate));
+        }
+
+        int perclosPercent = Math.round(snapshot.perclos * 100f);
+        if (perclosPercent != renderedPerclosPercent && perclosText != null) {
+            renderedPerclosPercent = perclosPercent;
+            perclosText.setText(context.getString(R.string.perclos_format, perclosPercent));
+        }
+    }
+
+    private void applyState(int state) {
+        int text, color, background;
+        switch (state) {
+            case DriverStateEngine.STATE_PAUSED:
+                text = R.string.detection_paused_stationary; color = R.color.text_secondary; background = R.drawable.circular_neon_border; break;
+            case DriverStateEngine.STATE_LOW_VISIBILITY:
+                text = R.string.status_low_visibility; color = R.color.status_warning; background = R.drawable.circular_neon_border; break;
+            case DriverStateEngine.STATE_DISTRACTED:
+                text = R.string.status_distracted; color = R.color.status_warning; background = R.drawable.circular_neon_yellow; break;
+            case DriverStateEngine.STATE_YAWNING:
+                text = R.string.status_yawning; color = R.color.status_warning; background = R.drawable.circular_neon_yellow; break;
+            case DriverStateEngine.STATE_WARNING:
+                text = R.string.status_wake_up; color = R.color.status_warning; background = R.drawable.circular_neon_yellow; break;
+            case DriverStateEngine.STATE_CRITICAL:
+                text = R.string.status_pull_over; color = R.color.status_danger; background = R.drawable.circular_neon_red; break;
+            case DriverStateEngine.STATE_ATTENTIVE:
+                text = R.string.status_attentive; color = R.color.status_safe; background = R.drawable.circular_neon_border; break;
+            default:
+                return;
+        }
+        statusText.setText(text);
+        statusText.setTextColor(ContextCompat.getColor(context, color));
+        if (statusCircle != null) statusCircle.setBackgroundResource(background);
+    }
+
+    /** Forgets what is on screen, e.g. after the views were reset to the offline look. */
+    public void invalidate() {
+        renderedState = NONE;
+        renderedEarHundredths = NONE;
+        renderedBlinkRate = NONE;
+        renderedPerclosPercent = NONE;
+    }
+
+    /** UI thread: drops pending work and releases the views. */
+    public void detach() {
+        mainHandler.removeCallbacks(scheduleFrame);
+        Choreographer.getInstance().removeFrameCallback(this);
+        pending.set(null);
+        pendingEvents.set(0);
+        frameScheduled.set(false);
+        context = null;
+        statusText = null;
+        eyeValueText = null;
+        blinkRateText = null;
+        perclosText = null;
+        statusCircle = null;
+    }
+}
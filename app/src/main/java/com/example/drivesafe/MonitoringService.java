@@ -0,0 +1,833 @@
+package com.example.drivesafe;
+
+import android.Manifest;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.content.pm.PackageManager;
+import android.content.pm.ServiceInfo;
+import android.location.Location;
+import android.location.LocationManager;
+import android.media.AudioAttributes;
+import android.media.MediaPlayer;
+import android.os.BatteryManager;
+import android.os.Binder;
+import android.os.Build;
+import android.os.Handler;
+import android.os.IBinder;
+import android.os.Looper;
+import android.os.PowerManager;
+import android.os.SystemClock;
+import android.telephony.SmsManager;
+import android.util.Log;
+import android.util.Size;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.camera.core.CameraSelector;
+import androidx.camera.core.ImageAnalysis;
+import androidx.camera.core.Preview;
+import androidx.camera.core.resolutionselector.AspectRatioStrategy;
+import androidx.camera.core.resolutionselector.ResolutionSelector;
+import androidx.camera.core.resolutionselector.ResolutionStrategy;
+import androidx.camera.lifecycle.ProcessCameraProvider;
+import androidx.core.app.ServiceCompat;
+import androidx.core.content.ContextCompat;
+import androidx.lifecycle.LifecycleService;
+
+import com.google.android.gms.location.FusedLocationProviderClient;
+import com.google.android.gms.location.LocationCallback;
+import com.google.android.gms.location.LocationRequest;
+import com.google.android.gms.location.LocationResult;
+import com.google.android.gms.location.LocationServices;
+import com.google.android.gms.location.Priority;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Foreground service that owns a monitoring session: the camera analysis
+ * pipeline, GPS speed gating, alerts and session accounting.
+ *
+ * Only {@link ImageAnalysis} is bound to the camera, on the service's own
+ * lifecycle, so monitoring carries on with the screen off or the app in the
+ * background and no preview surface is composed. The eye-tracking screen binds
+ * to the service, attaches a preview while it is visible and draws the
+ * snapshots it is handed; alerts do not depend on it being there.
+ *
+ * A {@link DegradationGovernor} watches thermal status, thermal headroom and
+ * battery during the session and moves the pipeline between its operating
+ * points; each change is logged with the session.
+ *
+ * Sessions are started and stopped with {@link #start} / {@link #stop} or,
+ * once bound, {@link #stopMonitoring}. Main thread unless marked otherwise.
+ */
+public class MonitoringService extends LifecycleService {
+
+    private static final String ACTION_START = "com.example.drivesafe.action.START_MONITORING";
+    private static final String ACTION_STOP = "com.example.drivesafe.action.STOP_MONITORING";
+    // elapsedRealtime of the start request, the zero point of the time-to-first-face metric
+    private static final String EXTRA_REQUESTED_AT = "com.example.drivesafe.extra.REQUESTED_AT";
+
+    /** Display side of a session, implemented by the bound screen. */
+    public interface Listener {
+        /** Analysis thread: one frame's driver state, at analysis rate. */
+        void onSnapshot(DriverStateSnapshot snapshot);
+
+        void onMonitoringChanged(boolean monitoring);
+
+        /** The emergency SMS went out to {@code number}. */
+        void onSosSent(String number);
+    }
+
+    public final class LocalBinder extends Binder {
+        public MonitoringService getService() { return MonitoringService.this; }
+    }
+
+    /** Starts a session in the foreground service; the caller has checked the camera permission. */
+    public static void start(Context context) {
+        ContextCompat.startForegroundService(context, new Intent(context, MonitoringService.class)
+                .setAction(ACTION_START)
+                .putExtra(EXTRA_REQUESTED_AT, SystemClock.elapsedRealtime()));
+    }
+
+    public static void stop(Context context) {
+        context.startService(new Intent(context, MonitoringService.class).setAction(ACTION_STOP));
+    }
+
+    private final IBinder binder = new LocalBinder();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicBoolean isMonitoring = new AtomicBoolean(false);
+    private volatile Listener listener;
+
+    // ─── Pipeline ────────────────────────────────────────────────────────
+    private ExecutorService cameraExecutor;
+    private Executor analysisResultExecutor;
+    private ExecutorService ioExecutor;
+    private CameraFaceSignalSource signalSource;
+    private DatabaseHelper dbHelper;
+    private ProcessCameraProvider cameraProvider;
+    private ImageAnalysis analysis;
+    private Preview preview;
+    private Preview.SurfaceProvider previewSurface;
+    private boolean previewSmall = false;
+    private int pipelineDepth = 1;
+    private AnalysisMode analysisMode = AnalysisMode.DEFAULT;
+    private AnalysisMode boundMode;  // what the bound analysis stream was built for
+
+    // ─── Driver State Machine (analysis thread only) ─────────────────────
+    private final CaptureClock captureClock = new CaptureClock();
+    private final PipelineStats pipelineStats = new PipelineStats();
+    private final DriverStateEngine driverState = new DriverStateEngine(captureClock);
+    private volatile DriverStateSnapshot lastSnapshot;
+    private FlightRecorder flightRecorder; // opened per session
+    private SignalArchive.Writer signalArchive;
+    private int alertedState = DriverStateEngine.STATE_IDLE;
+    private long firstFaceFrom = -1;          // start request time until the first face, then -1
+    private volatile long firstFaceMs = -1;
+
+    // ─── Personal EAR Calibration (analysis thread only) ─────────────────
+    private final EarCalibrator earCalibrator = new EarCalibrator();
+    private boolean calibrating = false;
+    private SharedPreferences calibrationPrefs;
+    private String calibrationKey; // EAR source + "_" + profile name
+
+    // ─── Alerts ──────────────────────────────────────────────────────────
+    private final AtomicInteger pendingEvents = new AtomicInteger();
+    private final AtomicBoolean alertPosted = new AtomicBoolean();
+    private final Runnable dispatchAlerts = this::dispatchAlerts;
+    private MediaPlayer mediaPlayer;
+    private MediaPlayer voicePlayer;
+    private int notifiedState = DriverStateEngine.STATE_IDLE;
+
+    // ─── Session Tracking ────────────────────────────────────────────────
+    private long sessionId = -1;
+    private long sessionStartTime = 0;
+
+    // ─── Speed Gating ────────────────────────────────────────────────────
+    private boolean minSpeedGatingEnabled = false;
+    private float minSpeedKmh = Constants.DEFAULT_MIN_SPEED_KMH;
+    private volatile float currentSpeedKmh = 0f;
+    private FusedLocationProviderClient fusedSpeedClient;
+    private LocationCallback speedCallback;
+    private boolean isSpeedTrackingActive = false;
+
+    // ─── Degradation Governor ────────────────────────────────────────────
+    private final DegradationGovernor governor = new DegradationGovernor();
+    private final Runnable pollGovernor = this::pollGovernor;
+    private PowerManager powerManager;
+    private BatteryManager batteryManager;
+    private PowerManager.OnThermalStatusChangedListener thermalListener; // API 29+
+    private float thermalHeadroom = Float.NaN; // as of the last poll
+
+    // ─── Lifecycle ───────────────────────────────────────────────────────
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        cameraExecutor = Executors.newSingleThreadExecutor();
+        // ML Kit results are handled on the analysis thread; late results after shutdown are dropped.
+        analysisResultExecutor = command -> {
+            try {
+                cameraExecutor.execute(command);
+            } catch (RejectedExecutionException e) {
+                Log.w(Constants.TAG, "Dropping face result after analysis shutdown");
+            }
+        };
+        ioExecutor = Executors.newSingleThreadExecutor();
+        signalSource = new CameraFaceSignalSource(analysisResultExecutor, captureClock, pipelineStats);
+        dbHelper = DatabaseHelper.getInstance(this);
+        powerManager = getSystemService(PowerManager.class);
+        batteryManager = getSystemService(BatteryManager.class);
+        DetectorWarmup.start(this);
+    }
+
+    @Override
+    public int onStartCommand(@Nullable Intent intent, int flags, int startId) {
+        super.onStartCommand(intent, flags, startId);
+        String action = intent != null ? intent.getAction() : null;
+        if (ACTION_START.equals(action)) {
+            startMonitoring(intent.getLongExtra(EXTRA_REQUESTED_AT, SystemClock.elapsedRealtime()));
+        } else {
+            stopMonitoring();
+        }
+        return START_NOT_STICKY;
+    }
+
+    @Nullable
+    @Override
+    public IBinder onBind(@NonNull Intent intent) {
+        super.onBind(intent);
+        return binder;
+    }
+
+    @Override
+    public void onDestroy() {
+        stopMonitoring();
+        final ExecutorService io = ioExecutor;
+        cameraExecutor.execute(() -> {
+            releaseDetectors();
+            io.shutdown();
+        });
+        cameraExecutor.shutdown();
+        releaseMediaPlayer();
+        mainHandler.removeCallbacksAndMessages(null);
+        super.onDestroy();
+    }
+
+    // ─── Bound Screen ────────────────────────────────────────────────────
+
+    public boolean isMonitoring() { return isMonitoring.get(); }
+
+    public void setListener(@Nullable Listener listener) { this.listener = listener; }
+
+    /** Stage timings of the current session; the screen adds its render stage. */
+    public PipelineStats getPipelineStats() { return pipelineStats; }
+
+    /**
+     * Shows the camera feed on {@code surface} while monitoring, until
+     * {@link #detachPreview}; {@code small} asks for a low-resolution stream,
+     * e.g. for the picture-in-picture window. Binding, unbinding or resizing the
+     * preview reconfigures the camera session, so analysis pauses for a moment
+     * but the session and its analyzer carry on.
+     */
+    public void attachPreview(Preview.SurfaceProvider surface, boolean small) {
+        if (preview != null && (surface != previewSurface || small != previewSmall)) unbindPreview();
+        previewSurface = surface;
+        previewSmall = small;
+        bindPreview();
+    }
+
+    /** Unbinds the preview, e.g. while the screen is hidden; analysis continues on its own. */
+    public void detachPreview() {
+        previewSurface = null;
+        unbindPreview();
+    }
+
+    // ─── Session ─────────────────────────────────────────────────────────
+
+    /** @param requestedAt elapsedRealtime of the driver's start request */
+    private void startMonitoring(long requestedAt) {
+        if (isMonitoring.get()) return;
+        if (ContextCompat.checkSelfPermission(this, Manifest.permission.CAMERA) != PackageManager.PERMISSION_GRANTED) {
+            stopSelf();
+            return;
+        }
+
+        SharedPreferences prefs = getSharedPreferences(Constants.PREFS_NAME, Context.MODE_PRIVATE);
+        String sensitivity = prefs.getString(Constants.KEY_SENSITIVITY, Constants.DEFAULT_SENSITIVITY);
+        final float earThreshold = Constants.getEarThreshold(sensitivity);
+        final long warningDuration = Constants.getWarningDuration(sensitivity);
+
+        boolean smartDetectionEnabled = prefs.getBoolean(Constants.KEY_SMART_DETECTION_ENABLED, false);
+        minSpeedGatingEnabled = smartDetectionEnabled && prefs.getBoolean(Constants.KEY_MIN_SPEED_ENABLED, false)
+                && ContextCompat.checkSelfPermission(this, Manifest.permission.ACCESS_FINE_LOCATION)
+                        == PackageManager.PERMISSION_GRANTED;
+        minSpeedKmh = prefs.getFloat(Constants.KEY_MIN_SPEED_KMH, Constants.DEFAULT_MIN_SPEED_KMH);
+        final boolean largestOnly = smartDetectionEnabled && prefs.getBoolean(Constants.KEY_LARGEST_FACE_ONLY, false);
+        final float faceSize = smartDetectionEnabled
+                ? prefs.getFloat(Constants.KEY_MIN_FACE_SIZE, Constants.DEFAULT_MIN_FACE_SIZE)
+                : Constants.DEFAULT_MIN_FACE_SIZE;
+        final boolean speedGating = minSpeedGatingEnabled;
+        final float gatingKmh = minSpeedKmh;
+        final String earSource = smartDetectionEnabled
+                ? prefs.getString(Constants.KEY_EAR_SOURCE, Constants.EAR_SOURCE_PROBABILITY)
+                : Constants.EAR_SOURCE_PROBABILITY;
+        final boolean collectStats = prefs.getBoolean(Constants.KEY_PIPELINE_STATS, false);
+        pipelineDepth = prefs.getBoolean(Constants.KEY_PIPELINED_DETECTION, false)
+                ? Constants.getPipelineDepth(Runtime.getRuntime().availableProcessors()) : 1;
+        final int depth = pipelineDepth;
+        analysisMode = AnalysisMode.of(prefs.getString(Constants.KEY_ANALYSIS_RESOLUTION, AnalysisMode.RESOLUTION_AUTO),
+                prefs.getString(Constants.KEY_ANALYSIS_FORMAT, AnalysisMode.FORMAT_YUV));
+        final File flightDir = new File(getFilesDir(), Constants.FLIGHT_RECORDER_DIR);
+        final boolean calibrate = prefs.getBoolean(Constants.KEY_EAR_CALIBRATION, true);
+        final String profile = prefs.getString(Constants.KEY_PROFILE_NAME, "");
+        final String baselineKey = earSource + "_" + profile;
+        final float priorOpenEar = prefs.getFloat(Constants.KEY_EAR_OPEN_PREFIX + baselineKey, Float.NaN);
+        final float priorOpenSd = prefs.getFloat(Constants.KEY_EAR_OPEN_SD_PREFIX + baselineKey, Float.NaN);
+
+        isMonitoring.set(true);
+        startForeground(speedGating);
+        cameraExecutor.execute(() -> {
+            openFlightRecorder(flightDir);
+            calibrating = calibrate;
+            calibrationPrefs = prefs;
+            calibrationKey = baselineKey;
+            earCalibrator.start(earThreshold, priorOpenEar, priorOpenSd);
+            // A stored baseline applies from the first frame; this drive's own estimate follows
+            float startThreshold = calibrate ? earCalibrator.getThreshold() : earThreshold;
+            signalSource.configure(faceSize, earThreshold, warningDuration, largestOnly, earSource, depth);
+            signalSource.setEarThreshold(startThreshold);
+            driverState.setEarThreshold(startThreshold);
+            driverState.setWarningDuration(warningDuration);
+            driverState.setMinSpeedGating(speedGating, gatingKmh);
+            driverState.reset();
+            captureClock.reset();
+            pipelineStats.reset(collectStats);
+            alertedState = DriverStateEngine.STATE_IDLE;
+            firstFaceFrom = requestedAt;
+            signalSource.start(this::onFaceSignal);
+        });
+        lastSnapshot = null;
+        firstFaceMs = -1;
+        notifiedState = DriverStateEngine.STATE_IDLE;
+        sessionStartTime = System.currentTimeMillis();
+
+        setupMediaPlayer();
+        sessionId = dbHelper.startSession();
+        final long recorderSessionId = sessionId;
+        final File archiveDir = new File(getFilesDir(), Constants.ARCHIVE_DIR);
+        cameraExecutor.execute(() -> {
+            if (flightRecorder != null) flightRecorder.setSessionId(recorderSessionId);
+            openSignalArchive(archiveDir, recorderSessionId);
+        });
+        Toast.makeText(this, getString(R.string.session_started, sessionId), Toast.LENGTH_SHORT).show();
+
+        startGovernor();
+        bindCamera();
+        if (minSpeedGatingEnabled) startSpeedTracking();
+        Listener l = listener;
+        if (l != null) l.onMonitoringChanged(true);
+    }
+
+    /** Ends the session, saves it and leaves the foreground; the service lives on while bound. */
+    public void stopMonitoring() {
+        if (!isMonitoring.getAndSet(false)) {
+            stopSelf();
+            return;
+        }
+        signalSource.stop();
+        if (!cameraExecutor.isShutdown()) cameraExecutor.execute(this::releaseDetectors);
+        stopSpeedTracking();
+        stopGovernor();
+        if (cameraProvider != null) cameraProvider.unbindAll();
+        analysis = null;
+        boundMode = null;
+        preview = null;
+
+        if (sessionId >= 0) {
+            int durationSec = (int) ((System.currentTimeMillis() - sessionStartTime) / 1000);
+            saveSession(durationSec);
+            Toast.makeText(this, getString(R.string.session_saved, durationSec), Toast.LENGTH_LONG).show();
+        }
+        if (mediaPlayer != null && mediaPlayer.isPlaying()) mediaPlayer.pause();
+        if (voicePlayer != null && voicePlayer.isPlaying()) voicePlayer.pause();
+
+        StatusNotifier notifier = StatusNotifier.getInstance(this);
+        notifier.setStopAction(null);
+        // Detach rather than remove: the speed screen may still be using the same notification
+        ServiceCompat.stopForeground(this, ServiceCompat.STOP_FOREGROUND_DETACH);
+        notifier.clearEyeStatus();
+
+        Listener l = listener;
+        if (l != null) l.onMonitoringChanged(false);
+        stopSelf();
+    }
+
+    private void startForeground(boolean withLocation) {
+        StatusNotifier notifier = StatusNotifier.getInstance(this);
+        notifier.setEyeStatus("GuardianEye: Running", "Monitoring eye alertness...");
+        notifier.setStopAction(PendingIntent.getService(this, 0,
+                new Intent(this, MonitoringService.class).setAction(ACTION_STOP), PendingIntent.FLAG_IMMUTABLE));
+        int types = ServiceInfo.FOREGROUND_SERVICE_TYPE_CAMERA;
+        if (withLocation) types |= ServiceInfo.FOREGROUND_SERVICE_TYPE_LOCATION;
+        ServiceCompat.startForeground(this, Constants.NOTIFICATION_ID, notifier.buildForeground(), types);
+    }
+
+    /** Stores the session totals from the last snapshot and closes the session. */
+    private void saveSession(int durationSec) {
+        DriverStateSnapshot s = lastSnapshot;
+        if (s != null) {
+            dbHelper.endSession(sessionId, durationSec, s.warningCount, s.criticalCount,
+                    s.totalBlinks, s.totalYawns, s.totalDistractions,
+                    s.sessionPerclos, s.peakPerclos, s.sessionMeanBlinkMs, s.sessionLongBlinks);
+        } else {
+            dbHelper.endSession(sessionId, durationSec, 0, 0, 0, 0, 0, 0f, 0f, 0f, 0);
+        }
+        if (pipelineStats.isEnabled()) dbHelper.savePipelineStats(sessionId, pipelineStats);
+        if (firstFaceMs >= 0) dbHelper.saveFirstFaceMs(sessionId, firstFaceMs);
+        sessionId = -1;
+    }
+
+    // ─── Camera ──────────────────────────────────────────────────────────
+
+    private void bindCamera() {
+        ProcessCameraProvider.getInstance(this).addListener(() -> {
+            try {
+                if (!isMonitoring.get()) return;
+                cameraProvider = ProcessCameraProvider.getInstance(this).get();
+                analysis = buildAnalysis();
+                cameraProvider.bindToLifecycle(this, CameraSelector.DEFAULT_FRONT_CAMERA, analysis);
+                bindPreview();
+            } catch (Exception e) { Log.e(Constants.TAG, "Error starting camera", e); }
+        }, ContextCompat.getMainExecutor(this));
+    }
+
+    /** The analysis use case for the session's mode, or its lowest resolution while the governor asks for that. */
+    private ImageAnalysis buildAnalysis() {
+        boundMode = governor.isLowResolution() ? analysisMode.lowest() : analysisMode;
+        // Pipelined detection holds one camera image per frame in flight; the analyzer closes each when its detection ends
+        ImageAnalysis useCase = pipelineDepth > 1
+                ? AnalysisFrames.builder(boundMode).setBackpressureStrategy(ImageAnalysis.STRATEGY_BLOCK_PRODUCER)
+                        .setImageQueueDepth(pipelineDepth).build()
+                : AnalysisFrames.builder(boundMode).setBackpressureStrategy(ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST).build();
+        useCase.setAnalyzer(cameraExecutor, signalSource);
+        return useCase;
+    }
+
+    /** Swaps the analysis stream for one at the governed resolution; the session and its state carry on. */
+    private void rebindAnalysis() {
+        if (cameraProvider == null || analysis == null) return;
+        cameraProvider.unbind(analysis);
+        analysis = buildAnalysis();
+        cameraExecutor.execute(signalSource::onStreamChanged);
+        try {
+            cameraProvider.bindToLifecycle(this, CameraSelector.DEFAULT_FRONT_CAMERA, analysis);
+        } catch (Exception e) {
+            Log.e(Constants.TAG, "Error rebinding analysis", e);
+        }
+    }
+
+    private void bindPreview() {
+        if (cameraProvider == null || analysis == null || previewSurface == null || preview != null
+                || !governor.isPreviewAllowed()) return;
+        Preview.Builder builder = new Preview.Builder();
+        if (previewSmall) {
+            builder.setResolutionSelector(new ResolutionSelector.Builder()
+                    .setAspectRatioStrategy(AspectRatioStrategy.RATIO_4_3_FALLBACK_AUTO_STRATEGY)
+                    .setResolutionStrategy(new ResolutionStrategy(
+                            new Size(Constants.PIP_PREVIEW_WIDTH, Constants.PIP_PREVIEW_HEIGHT),
+                            ResolutionStrategy.FALLBACK_RULE_CLOSEST_HIGHER_THEN_LOWER))
+                    .build());
+        }
+        preview = builder.build();
+        preview.setSurfaceProvider(previewSurface);
+        try {
+            cameraProvider.bindToLifecycle(this, CameraSelector.DEFAULT_FRONT_CAMERA, preview);
+        } catch (Exception e) {
+            Log.e(Constants.TAG, "Error binding preview", e);
+            preview = null;
+        }
+    }
+
+    private void unbindPreview() {
+        if (preview != null && cameraProvider != null) cameraProvider.unbind(preview);
+        preview = null;
+    }
+
+    // ─── Degradation Governor ────────────────────────────────────────────
+
+    private void startGovernor() {
+        governor.reset();
+        thermalHeadroom = Float.NaN;
+        applyOperatingPoint();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && powerManager != null) {
+            thermalListener = status -> evaluateGovernor();
+            powerManager.addThermalStatusListener(ContextCompat.getMainExecutor(this), thermalListener);
+        }
+        pollGovernor();
+    }
+
+    private void stopGovernor() {
+        mainHandler.removeCallbacks(pollGovernor);
+        if (thermalListener != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            powerManager.removeThermalStatusListener(thermalListener);
+        }
+        thermalListener = null;
+    }
+
+    /** Reads the inputs the platform does not push (headroom, battery) and re-evaluates. */
+    private void pollGovernor() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R && powerManager != null) {
+            thermalHeadroom = powerManager.getThermalHeadroom(Constants.GOVERNOR_HEADROOM_FORECAST_S);
+        }
+        evaluateGovernor();
+        mainHandler.postDelayed(pollGovernor, Constants.GOVERNOR_POLL_MS);
+    }
+
+    private void evaluateGovernor() {
+        if (!isMonitoring.get()) return;
+        int thermal = Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && powerManager != null
+                ? powerManager.getCurrentThermalStatus() : 0;
+        int capacity = batteryManager != null
+                ? batteryManager.getIntProperty(BatteryManager.BATTERY_PROPERTY_CAPACITY) : -1;
+        int battery = capacity > 0 && capacity <= 100 ? capacity : -1; // -1: property not supported
+        boolean charging = batteryManager != null && batteryManager.isCharging();
+        float headroom = thermalHeadroom;
+
+        int from = governor.getLevel();
+        if (!governor.update(SystemClock.elapsedRealtime(), thermal, headroom, battery, charging)) return;
+        int to = governor.getLevel();
+        Log.i(Constants.TAG, "Degradation " + DegradationGovernor.levelName(from) + " -> "
+                + DegradationGovernor.levelName(to) + " (thermal " + thermal + ", headroom " + headroom
+                + ", battery " + battery + "%" + (charging ? ", charging" : "") + ")");
+        final long id = sessionId;
+        ioExecutor.execute(() -> dbHelper.addGovernorTransition(id, from, to, thermal, headroom, battery, charging));
+        applyOperatingPoint();
+    }
+
+    /** Moves the pipeline to the governor's current operating point. */
+    private void applyOperatingPoint() {
+        final long minIntervalMs = governor.getMinAnalysisIntervalMs();
+        final long fullCheckMs = governor.getFullCheckIntervalMs();
+        cameraExecutor.execute(() -> signalSource.setDegradation(minIntervalMs, fullCheckMs));
+        if (governor.isPreviewAllowed()) bindPreview();
+        else unbindPreview();
+        if (boundMode != null && boundMode != (governor.isLowResolution() ? analysisMode.lowest() : analysisMode)) {
+            rebindAnalysis();
+        }
+        if (isSpeedTrackingActive) requestSpeedUpdates();
+    }
+
+    // ─── Analysis Thread ─────────────────────────────────────────────────
+
+    /** Analysis thread: steps the state machine with one frame's signals and hands out the snapshot. */
+    private int onFaceSignal(FaceSignal signal) {
+        float speed = Float.isNaN(signal.speedKmh) ? currentSpeedKmh : signal.speedKmh;
+        int events = 0;
+        if (signal.faceFound || signal.lowVisibility) {
+            captureClock.setFrameTime(signal.captureNanos);
+            if (signal.faceFound) {
+                if (firstFaceFrom >= 0) {
+                    firstFaceMs = SystemClock.elapsedRealtime() - firstFaceFrom;
+                    firstFaceFrom = -1;
+                }
+                if (calibrating && earCalibrator.onFrame(captureClock.nowMillis(), signal.ear,
+                        signal.headYaw, signal.headPitch, signal.yawning)) {
+                    signalSource.setEarThreshold(earCalibrator.getThreshold());
+                    driverState.setEarThreshold(earCalibrator.getThreshold());
+                }
+                events = driverState.onFrame(signal.ear, signal.headYaw, signal.headPitch, signal.yawning, speed);
+            } else {
+                events = driverState.onLowVisibility();
+            }
+            long decidedAtNanos = SystemClock.elapsedRealtimeNanos();
+            long lagMs = captureClock.lagMillis(decidedAtNanos, System.nanoTime());
+            pipelineStats.record(PipelineStats.STAGE_TOTAL, lagMs * 1_000_000L);
+            // Without a face the last measured openness stays on screen
+            DriverStateSnapshot previous = lastSnapshot;
+            float ear = signal.faceFound ? signal.ear : previous != null ? previous.ear : 1f;
+            DriverStateSnapshot snapshot = DriverStateSnapshot.from(driverState, events, ear,
+                    signalSource.getAnalysisRateHz(), lagMs, decidedAtNanos);
+            lastSnapshot = snapshot;
+            Listener l = listener;
+            if (l != null) l.onSnapshot(snapshot);
+            if (events != 0 || snapshot.state != alertedState) {
+                alertedState = snapshot.state;
+                if (events != 0) pendingEvents.getAndAccumulate(events, (a, b) -> a | b);
+                if (alertPosted.compareAndSet(false, true)) mainHandler.post(dispatchAlerts);
+            }
+        }
+        int flags = FaceSignalFile.flagsOf(signal);
+        if (flightRecorder != null) {
+            flightRecorder.record(signal.captureNanos, flags, signal.ear, signal.headYaw,
+                    signal.headPitch, speed, events);
+        }
+        if (signalArchive != null) {
+            try {
+                signalArchive.append(signal.captureNanos, flags, signal.ear, signal.headYaw,
+                        signal.headPitch, speed, events);
+            } catch (IOException e) {
+                Log.e(Constants.TAG, "Signal archive write failed; archiving stopped", e);
+                closeSignalArchive();
+            }
+        }
+        return driverState.getState();
+    }
+
+    /** Analysis thread: closes the detectors and the session's recorders. */
+    private void releaseDetectors() {
+        signalSource.release();
+        closeFlightRecorder();
+        closeSignalArchive();
+        saveEarBaseline();
+    }
+
+    /** Analysis thread: keeps this drive's open-eye baseline for the driver's next session. */
+    private void saveEarBaseline() {
+        if (calibrating && earCalibrator.isCalibrated()) {
+            calibrationPrefs.edit()
+                    .putFloat(Constants.KEY_EAR_OPEN_PREFIX + calibrationKey, earCalibrator.getOpenEar())
+                    .putFloat(Constants.KEY_EAR_OPEN_SD_PREFIX + calibrationKey, earCalibrator.getOpenEarSd())
+                    .apply();
+        }
+        calibrating = false;
+    }
+
+    /**
+     * Analysis thread: starts the session's signal archive, first dropping the oldest
+     * ones over {@link Constants#ARCHIVE_MAX_BYTES}; the session is kept without it if that fails.
+     */
+    private void openSignalArchive(File dir, long id) {
+        closeSignalArchive();
+        if (!dir.isDirectory() && !dir.mkdirs()) return;
+        SignalArchive.prune(dir, Constants.ARCHIVE_MAX_BYTES);
+        try {
+            signalArchive = new SignalArchive.Writer(SignalArchive.fileFor(dir, id), id);
+        } catch (IOException e) {
+            Log.e(Constants.TAG, "Signal archive unavailable", e);
+        }
+    }
+
+    /** Analysis thread: writes the last partial block and closes the archive. */
+    private void closeSignalArchive() {
+        if (signalArchive == null) return;
+        try {
+            signalArchive.close();
+        } catch (IOException e) {
+            Log.w(Constants.TAG, "Error closing signal archive", e);
+        }
+        signalArchive = null;
+    }
+
+    /** Analysis thread: maps the flight recorder ring; monitoring carries on without it if that fails. */
+    private void openFlightRecorder(File dir) {
+        if (flightRecorder != null) return;
+        if (!dir.isDirectory() && !dir.mkdirs()) return;
+        try {
+            flightRecorder = new FlightRecorder(new File(dir, Constants.FLIGHT_RECORDER_RING_FILE),
+                    new File(dir, Constants.FLIGHT_RECORDER_INCIDENT_DIR),
+                    Constants.FLIGHT_RECORDER_CAPACITY, ioExecutor);
+        } catch (IOException e) {
+            Log.e(Constants.TAG, "Flight recorder unavailable", e);
+        }
+    }
+
+    /** Analysis thread: exports any pending incident and unmaps the ring. */
+    private void closeFlightRecorder() {
+        if (flightRecorder == null) return;
+        try {
+            flightRecorder.close();
+        } catch (IOException | RejectedExecutionException e) {
+            Log.w(Constants.TAG, "Error closing flight recorder", e);
+        }
+        flightRecorder = null;
+    }
+
+    // ─── Alerts ──────────────────────────────────────────────────────────
+
+    /** Reacts to the events and state change raised since the last dispatch; runs with or without a screen. */
+    private void dispatchAlerts() {
+        alertPosted.set(false);
+        int events = pendingEvents.getAndSet(0);
+        DriverStateSnapshot snapshot = lastSnapshot;
+        if (!isMonitoring.get() || snapshot == null) return;
+        int state = snapshot.state;
+
+        if (state != notifiedState) {
+            notifiedState = state;
+            notifyState(state);
+        }
+
+        if (state == DriverStateEngine.STATE_ATTENTIVE || state == DriverStateEngine.STATE_PAUSED
+                || state == DriverStateEngine.STATE_LOW_VISIBILITY) {
+            if (mediaPlayer != null && mediaPlayer.isPlaying()) mediaPlayer.pause();
+            if (voicePlayer != null && voicePlayer.isPlaying()) voicePlayer.pause();
+        }
+
+        if ((events & DriverStateEngine.EVENT_DISTRACTION) != 0) playVoiceThenAlarm(R.raw.voice_focus);
+        if ((events & DriverStateEngine.EVENT_YAWN) != 0) playVoiceThenAlarm(R.raw.voice_yawn);
+        if ((events & DriverStateEngine.EVENT_WARNING) != 0) playVoiceThenAlarm(R.raw.voice_break);
+        if ((events & DriverStateEngine.EVENT_CRITICAL) != 0) {
+            playVoiceThenAlarm(R.raw.voice_sos);
+            sendEmergencySOS();
+        }
+    }
+
+    /** Posts the status notification for a newly entered state. */
+    private void notifyState(int state) {
+        StatusNotifier notifier = StatusNotifier.getInstance(this);
+        switch (state) {
+            case DriverStateEngine.STATE_PAUSED:
+                notifier.setEyeStatus("GuardianEye:Paused", "Stationary-detection paused.");
+                break;
+            case DriverStateEngine.STATE_LOW_VISIBILITY:
+                notifier.setEyeStatus("GuardianEye: Low visibility", "Camera cannot see the driver clearly.");
+                break;
+            case DriverStateEngine.STATE_DISTRACTED:
+                notifier.setEyeStatus("GuardianEye: ALERT", "Eyes off the road!");
+                break;
+            case DriverStateEngine.STATE_YAWNING:
+                notifier.setEyeStatus("GuardianEye: ALERT", "Drowsiness (Yawning) detected!");
+                break;
+            case DriverStateEngine.STATE_WARNING:
+                notifier.setEyeStatus("GuardianEye: WARNING", "Drowsiness detected! Wake up!");
+                break;
+            case DriverStateEngine.STATE_CRITICAL:
+                notifier.setEyeStatus("GuardianEye: CRITICAL", "Driver unresponsive! Pull over!");
+                break;
+            case DriverStateEngine.STATE_ATTENTIVE:
+                notifier.setEyeStatus("GuardianEye: Running", "Monitoring eye alertness...");
+                break;
+        }
+    }
+
+    private void setupMediaPlayer() {
+        releaseMediaPlayer();
+        SharedPreferences prefs = getSharedPreferences(Constants.PREFS_NAME, Context.MODE_PRIVATE);
+        String soundChoice = prefs.getString(Constants.KEY_ALARM_SOUND, Constants.DEFAULT_ALARM_SOUND);
+
+        int soundResId = R.raw.alarm1;
+        switch (soundChoice) {
+            case "Sound 2": soundResId = R.raw.alarm2; break;
+            case "Sound 3": soundResId = R.raw.alarm3; break;
+            case "Sound 4": soundResId = R.raw.alarm4; break;
+        }
+
+        mediaPlayer = MediaPlayer.create(this, soundResId);
+        if (mediaPlayer != null) {
+            float volume = prefs.getFloat(Constants.KEY_ALARM_VOLUME, Constants.DEFAULT_ALARM_VOLUME) / 100f;
+            mediaPlayer.setVolume(volume, volume);
+            mediaPlayer.setAudioAttributes(new AudioAttributes.Builder()
+                    .setUsage(AudioAttributes.USAGE_ALARM)
+                    .setContentType(AudioAttributes.CONTENT_TYPE_SONIFICATION)
+                    .build());
+        }
+    }
+
+    private void playVoiceThenAlarm(int voiceResId) {
+        if (!isMonitoring.get()) return;
+
+        if (voicePlayer != null) {
+            voicePlayer.release();
+            voicePlayer = null;
+        }
+
+        voicePlayer = MediaPlayer.create(this, voiceResId);
+        if (voicePlayer != null) {
+            voicePlayer.setOnCompletionListener(mp -> {
+                if (mediaPlayer != null && !mediaPlayer.isPlaying() && isMonitoring.get()) {
+                    mediaPlayer.start();
+                }
+            });
+            voicePlayer.start();
+        } else {
+            if (mediaPlayer != null && !mediaPlayer.isPlaying()) mediaPlayer.start();
+        }
+    }
+
+    private void releaseMediaPlayer() {
+        if (mediaPlayer != null) {
+            try {
+                if (mediaPlayer.isPlaying()) mediaPlayer.stop();
+                mediaPlayer.release();
+            } catch (Exception e) { Log.e(Constants.TAG, "Error releasing MediaPlayer", e); }
+            mediaPlayer = null;
+        }
+        if (voicePlayer != null) {
+            try {
+                if (voicePlayer.isPlaying()) voicePlayer.stop();
+                voicePlayer.release();
+            } catch (Exception e) { Log.e(Constants.TAG, "Error releasing voicePlayer", e); }
+            voicePlayer = null;
+        }
+    }
+
+    private void sendEmergencySOS() {
+        try {
+            SharedPreferences prefs = getSharedPreferences(Constants.PREFS_NAME, Context.MODE_PRIVATE);
+            String emergencyNumber = prefs.getString(Constants.KEY_EMERGENCY_NUMBER, "");
+            if (emergencyNumber.isEmpty()) { Toast.makeText(this, R.string.sos_failed_no_number, Toast.LENGTH_LONG).show(); return; }
+            LocationManager lm = (LocationManager) getSystemService(Context.LOCATION_SERVICE);
+            Location location = null;
+            if (ContextCompat.checkSelfPermission(this, Manifest.permission.ACCESS_FINE_LOCATION) == PackageManager.PERMISSION_GRANTED) {
+                location = lm.getLastKnownLocation(LocationManager.GPS_PROVIDER);
+                if (location == null) location = lm.getLastKnownLocation(LocationManager.NETWORK_PROVIDER);
+            }
+            String mapsLink = location != null ? "https://maps.google.com/?q=" + location.getLatitude() + "," + location.getLongitude() : "Location unavailable";
+            String message = "EMERGENCY: Driver is unresponsive! Last known location: " + mapsLink;
+            SmsManager.getDefault().sendTextMessage(emergencyNumber, null, message, null, null);
+            Listener l = listener;
+            if (l != null) l.onSosSent(emergencyNumber);
+        } catch (Exception e) {
+            Log.e(Constants.TAG, "Failed to send SOS", e);
+            Toast.makeText(this, R.string.sos_failed, Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    // ─── Speed Gating ────────────────────────────────────────────────────
+
+    private void startSpeedTracking() {
+        fusedSpeedClient = LocationServices.getFusedLocationProviderClient(this);
+        speedCallback = new LocationCallback() {
+            @Override
+            public void onLocationResult(@NonNull LocationResult locationResult) {
+                if (locationResult.getLastLocation() == null) return;
+                currentSpeedKmh = locationResult.getLastLocation().getSpeed() * 3.6f;
+            }
+        };
+
+        requestSpeedUpdates();
+    }
+
+    /** Requests location updates at the governor's interval, replacing any earlier request. */
+    private void requestSpeedUpdates() {
+        long intervalMs = governor.getGpsIntervalMs();
+        LocationRequest request = new LocationRequest.Builder(Priority.PRIORITY_HIGH_ACCURACY, intervalMs)
+                .setMinUpdateIntervalMillis(intervalMs / 2).build();
+        try {
+            fusedSpeedClient.requestLocationUpdates(request, speedCallback, Looper.getMainLooper());
+            isSpeedTrackingActive = true;
+        } catch (SecurityException e) {
+            Log.w(Constants.TAG, "Location permission revoked; speed gating off", e);
+            final float gatingKmh = minSpeedKmh;
+            cameraExecutor.execute(() -> driverState.setMinSpeedGating(false, gatingKmh));
+        }
+    }
+
+    private void stopSpeedTracking() {
+        if (fusedSpeedClient != null && speedCallback != null && isSpeedTrackingActive) {
+            fusedSpeedClient.removeLocationUpdates(speedCallback);
+            isSpeedTrackingActive = false;
+        }
+        currentSpeedKmh = 0f;
+    }
+}
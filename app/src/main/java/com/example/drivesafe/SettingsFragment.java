@@ -1,8 +1,10 @@
 package com.example.drivesafe;
 
+import android.Manifest;
 import android.app.AlertDialog;
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.content.pm.PackageManager;
 import android.media.AudioManager;
 import android.media.MediaPlayer;
 import android.net.Uri;
@@ -28,6 +30,7 @@ import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatDelegate;
+import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
 
 import com.google.android.material.button.MaterialButton;
@@ -40,6 +43,8 @@ import com.google.android.material.textfield.TextInputEditText;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 public class SettingsFragment extends Fragment {
 
@@ -71,6 +76,19 @@ public class SettingsFragment extends Fragment {
     private Slider sliderMinSpeed;
     private TextView tvMinSpeedLabel;
     private MaterialSwitch switchLargestFace;
+    private MaterialSwitch switchContourEar;
+    private MaterialSwitch switchContourOnly;
+    private Slider sliderMinFaceSize;
+    private TextView tvMinFaceSizeLabel;
+    private MaterialSwitch switchEarCalibration;
+    private MaterialSwitch switchPipelinedDetection;
+    private MaterialSwitch switchPipelineStats;
+    private TextView tvAnalysisMode;
+    private MaterialButton btnAnalysisMode;
+    private MaterialButton btnAnalysisBenchmark;
+    private AnalysisMode selectedAnalysisMode = AnalysisMode.DEFAULT;
+    private AnalysisBenchmarkRunner benchmarkRunner;
+    private AlertDialog benchmarkDialog;
 
     // ─── Core ────────────────────────────────────────────────────────────
     private SharedPreferences prefs;
@@ -140,6 +158,16 @@ public class SettingsFragment extends Fragment {
         sliderMinSpeed        = view.findViewById(R.id.sliderMinSpeed);
         tvMinSpeedLabel       = view.findViewById(R.id.tvMinSpeedLabel);
         switchLargestFace     = view.findViewById(R.id.switchLargestFace);
+        switchContourEar      = view.findViewById(R.id.switchContourEar);
+        switchContourOnly     = view.findViewById(R.id.switchContourOnly);
+        sliderMinFaceSize     = view.findViewById(R.id.sliderMinFaceSize);
+        tvMinFaceSizeLabel    = view.findViewById(R.id.tvMinFaceSizeLabel);
+        switchEarCalibration  = view.findViewById(R.id.switchEarCalibration);
+        switchPipelinedDetection = view.findViewById(R.id.switchPipelinedDetection);
+        switchPipelineStats   = view.findViewById(R.id.switchPipelineStats);
+        tvAnalysisMode        = view.findViewById(R.id.tvAnalysisMode);
+        btnAnalysisMode       = view.findViewById(R.id.btnAnalysisMode);
+        btnAnalysisBenchmark  = view.findViewById(R.id.btnAnalysisBenchmark);
 
         // ─── Load existing settings ──────────────────────────────────────
         etUserName.setText(prefs.getString(Constants.KEY_PROFILE_NAME, ""));
@@ -175,6 +203,24 @@ public class SettingsFragment extends Fragment {
 
         switchLargestFace.setChecked(prefs.getBoolean(Constants.KEY_LARGEST_FACE_ONLY, false));
 
+        String earSource = prefs.getString(Constants.KEY_EAR_SOURCE, Constants.EAR_SOURCE_PROBABILITY);
+        switchContourEar.setChecked(!Constants.EAR_SOURCE_PROBABILITY.equals(earSource));
+        switchContourOnly.setChecked(Constants.EAR_SOURCE_CONTOUR.equals(earSource));
+        switchContourOnly.setEnabled(switchContourEar.isChecked());
+
+        float minFacePercent = prefs.getFloat(Constants.KEY_MIN_FACE_SIZE, Constants.DEFAULT_MIN_FACE_SIZE) * 100f;
+        float minFaceClamped = Math.max(5, Math.min(50, Math.round(minFacePercent / 5.0f) * 5.0f));
+        sliderMinFaceSize.setValue(minFaceClamped);
+        tvMinFaceSizeLabel.setText(String.format(getString(R.string.min_face_size_format), minFaceClamped));
+
+        switchEarCalibration.setChecked(prefs.getBoolean(Constants.KEY_EAR_CALIBRATION, true));
+        switchPipelinedDetection.setChecked(prefs.getBoolean(Constants.KEY_PIPELINED_DETECTION, false));
+        switchPipelineStats.setChecked(prefs.getBoolean(Constants.KEY_PIPELINE_STATS, false));
+        selectedAnalysisMode = AnalysisMode.of(
+                prefs.getString(Constants.KEY_ANALYSIS_RESOLUTION, AnalysisMode.RESOLUTION_AUTO),
+                prefs.getString(Constants.KEY_ANALYSIS_FORMAT, AnalysisMode.FORMAT_YUV));
+        tvAnalysisMode.setText(getString(R.string.analysis_mode_format, selectedAnalysisMode));
+
         // Load profile image
         String path = prefs.getString(Constants.KEY_PROFILE_IMAGE_PATH, "");
         if (!path.isEmpty()) {
@@ -197,6 +243,8 @@ public class SettingsFragment extends Fragment {
         ivProfilePhoto.setOnClickListener(v -> imagePickerLauncher.launch("image/*"));
         btnSelectSound.setOnClickListener(v -> showSoundDialog());
         btnPreviewSound.setOnClickListener(v -> playPreviewSound(selectedSound));
+        btnAnalysisMode.setOnClickListener(v -> showAnalysisModeDialog());
+        btnAnalysisBenchmark.setOnClickListener(v -> startAnalysisBenchmark());
 
         sliderVolume.addOnChangeListener((slider, value, fromUser) -> {
             tvVolumePercent.setText(String.format(getString(R.string.volume_format), (int) value));
@@ -231,10 +279,17 @@ public class SettingsFragment extends Fragment {
             minSpeedSliderContainer.setVisibility(isChecked ? View.VISIBLE : View.GONE);
         });
 
+        switchContourEar.setOnCheckedChangeListener((buttonView, isChecked) ->
+                switchContourOnly.setEnabled(isChecked));
+
         sliderMinSpeed.addOnChangeListener((slider, value, fromUser) ->
                 tvMinSpeedLabel.setText(String.format(getString(R.string.min_speed_format), value))
         );
 
+        sliderMinFaceSize.addOnChangeListener((slider, value, fromUser) ->
+                tvMinFaceSizeLabel.setText(String.format(getString(R.string.min_face_size_format), value))
+        );
+
         btnSaveSettings.setOnTouchListener((v, event) -> {
             if (event.getAction() == MotionEvent.ACTION_DOWN) {
                 v.startAnimation(AnimationUtils.loadAnimation(getContext(), R.anim.btn_click));
@@ -250,6 +305,7 @@ public class SettingsFragment extends Fragment {
     public void onDestroyView() {
         super.onDestroyView();
         releasePreviewPlayer();
+        stopAnalysisBenchmark();
     }
 
     private void applySensitivityUI(String sensitivity) {
@@ -345,6 +401,14 @@ public class SettingsFragment extends Fragment {
         editor.putFloat(Constants.KEY_MIN_SPEED_KMH, sliderMinSpeed.getValue());
         editor.putBoolean(Constants.KEY_LARGEST_FACE_ONLY,
                 switchLargestFace.isChecked());
+        editor.putString(Constants.KEY_EAR_SOURCE, !switchContourEar.isChecked() ? Constants.EAR_SOURCE_PROBABILITY
+                : switchContourOnly.isChecked() ? Constants.EAR_SOURCE_CONTOUR : Constants.EAR_SOURCE_FUSED);
+        editor.putFloat(Constants.KEY_MIN_FACE_SIZE, sliderMinFaceSize.getValue() / 100f);
+        editor.putBoolean(Constants.KEY_EAR_CALIBRATION, switchEarCalibration.isChecked());
+        editor.putBoolean(Constants.KEY_PIPELINED_DETECTION, switchPipelinedDetection.isChecked());
+        editor.putBoolean(Constants.KEY_PIPELINE_STATS, switchPipelineStats.isChecked());
+        editor.putString(Constants.KEY_ANALYSIS_RESOLUTION, selectedAnalysisMode.resolutionKey());
+        editor.putString(Constants.KEY_ANALYSIS_FORMAT, selectedAnalysisMode.formatKey());
 
         editor.apply();
 
@@ -379,4 +443,85 @@ public class SettingsFragment extends Fragment {
                 })
                 .show();
     }
-}
\ No newline at end of file
+
+    // ─── Camera Analysis ─────────────────────────────────────────────────
+
+    private void showAnalysisModeDialog() {
+        List<AnalysisMode> modes = new ArrayList<>();
+        modes.add(AnalysisMode.DEFAULT);
+        modes.add(AnalysisMode.of(AnalysisMode.RESOLUTION_AUTO, AnalysisMode.FORMAT_RGBA));
+        modes.addAll(AnalysisMode.candidates());
+        String[] names = new String[modes.size()];
+        int checkedItem = 0;
+        for (int i = 0; i < names.length; i++) {
+            AnalysisMode m = modes.get(i);
+            names[i] = m.toString();
+            if (m.resolutionKey().equals(selectedAnalysisMode.resolutionKey()) && m.rgba == selectedAnalysisMode.rgba) {
+                checkedItem = i;
+            }
+        }
+
+        new AlertDialog.Builder(requireContext())
+                .setTitle(R.string.select_analysis_mode)
+                .setSingleChoiceItems(names, checkedItem, (dialog, which) -> {
+                    selectedAnalysisMode = modes.get(which);
+                    tvAnalysisMode.setText(getString(R.string.analysis_mode_format, selectedAnalysisMode));
+                    dialog.dismiss();
+                })
+                .setNegativeButton(R.string.cancel, null)
+                .show();
+    }
+
+    /** Tries every operating point on this device and stores the best one straight away. */
+    private void startAnalysisBenchmark() {
+        Context ctx = requireContext();
+        if (benchmarkRunner != null) return;
+        if (ContextCompat.checkSelfPermission(ctx, Manifest.permission.CAMERA) != PackageManager.PERMISSION_GRANTED) {
+            Toast.makeText(ctx, R.string.analysis_benchmark_failed, Toast.LENGTH_SHORT).show();
+            return;
+        }
+        benchmarkDialog = new AlertDialog.Builder(ctx)
+                .setTitle(R.string.analysis_benchmark_title)
+                .setMessage(" ")
+                .setCancelable(false)
+                .setNegativeButton(R.string.cancel, (dialog, which) -> stopAnalysisBenchmark())
+                .show();
+        benchmarkRunner = new AnalysisBenchmarkRunner(ctx, getViewLifecycleOwner(), new AnalysisBenchmarkRunner.Callback() {
+            @Override
+            public void onProgress(AnalysisMode mode, int point, int points) {
+                if (benchmarkDialog == null) return;
+                benchmarkDialog.setMessage(getString(R.string.analysis_benchmark_progress, mode, point + 1, points));
+            }
+
+            @Override
+            public void onFinished(AnalysisBenchmark result) {
+                benchmarkRunner = null;
+                if (benchmarkDialog != null) benchmarkDialog.dismiss();
+                benchmarkDialog = null;
+                if (!isAdded()) return;
+                int best = result != null ? result.best() : -1;
+                if (best < 0) {
+                    Toast.makeText(getContext(), result == null ? R.string.analysis_benchmark_failed
+                            : R.string.analysis_benchmark_no_face, Toast.LENGTH_LONG).show();
+                    return;
+                }
+                selectedAnalysisMode = result.mode(best);
+                prefs.edit()
+                        .putString(Constants.KEY_ANALYSIS_RESOLUTION, selectedAnalysisMode.resolutionKey())
+                        .putString(Constants.KEY_ANALYSIS_FORMAT, selectedAnalysisMode.formatKey())
+                        .apply();
+                tvAnalysisMode.setText(getString(R.string.analysis_mode_format, selectedAnalysisMode));
+                Toast.makeText(getContext(), getString(R.string.analysis_benchmark_done, selectedAnalysisMode),
+                        Toast.LENGTH_LONG).show();
+            }
+        });
+        benchmarkRunner.start();
+    }
+
+    private void stopAnalysisBenchmark() {
+        if (benchmarkRunner != null) benchmarkRunner.cancel();
+        benchmarkRunner = null;
+        if (benchmarkDialog != null) benchmarkDialog.dismiss();
+        benchmarkDialog = null;
+    }
+}
@@ -1,15 +1,12 @@
 package com.example.drivesafe;
 
 import android.Manifest;
-import android.app.NotificationChannel;
-import android.app.NotificationManager;
 import android.content.Context;
 import android.content.SharedPreferences;
 import android.content.pm.PackageManager;
 import android.media.AudioAttributes;
 import android.media.AudioManager;
 import android.media.MediaPlayer;
-import android.os.Build;
 import android.os.Bundle;
 import android.os.Looper;
 import android.util.Log;
@@ -22,7 +19,6 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.core.app.ActivityCompat;
-import androidx.core.app.NotificationCompat;
 import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
 
@@ -73,7 +69,6 @@ public class SpeedLimitFragment extends Fragment {
 
         dbHelper = DatabaseHelper.getInstance(requireContext());
         setupMediaPlayer();
-        createNotificationChannel();
 
         fusedClient = LocationServices.getFusedLocationProviderClient(requireActivity());
 
@@ -93,7 +88,7 @@ public class SpeedLimitFragment extends Fragment {
                     resetToSafeUI();
                     cancelStatusNotification();
                 } else {
-                    updateStatusNotification("GuardianEye: Active", "Monitoring speed limit...");
+                    updateStatusNotification("Monitoring speed limit...");
                 }
 
                 Toast.makeText(getContext(), isChecked ? "Monitoring Enabled" : "Monitoring Disabled", Toast.LENGTH_SHORT).show();
@@ -122,8 +117,7 @@ public class SpeedLimitFragment extends Fragment {
                 if (isAlertEnabled) {
                     updateSpeedUI(speedKmh);
                     String msg = (speedKmh > userSpeedLimit) ? "SLOW DOWN!" : "Speed is safe";
-                    updateStatusNotification("GuardianEye: Active",
-                            String.format("%.1f km/h | %s", speedKmh, msg));
+                    updateStatusNotification(String.format("%.0f km/h | %s", speedKmh, msg));
                 } else {
                     if (speedValue != null) {
                         speedValue.setText(String.format(getString(R.string.speed_format), speedKmh));
@@ -138,34 +132,14 @@ public class SpeedLimitFragment extends Fragment {
 
     // ─── Notification Helper Methods ─────────────────────────────────────
 
-    private void createNotificationChannel() {
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-            NotificationChannel channel = new NotificationChannel(
-                    Constants.CHANNEL_ID,
-                    Constants.CHANNEL_NAME,
-                    NotificationManager.IMPORTANCE_LOW);
-            NotificationManager nm = requireContext().getSystemService(NotificationManager.class);
-            if (nm != null) nm.createNotificationChannel(channel);
-        }
-    }
-
-    private void updateStatusNotification(String title, String message) {
+    private void updateStatusNotification(String message) {
         if (!isAdded()) return;
-        NotificationCompat.Builder builder = new NotificationCompat.Builder(requireContext(), Constants.CHANNEL_ID)
-                .setSmallIcon(android.R.drawable.ic_menu_compass)
-                .setContentTitle(title)
-                .setContentText(message)
-                .setOngoing(true)
-                .setPriority(NotificationCompat.PRIORITY_LOW);
-
-        NotificationManager nm = (NotificationManager) requireContext().getSystemService(Context.NOTIFICATION_SERVICE);
-        if (nm != null) nm.notify(Constants.NOTIFICATION_ID, builder.build());
+        StatusNotifier.getInstance(requireContext()).setSpeedStatus(message);
     }
 
     private void cancelStatusNotification() {
         if (!isAdded()) return;
-        NotificationManager nm = (NotificationManager) requireContext().getSystemService(Context.NOTIFICATION_SERVICE);
-        if (nm != null) nm.cancel(Constants.NOTIFICATION_ID);
+        StatusNotifier.getInstance(requireContext()).clearSpeedStatus();
     }
 
     // ─── Speed Alert Logic ──────────────────────────────────────────────────
@@ -30,6 +30,9 @@ public class SplashActivity extends AppCompatActivity {
 
         setContentView(R.layout.activity_splash);
 
+        // Camera provider and face models load while the video plays
+        DetectorWarmup.start(this);
+
         videoView = findViewById(R.id.splashVideoView);
         // Ensure your video file is named splash_video in res/raw
         String videoPath = "android.resource://" + getPackageName() + "/" + R.raw.splash_activity;
@@ -0,0 +1,165 @@
+package com.example.drivesafe;
+
+import android.app.Notification;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import androidx.annotation.Nullable;
+import androidx.core.app.NotificationCompat;
+
+/**
+ * Single ongoing GuardianEye status notification shared by the eye and speed screens.
+ *
+ * Eye status and speed status are merged into one notification under
+ * {@link Constants#CHANNEL_ID} / {@link Constants#NOTIFICATION_ID}. One builder is
+ * reused, nothing is posted unless the merged title or text changed, and posts are
+ * spaced at least {@link Constants#NOTIFICATION_MIN_INTERVAL_MS} apart; a change
+ * inside that window is posted when the window ends.
+ *
+ * While monitoring runs, {@link MonitoringService} adopts the same notification
+ * as its foreground notification ({@link #buildForeground()}) and adds a Stop
+ * action.
+ *
+ * Main thread only.
+ */
+public final class StatusNotifier {
+
+    private static StatusNotifier sInstance;
+
+    /** Use this to get the shared instance. */
+    public static synchronized StatusNotifier getInstance(Context context) {
+        if (sInstance == null) {
+            sInstance = new StatusNotifier(context.getApplicationContext());
+        }
+        return sInstance;
+    }
+
+    private final NotificationManager notificationManager;
+    private final NotificationCompat.Builder builder;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable deferredPost = this::post;
+
+    private final String stopLabel;
+
+    private String eyeTitle, eyeText;
+    private String speedText;
+
+    private String postedTitle, postedText;
+    private long lastPostTime = 0;
+    private boolean postScheduled = false;
+
+    private StatusNotifier(Context context) {
+        stopLabel = context.getString(R.string.notification_stop);
+        notificationManager = (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O && notificationManager != null) {
+            notificationManager.createNotificationChannel(new NotificationChannel(
+                    Constants.CHANNEL_ID,
+                    Constants.CHANNEL_NAME,
+                    NotificationManager.IMPORTANCE_LOW));
+        }
+        builder = new NotificationCompat.Builder(context, Constants.CHANNEL_ID)
+                .setSmallIcon(android.R.drawable.ic_menu_view)
+                .setOngoing(true)
+                .setOnlyAlertOnce(true)
+                .setPriority(NotificationCompat.PRIORITY_LOW);
+    }
+
+    // ─── Status Sources ──────────────────────────────────────────────────
+
+    public void setEyeStatus(String title, String text) {
+        eyeTitle = title;
+        eyeText = text;
+        update();
+    }
+
+    public void clearEyeStatus() {
+        eyeTitle = null;
+        eyeText = null;
+        update();
+    }
+
+    public void setSpeedStatus(String text) {
+        speedText = text;
+        update();
+    }
+
+    public void clearSpeedStatus() {
+        speedText = null;
+        update();
+    }
+
+    /** Adds a Stop action to the notification, or removes it with null. */
+    public void setStopAction(@Nullable PendingIntent stop) {
+        builder.clearActions();
+        if (stop != null) builder.addAction(0, stopLabel, stop);
+        postedText = null; // repost even if the text is unchanged
+        update();
+    }
+
+    /** The notification as it stands, posted by the caller via {@code startForeground}. */
+    public Notification buildForeground() {
+        handler.removeCallbacks(deferredPost);
+        postScheduled = false;
+        String title = currentTitle(), text = currentText();
+        builder.setContentTitle(title).setContentText(text);
+        postedTitle = title;
+        postedText = text;
+        lastPostTime = SystemClock.elapsedRealtime();
+        return builder.build();
+    }
+
+    // ─── Posting ─────────────────────────────────────────────────────────
+
+    private void update() {
+        if (eyeTitle == null && speedText == null) {
+            cancel();
+            return;
+        }
+        if (postScheduled) return;
+        long wait = lastPostTime + Constants.NOTIFICATION_MIN_INTERVAL_MS - SystemClock.elapsedRealtime();
+        if (wait > 0) {
+            postScheduled = true;
+            handler.postDelayed(deferredPost, wait);
+        } else {
+            post();
+        }
+    }
+
+    private void post() {
+        postScheduled = false;
+        if (notificationManager == null || (eyeTitle == null && speedText == null)) return;
+
+        String title = currentTitle(), text = currentText();
+        if (title.equals(postedTitle) && text.equals(postedText)) return;
+
+        builder.setContentTitle(title).setContentText(text);
+        notificationManager.notify(Constants.NOTIFICATION_ID, builder.build());
+        postedTitle = title;
+        postedText = text;
+        lastPostTime = SystemClock.elapsedRealtime();
+    }
+
+    private void cancel() {
+        handler.removeCallbacks(deferredPost);
+        postScheduled = false;
+        if (postedTitle == null) return;
+        if (notificationManager != null) notificationManager.cancel(Constants.NOTIFICATION_ID);
+        postedTitle = null;
+        postedText = null;
+    }
+
+    private String currentTitle() {
+        return eyeTitle != null ? eyeTitle : "GuardianEye: Active";
+    }
+
+    private String currentText() {
+        if (eyeText != null && speedText != null) return eyeText + " | " + speedText;
+        return eyeText != null ? eyeText : speedText != null ? speedText : "";
+    }
+}
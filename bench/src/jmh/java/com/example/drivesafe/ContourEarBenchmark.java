@@ -0,0 +1,45 @@
+package com.example.drivesafe;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU cost of the geometric EAR per frame (both eyes), on top of the
+ * detector's contour mode. The detector's own extra latency is device-bound
+ * and shows in the pipeline diagnostics' detect stage.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ContourEarBenchmark {
+
+    private final float[] left = new float[ContourEar.EYE_POINTS * 2];
+    private final float[] right = new float[ContourEar.EYE_POINTS * 2];
+
+    @Setup(Level.Trial)
+    public void contours() {
+        // Elliptical eyes 60 px wide, 18 px open, in a 640 px frame
+        for (int i = 0; i < ContourEar.EYE_POINTS; i++) {
+            double a = 2 * Math.PI * i / ContourEar.EYE_POINTS;
+            left[2 * i] = (float) (250 - 30 * Math.cos(a));
+            left[2 * i + 1] = (float) (200 - 9 * Math.sin(a));
+            right[2 * i] = (float) (390 - 30 * Math.cos(a));
+            right[2 * i + 1] = (float) (202 - 8 * Math.sin(a));
+        }
+    }
+
+    @Benchmark
+    public float openness() {
+        float l = ContourEar.aspectRatio(left, ContourEar.EYE_POINTS);
+        float r = ContourEar.aspectRatio(right, ContourEar.EYE_POINTS);
+        return ContourEar.openness((l + r) / 2f);
+    }
+}
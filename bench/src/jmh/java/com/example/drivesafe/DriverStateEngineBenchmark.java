@@ -0,0 +1,70 @@
+package com.example.drivesafe;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-frame decision cost: {@link DriverStateEngine#onFrame} stepping through a
+ * pre-generated synthetic trace, so blinks, glances, yawns and alerts all
+ * occur at realistic rates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DriverStateEngineBenchmark {
+
+    private static final int TRACE_FRAMES = 1 << 16;
+
+    @Param({"0.0", "0.8"})
+    public float drowsiness;
+
+    private final long[] times = new long[TRACE_FRAMES];
+    private final float[] ears = new float[TRACE_FRAMES];
+    private final float[] yaws = new float[TRACE_FRAMES];
+    private final float[] pitches = new float[TRACE_FRAMES];
+    private final boolean[] yawns = new boolean[TRACE_FRAMES];
+
+    private CaptureClock clock;
+    private DriverStateEngine engine;
+    private long frame;
+    private long lapNanos;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        SyntheticFaceSignalSource source = new SyntheticFaceSignalSource(42, 30f, Long.MAX_VALUE / 2_000_000L,
+                drowsiness, Float.NaN, Runnable::run, false);
+        int[] n = {0};
+        source.start(s -> {
+            int i = n[0]++;
+            times[i] = s.captureNanos;
+            ears[i] = s.ear;
+            yaws[i] = s.headYaw;
+            pitches[i] = s.headPitch;
+            yawns[i] = s.yawning;
+            if (n[0] == TRACE_FRAMES) source.stop();
+            return 0;
+        });
+        lapNanos = times[TRACE_FRAMES - 1] + times[1];
+        clock = new CaptureClock();
+        engine = new DriverStateEngine(clock);
+        engine.reset();
+    }
+
+    @Benchmark
+    public int onFrame() {
+        int i = (int) frame & (TRACE_FRAMES - 1);
+        // Keep time moving forward when the trace wraps around
+        clock.setFrameTime(times[i] + (frame >>> 16) * lapNanos);
+        frame++;
+        return engine.onFrame(ears[i], yaws[i], pitches[i], yawns[i], Float.NaN);
+    }
+}
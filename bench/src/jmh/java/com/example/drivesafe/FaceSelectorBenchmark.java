@@ -0,0 +1,58 @@
+package com.example.drivesafe;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/** {@link FaceSelector#largest} over crowded frames (passengers, back seat, posters). */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FaceSelectorBenchmark {
+
+    /** Stand-in for an ML Kit face's bounding box. */
+    static final class Box {
+        final int left, top, right, bottom;
+
+        Box(int left, int top, int right, int bottom) {
+            this.left = left;
+            this.top = top;
+            this.right = right;
+            this.bottom = bottom;
+        }
+
+        int width() { return right - left; }
+
+        int height() { return bottom - top; }
+    }
+
+    @Param({"2", "8", "32"})
+    public int faces;
+
+    private final List<Box> boxes = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void generate() {
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < faces; i++) {
+            int x = random.nextInt(600), y = random.nextInt(400), size = 40 + random.nextInt(200);
+            boxes.add(new Box(x, y, x + size, y + size));
+        }
+    }
+
+    @Benchmark
+    public Box largest() {
+        return FaceSelector.largest(boxes, b -> b.width() * b.height());
+    }
+}
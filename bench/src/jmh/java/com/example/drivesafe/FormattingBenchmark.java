@@ -0,0 +1,43 @@
+package com.example.drivesafe;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/** Drive history row formatting and the sensitivity lookup done at session start. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FormattingBenchmark {
+
+    @Param({"45", "725", "7380"})
+    public int durationSeconds;
+
+    // Rotated per call, including the unset preference
+    private final String[] sensitivities = {
+            Constants.SENSITIVITY_LOW, Constants.SENSITIVITY_MEDIUM, Constants.SENSITIVITY_HIGH, null};
+    private int next;
+
+    public String startTime = "2024-05-17 18:42:09";
+
+    @Benchmark
+    public String formattedDuration() {
+        return SessionFormat.duration(durationSeconds);
+    }
+
+    @Benchmark
+    public String formatSqliteDateTime() {
+        return SessionFormat.sqliteDateTime(startTime);
+    }
+
+    @Benchmark
+    public float earThreshold() {
+        return Constants.getEarThreshold(sensitivities[next++ & 3]);
+    }
+}
@@ -0,0 +1,19 @@
+plugins {
+    `java-library`
+}
+
+// Pure-Java driver-monitoring logic: no Android or ML Kit dependencies, so it
+// can be built, replayed and benchmarked on any JVM.
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+// Sources use box-drawing section rules; don't depend on the platform charset
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+dependencies {
+    testImplementation(libs.junit)
+}
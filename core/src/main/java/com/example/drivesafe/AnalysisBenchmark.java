@@ -0,0 +1,112 @@
+package com.example.drivesafe;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Scores analysis operating points on the current device.
+ *
+ * The runner feeds, per measured frame, the detector latency (including any
+ * format conversion), whether a face was found and its eye-open level. With
+ * the driver in position looking at the road, two accuracy proxies come out
+ * of that: the face detection rate, and the jitter of the eye-open level
+ * (mean change between consecutive frames). Too low a resolution shows up as
+ * lost faces or eyes flickering between open and closed.
+ *
+ * The best point is the one with the lowest 90th-percentile latency among
+ * those within {@link Constants#BENCHMARK_FACE_RATE_RATIO} of the best face
+ * rate and {@link Constants#BENCHMARK_JITTER_MARGIN} of the lowest jitter.
+ *
+ * Not thread-safe: feed from one thread, read after the run.
+ */
+public final class AnalysisBenchmark {
+
+    private final AnalysisMode[] modes;
+    private final float[][] latencyMs;
+    private final int[] frames, faces;
+    private final double[] jitterSum;
+    private final int[] jitterCount;
+    private final float[] lastEye;
+
+    public AnalysisBenchmark(List<AnalysisMode> modes) {
+        int n = modes.size();
+        this.modes = modes.toArray(new AnalysisMode[0]);
+        latencyMs = new float[n][Constants.BENCHMARK_FRAMES];
+        frames = new int[n];
+        faces = new int[n];
+        jitterSum = new double[n];
+        jitterCount = new int[n];
+        lastEye = new float[n];
+        Arrays.fill(lastEye, Float.NaN);
+    }
+
+    public int size() { return modes.length; }
+
+    public AnalysisMode mode(int i) { return modes[i]; }
+
+    /** True once {@code i} has all its measured frames. */
+    public boolean isComplete(int i) { return frames[i] >= Constants.BENCHMARK_FRAMES; }
+
+    /**
+     * Records one measured frame of point {@code i}.
+     *
+     * @param eyeOpen eye-open level 0–1, NaN when there is no face or no eye classification
+     */
+    public void onFrame(int i, long detectNanos, boolean faceFound, float eyeOpen) {
+        if (isComplete(i)) return;
+        latencyMs[i][frames[i]++] = detectNanos / 1e6f;
+        if (!faceFound) {
+            lastEye[i] = Float.NaN;
+            return;
+        }
+        faces[i]++;
+        if (!Float.isNaN(eyeOpen) && !Float.isNaN(lastEye[i])) {
+            jitterSum[i] += Math.abs(eyeOpen - lastEye[i]);
+            jitterCount[i]++;
+        }
+        lastEye[i] = eyeOpen;
+    }
+
+    // ─── Results ─────────────────────────────────────────────────────────
+
+    public int getFrames(int i) { return frames[i]; }
+
+    public float getFaceRate(int i) { return frames[i] == 0 ? 0f : faces[i] / (float) frames[i]; }
+
+    /** Mean eye-open change between consecutive face frames, NaN without two such frames. */
+    public float getEyeJitter(int i) { return jitterCount[i] == 0 ? Float.NaN : (float) (jitterSum[i] / jitterCount[i]); }
+
+    public float getLatencyPercentile(int i, float p) {
+        int n = frames[i];
+        if (n == 0) return Float.NaN;
+        float[] sorted = Arrays.copyOf(latencyMs[i], n);
+        Arrays.sort(sorted);
+        return sorted[Math.min(n - 1, Math.round(p * (n - 1)))];
+    }
+
+    /** Index of the best point, or -1 if no point saw a face (nothing to judge accuracy by). */
+    public int best() {
+        float maxRate = 0f;
+        for (int i = 0; i < modes.length; i++) maxRate = Math.max(maxRate, getFaceRate(i));
+        if (maxRate == 0f) return -1;
+        float minRate = maxRate * Constants.BENCHMARK_FACE_RATE_RATIO;
+        float minJitter = Float.MAX_VALUE;
+        for (int i = 0; i < modes.length; i++) {
+            float j = getEyeJitter(i);
+            if (getFaceRate(i) >= minRate && !Float.isNaN(j)) minJitter = Math.min(minJitter, j);
+        }
+        int best = -1;
+        float bestLatency = Float.MAX_VALUE;
+        for (int i = 0; i < modes.length; i++) {
+            if (getFaceRate(i) < minRate) continue;
+            float j = getEyeJitter(i);
+            if (minJitter != Float.MAX_VALUE && !(j <= minJitter + Constants.BENCHMARK_JITTER_MARGIN)) continue;
+            float latency = getLatencyPercentile(i, 0.9f);
+            if (latency < bestLatency) {
+                bestLatency = latency;
+                best = i;
+            }
+        }
+        return best;
+    }
+}
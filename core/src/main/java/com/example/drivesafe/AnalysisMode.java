@@ -0,0 +1,74 @@
+package com.example.drivesafe;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * One analysis operating point: target resolution of the analysis stream and
+ * whether frames arrive as YUV_420_888 or RGBA_8888.
+ *
+ * YUV frames go to the detector without conversion and can be cropped to the
+ * face region; RGBA frames are converted to a bitmap first, which some devices
+ * handle faster than their YUV path. Stored as the two preference strings
+ * {@link Constants#KEY_ANALYSIS_RESOLUTION} / {@link Constants#KEY_ANALYSIS_FORMAT}.
+ */
+public final class AnalysisMode {
+
+    public static final String RESOLUTION_AUTO = "auto";
+    public static final String FORMAT_YUV = "yuv";
+    public static final String FORMAT_RGBA = "rgba";
+
+    public static final AnalysisMode DEFAULT = new AnalysisMode(0, 0, false);
+
+    /** Target size, or 0 × 0 to let CameraX choose. */
+    public final int width, height;
+    public final boolean rgba;
+
+    private AnalysisMode(int width, int height, boolean rgba) {
+        this.width = width;
+        this.height = height;
+        this.rgba = rgba;
+    }
+
+    /** Parses stored preferences; anything unrecognised falls back to automatic size and YUV. */
+    public static AnalysisMode of(String resolution, String format) {
+        boolean rgba = FORMAT_RGBA.equals(format);
+        int x = resolution != null ? resolution.indexOf('x') : -1;
+        if (x > 0) {
+            try {
+                int w = Integer.parseInt(resolution.substring(0, x));
+                int h = Integer.parseInt(resolution.substring(x + 1));
+                if (w > 0 && h > 0) return new AnalysisMode(w, h, rgba);
+            } catch (NumberFormatException ignored) { }
+        }
+        return new AnalysisMode(0, 0, rgba);
+    }
+
+    /** Every fixed resolution in both formats: the points the benchmark tries. */
+    public static List<AnalysisMode> candidates() {
+        List<AnalysisMode> modes = new ArrayList<>(Constants.ANALYSIS_RESOLUTIONS.length * 2);
+        for (String r : Constants.ANALYSIS_RESOLUTIONS) {
+            modes.add(of(r, FORMAT_YUV));
+            modes.add(of(r, FORMAT_RGBA));
+        }
+        return modes;
+    }
+
+    public boolean isAuto() { return width == 0; }
+
+    public String resolutionKey() { return isAuto() ? RESOLUTION_AUTO : width + "x" + height; }
+
+    public String formatKey() { return rgba ? FORMAT_RGBA : FORMAT_YUV; }
+
+    /** This mode at the smallest fixed resolution, in the same format; automatic size counts as larger. */
+    public AnalysisMode lowest() {
+        AnalysisMode low = of(Constants.ANALYSIS_RESOLUTIONS[0], formatKey());
+        return !isAuto() && width <= low.width ? this : low;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "%s %s", isAuto() ? "Auto" : width + "×" + height, rgba ? "RGBA" : "YUV");
+    }
+}
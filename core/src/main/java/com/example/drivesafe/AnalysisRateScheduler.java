@@ -0,0 +1,102 @@
+package com.example.drivesafe;
+
+/**
+ * Decides which camera frames go through face detection.
+ *
+ * Runs every frame while the driver is at risk, and halves the detection rate
+ * step by step while the driver stays attentive with eyes well open and head
+ * pose well inside the distraction limits. Any frame near a threshold snaps it
+ * back to full rate. The gap between analyzed frames is capped at a quarter of
+ * the warning duration, so a closure is seen at most that late and the
+ * warning/critical deadlines still hold. An external floor on the gap (see
+ * {@link DegradationGovernor}) is held under the same cap.
+ *
+ * Not thread-safe: call from the analysis thread only.
+ */
+public final class AnalysisRateScheduler {
+
+    private float earThreshold = Constants.EAR_THRESHOLD;
+    private long maxIntervalMs = Constants.SCHEDULER_MAX_INTERVAL_MS;
+    private long minIntervalRequestMs = 0;
+    private long minIntervalMs = 0;   // floor on the gap, even at "full" rate
+
+    private long intervalMs = 0;      // 0 = analyze every frame
+    private long steadySince = 0;
+    private long lastAnalyzedAt = 0;
+    private boolean hasAnalyzed = false;
+    private float analysisRateHz = 0f;
+
+    /** Restarts at full rate with thresholds for a new session. */
+    public void reset(float earThreshold, long warningDurationMs) {
+        this.earThreshold = earThreshold;
+        this.maxIntervalMs = Math.min(Constants.SCHEDULER_MAX_INTERVAL_MS, warningDurationMs / 4);
+        minIntervalMs = Math.min(minIntervalRequestMs, maxIntervalMs);
+        intervalMs = 0;
+        hasAnalyzed = false;
+        analysisRateHz = 0f;
+    }
+
+    /** Moves the eye-closed threshold mid-session (personal calibration); kept until the next reset. */
+    public void setEarThreshold(float earThreshold) {
+        this.earThreshold = earThreshold;
+    }
+
+    /** Sets a floor on the gap between analyzed frames, kept across resets and capped at the deadline. */
+    public void setMinIntervalMs(long ms) {
+        minIntervalRequestMs = Math.max(0, ms);
+        minIntervalMs = Math.min(minIntervalRequestMs, maxIntervalMs);
+    }
+
+    /** Returns true if the frame captured at {@code nowMs} (capture time) should be analyzed; records it if so. */
+    public boolean shouldAnalyze(long nowMs) {
+        long gap = Math.max(intervalMs, minIntervalMs);
+        if (hasAnalyzed && gap > 0 && nowMs - lastAnalyzedAt < gap) return false;
+        if (hasAnalyzed) {
+            long dt = nowMs - lastAnalyzedAt;
+            if (dt > 0) {
+                float hz = 1000f / dt;
+                analysisRateHz = analysisRateHz == 0f ? hz : analysisRateHz * 0.9f + hz * 0.1f;
+            }
+        } else {
+            steadySince = nowMs;
+        }
+        lastAnalyzedAt = nowMs;
+        hasAnalyzed = true;
+        return true;
+    }
+
+    /** Feeds back the signals of an analyzed frame and the resulting driver state. */
+    public void onResult(long nowMs, float ear, float headTurnY, float headTiltX, int state) {
+        boolean nearThreshold = state != DriverStateEngine.STATE_ATTENTIVE
+                || ear < earThreshold + Constants.SCHEDULER_EAR_MARGIN
+                || Math.abs(headTurnY) > Constants.HEAD_TURN_THRESHOLD * Constants.SCHEDULER_POSE_RATIO
+                || headTiltX < Constants.HEAD_TILT_THRESHOLD * Constants.SCHEDULER_POSE_RATIO;
+        if (nearThreshold) {
+            toFullRate(nowMs);
+            return;
+        }
+        if (nowMs - steadySince >= Constants.SCHEDULER_STEADY_MS && intervalMs < maxIntervalMs) {
+            long next = intervalMs == 0 ? Constants.SCHEDULER_MIN_INTERVAL_STEP_MS : intervalMs * 2;
+            intervalMs = Math.min(next, maxIntervalMs);
+            steadySince = nowMs;
+        }
+    }
+
+    /** No face in an analyzed frame: nothing is known about the driver, so go back to full rate. */
+    public void onFaceLost(long nowMs) {
+        toFullRate(nowMs);
+    }
+
+    private void toFullRate(long nowMs) {
+        intervalMs = 0;
+        steadySince = nowMs;
+    }
+
+    // ─── Metrics ─────────────────────────────────────────────────────────
+
+    /** Minimum gap currently enforced between analyzed frames; 0 means every frame. */
+    public long getIntervalMs() { return Math.max(intervalMs, minIntervalMs); }
+
+    /** Smoothed rate of frames actually sent to the detector. */
+    public float getAnalysisRateHz() { return analysisRateHz; }
+}
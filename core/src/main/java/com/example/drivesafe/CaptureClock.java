@@ -0,0 +1,63 @@
+package com.example.drivesafe;
+
+/**
+ * Engine clock that reads the capture time of the frame being processed.
+ *
+ * Durations measured against it (eye closure, distraction) depend only on when
+ * the camera exposed the frames, not on detector or thread-hop queueing, so the
+ * warning and critical thresholds fire at the same point however loaded the
+ * device is.
+ *
+ * Camera timestamps use either the realtime (elapsedRealtimeNanos) or the
+ * monotonic (uptime) timebase depending on the device; the first frame picks
+ * whichever is closer so processing lag is measured against the right clock.
+ *
+ * Not thread-safe: call from the analysis thread only.
+ */
+public final class CaptureClock implements DriverStateEngine.Clock {
+
+    private long frameNanos = 0;
+    private boolean timebaseKnown = false;
+    private boolean realtimeBase = true;
+
+    public void reset() {
+        frameNanos = 0;
+        timebaseKnown = false;
+    }
+
+    /** Sets the capture time of the frame about to be processed. */
+    public void setFrameTime(long captureNanos) {
+        frameNanos = captureNanos;
+    }
+
+    @Override
+    public long nowMillis() {
+        return frameNanos / 1_000_000L;
+    }
+
+    /**
+     * Nanoseconds from {@code captureNanos} to now, on the camera's timebase.
+     *
+     * @param realtimeNowNanos  SystemClock.elapsedRealtimeNanos()
+     * @param monotonicNowNanos System.nanoTime()
+     */
+    public long sinceCapture(long captureNanos, long realtimeNowNanos, long monotonicNowNanos) {
+        if (!timebaseKnown) {
+            realtimeBase = Math.abs(realtimeNowNanos - captureNanos) <= Math.abs(monotonicNowNanos - captureNanos);
+            timebaseKnown = true;
+        }
+        long now = realtimeBase ? realtimeNowNanos : monotonicNowNanos;
+        return Math.max(0, now - captureNanos);
+    }
+
+    /**
+     * How far processing is behind capture for the current frame.
+     *
+     * @param realtimeNowNanos  SystemClock.elapsedRealtimeNanos() at decision time
+     * @param monotonicNowNanos System.nanoTime() at decision time
+     * @return the lag in milliseconds
+     */
+    public long lagMillis(long realtimeNowNanos, long monotonicNowNanos) {
+        return sinceCapture(frameNanos, realtimeNowNanos, monotonicNowNanos) / 1_000_000L;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.drivesafe;
+
+/**
+ * Tier decisions of the two-tier detector cascade, kept apart from the
+ * detectors so they run on the JVM.
+ *
+ * Frames go to the fast tier unless a result has to be confirmed (eyes near
+ * the closure threshold, a yawn in progress) or the periodic full check is
+ * due. A fast-tier closure candidate escalates the next frame; a full-tier
+ * frame without one, or a lost face, de-escalates.
+ *
+ * Not thread-safe: call from the analysis thread only.
+ */
+public final class CascadePolicy {
+
+    public static final int TIER_FAST = 0;
+    public static final int TIER_FULL = 1;
+
+    private float earThreshold;
+    private long fullCheckIntervalMs = Constants.CASCADE_FULL_CHECK_INTERVAL_MS;
+
+    private boolean confirming = true; // start on the full tier until the first result
+    private long lastFullCheckAt = 0;
+
+    public CascadePolicy(float earThreshold) {
+        this.earThreshold = earThreshold;
+    }
+
+    /** Picks the tier for the next frame. */
+    public int chooseTier(long nowMs) {
+        if (confirming || nowMs - lastFullCheckAt >= fullCheckIntervalMs) {
+            return TIER_FULL;
+        }
+        return TIER_FAST;
+    }
+
+    /** Interval of the periodic full-tier check; confirmations do not wait for it. */
+    public void setFullCheckIntervalMs(long ms) { fullCheckIntervalMs = ms; }
+
+    /** Eye-closed threshold that makes a frame a closure candidate for the full tier. */
+    public void setEarThreshold(float threshold) { earThreshold = threshold; }
+
+    /** Feeds back the driver signals from a frame processed on {@code tier}. */
+    public void onSignals(int tier, long nowMs, float ear, boolean yawning) {
+        boolean closureCandidate = ear < earThreshold + Constants.CASCADE_EAR_MARGIN;
+        if (tier == TIER_FULL) {
+            lastFullCheckAt = nowMs;
+            confirming = closureCandidate || yawning;
+        } else if (closureCandidate) {
+            confirming = true;
+        }
+    }
+
+    /** No face: presence checks go back to the fast tier. */
+    public void onFaceLost() {
+        confirming = false;
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.drivesafe;
+
+/**
+ * Centralized constants for the DriveSafe app.
+ * Eliminates magic numbers scattered across fragments.
+ */
+public final class Constants {
+
+    private Constants() { /* Non-instantiable */ }
+
+    // ─── SharedPreferences ───────────────────────────────────────────────
+    public static final String PREFS_NAME = "DriveSafePrefs";
+
+    // Preference keys
+    public static final String KEY_ALARM_SOUND = "alarm_sound";
+    public static final String KEY_ALARM_VOLUME = "alarm_volume";
+    public static final String KEY_EMERGENCY_NUMBER = "emergency_number";
+    public static final String KEY_PROFILE_NAME = "profile_name";
+    public static final String KEY_PROFILE_IMAGE_PATH = "profile_image_path";
+    public static final String KEY_DARK_MODE = "dark_mode";
+    public static final String KEY_SPEED_LIMIT = "speed_limit";
+
+    // New Key for Speed Alert Toggle logic
+    public static final String KEY_SPEED_ALERT_ENABLED = "speed_alert_enabled";
+
+    // ─── Notification Constants ──────────────────────────────────────────
+    // Centralized IDs for GuardianEye status messages
+    public static final String CHANNEL_ID = "GuardianEye_Channel";
+    public static final String CHANNEL_NAME = "GuardianEye Status Service";
+    public static final int NOTIFICATION_ID = 1001;
+    // Minimum spacing between status notification posts
+    public static final long NOTIFICATION_MIN_INTERVAL_MS = 1000L;
+
+    // Sensitivity preference key & values
+    public static final String KEY_SENSITIVITY = "detection_sensitivity";
+    public static final String SENSITIVITY_LOW = "low";
+    public static final String SENSITIVITY_MEDIUM = "medium";
+    public static final String SENSITIVITY_HIGH = "high";
+    public static final String DEFAULT_SENSITIVITY = SENSITIVITY_MEDIUM;
+
+    // Smart Detection preference keys
+    public static final String KEY_SMART_DETECTION_ENABLED = "smart_detection_enabled";
+    public static final String KEY_MIN_SPEED_ENABLED = "min_speed_enabled";
+    public static final String KEY_MIN_SPEED_KMH = "min_speed_kmh";
+    public static final String KEY_LARGEST_FACE_ONLY = "largest_face_only";
+    public static final String KEY_MIN_FACE_SIZE = "min_face_size";
+    public static final String KEY_PIPELINE_STATS = "pipeline_stats_enabled";
+    public static final String KEY_PIPELINED_DETECTION = "pipelined_detection_enabled";
+
+    // Default values
+    public static final String DEFAULT_ALARM_SOUND = "Sound 1";
+    public static final float DEFAULT_ALARM_VOLUME = 100f;
+    public static final float DEFAULT_SPEED_LIMIT = 80.0f;
+    public static final float DEFAULT_MIN_SPEED_KMH = 10.0f;
+    public static final float DEFAULT_MIN_FACE_SIZE = 0.15f;
+
+    // ─── Eye Tracking Thresholds ─────────────────────────────────────────
+    public static final float EAR_THRESHOLD = 0.25f;
+    public static final long WARNING_DURATION_MS = 1000L;
+    public static final long CRITICAL_DURATION_MS = 10_000L;
+    public static final float HEAD_TURN_THRESHOLD = 25f;
+    public static final float HEAD_TILT_THRESHOLD = -20f;
+    public static final float YAWN_RATIO = 0.35f;
+    public static final long DISTRACTION_DURATION_MS = 2000L;
+
+    // ─── Eye Metrics Window ──────────────────────────────────────────────
+    // PERCLOS / blink rate are computed over this sliding window
+    public static final long EYE_METRICS_WINDOW_MS = 60_000L;
+    // Rates are reported only after this much observed time in the window
+    public static final long EYE_METRICS_MIN_COVERAGE_MS = 10_000L;
+    // A longer gap between samples (pause, lost face) is not counted as observed time
+    public static final long EYE_METRICS_MAX_GAP_MS = 500L;
+    public static final long LONG_BLINK_MS = 500L;
+
+    // ─── Pipeline Instrumentation ────────────────────────────────────────
+    // Delivered frames per re-estimate of the nominal camera frame interval
+    public static final int PIPELINE_INTERVAL_EPOCH_FRAMES = 64;
+
+    // ─── Pipelined Detection ─────────────────────────────────────────────
+    // Frames in detection at once; each needs its own detector pair and camera buffer
+    public static final int PIPELINE_MAX_DEPTH = 3;
+    // Cores per frame in flight: ML Kit itself runs inference on more than one thread
+    public static final int PIPELINE_CORES_PER_FRAME = 2;
+
+    // ─── Synthetic Signal Source ─────────────────────────────────────────
+    // Mean gaps between mirror glances and (at full drowsiness) yawns
+    public static final double SYNTHETIC_GLANCE_INTERVAL_MS = 20_000;
+    public static final double SYNTHETIC_YAWN_INTERVAL_MS = 60_000;
+
+    // ─── Adaptive Analysis Rate ──────────────────────────────────────────
+    // Steady attentive time required before each step down in detection rate
+    public static final long SCHEDULER_STEADY_MS = 3000L;
+    public static final long SCHEDULER_MIN_INTERVAL_STEP_MS = 50L;
+    // Hard cap on the gap between analyzed frames; also limited to a quarter of the warning duration
+    public static final long SCHEDULER_MAX_INTERVAL_MS = 250L;
+    // Full rate resumes once EAR is within this margin of the threshold ...
+    public static final float SCHEDULER_EAR_MARGIN = 0.15f;
+    // ... or head pose passes this fraction of the turn/tilt thresholds
+    public static final float SCHEDULER_POSE_RATIO = 0.6f;
+
+    // ─── Detector Cascade ────────────────────────────────────────────────
+    // Full-tier pass at least this often, to catch yawns the fast tier cannot see
+    public static final long CASCADE_FULL_CHECK_INTERVAL_MS = 1000L;
+    // Fast-tier EAR within this margin of the threshold is confirmed on the full tier
+    public static final float CASCADE_EAR_MARGIN = 0.15f;
+
+    // ─── Analysis Operating Point ────────────────────────────────────────
+    // Target size and output format of the analysis stream; "auto" leaves the size to CameraX
+    public static final String KEY_ANALYSIS_RESOLUTION = "analysis_resolution";
+    public static final String KEY_ANALYSIS_FORMAT = "analysis_format";
+    // 4:3 like the front camera sensors; CameraX picks the closest supported size
+    public static final String[] ANALYSIS_RESOLUTIONS = {"320x240", "480x360", "640x480", "1280x960"};
+    // Benchmark: frames per operating point, after warm-up, and the give-up time per point
+    public static final int BENCHMARK_WARMUP_FRAMES = 10;
+    public static final int BENCHMARK_FRAMES = 40;
+    public static final long BENCHMARK_POINT_TIMEOUT_MS = 15_000L;
+    // A point qualifies with this share of the best face detection rate ...
+    public static final float BENCHMARK_FACE_RATE_RATIO = 0.95f;
+    // ... and eye-open jitter at most this much above the steadiest point
+    public static final float BENCHMARK_JITTER_MARGIN = 0.03f;
+
+    // ─── Degradation Governor ────────────────────────────────────────────
+    // Operating points by level (normal, warm, hot, critical). Floor on the gap between
+    // analyzed frames; the rate scheduler still caps it at its detection deadline
+    public static final long[] GOVERNOR_MIN_INTERVAL_MS = {0L, 66L, 100L, 150L};
+    // Periodic full-tier (yawn) check; closure confirmations use the full tier at every level
+    public static final long[] GOVERNOR_FULL_CHECK_INTERVAL_MS = {1000L, 1000L, 3000L, 3000L};
+    // Location updates for speed gating, kept at high accuracy so stationary detection stays sound
+    public static final long[] GOVERNOR_GPS_INTERVAL_MS = {1000L, 2000L, 3000L, 5000L};
+    // First level without the preview, and first with the analysis stream at its lowest resolution
+    public static final int GOVERNOR_NO_PREVIEW_LEVEL = 2;
+    public static final int GOVERNOR_LOW_RESOLUTION_LEVEL = 3;
+    // Thermal headroom (1.0 = the device throttles) from which each level applies
+    public static final float[] GOVERNOR_HEADROOM = {0f, 0.7f, 0.85f, 0.95f};
+    // Battery percent at or below which, off the charger, the warm / hot levels apply
+    public static final int GOVERNOR_BATTERY_LOW = 20;
+    public static final int GOVERNOR_BATTERY_CRITICAL = 10;
+    // Input poll interval; the platform rejects headroom reads more often than every 10 s
+    public static final long GOVERNOR_POLL_MS = 10_000L;
+    public static final int GOVERNOR_HEADROOM_FORECAST_S = 10;
+    // A lower target must hold this long before each one-level step down
+    public static final long GOVERNOR_COOLDOWN_MS = 60_000L;
+
+    // ─── Frame Quality Gate ──────────────────────────────────────────────
+    // Luma samples per frame (16 × 12 = 192 reads plus neighbours)
+    public static final int QUALITY_GRID_COLUMNS = 16;
+    public static final int QUALITY_GRID_ROWS = 12;
+    // Below this mean luminance (0–255) the face is too dark to read
+    public static final float QUALITY_MIN_LUMA = 35f;
+    // Samples at or above this level count as saturated; more than this share is glare
+    public static final int QUALITY_SATURATED_LUMA = 250;
+    public static final float QUALITY_MAX_SATURATED_RATIO = 0.3f;
+    // Minimum luminance standard deviation and mean absolute Laplacian
+    public static final float QUALITY_MIN_CONTRAST = 10f;
+    public static final float QUALITY_MIN_SHARPNESS = 1.5f;
+    // Consecutive failed frames before the driver state switches to low visibility
+    public static final int QUALITY_LOW_VISIBILITY_FRAMES = 5;
+
+    // ─── Detector Warm-up ────────────────────────────────────────────────
+    // Blank frame run through new detectors so their models load while the camera opens
+    public static final int WARMUP_FRAME_WIDTH = 320;
+    public static final int WARMUP_FRAME_HEIGHT = 240;
+
+    // ─── Camera Preview ──────────────────────────────────────────────────
+    // Target size of the preview in the picture-in-picture window, far below the on-screen default
+    public static final int PIP_PREVIEW_WIDTH = 320;
+    public static final int PIP_PREVIEW_HEIGHT = 240;
+
+    // ─── Face Region of Interest ─────────────────────────────────────────
+    // Margin added on each side of the last face box, as a fraction of its size
+    public static final float ROI_MARGIN_RATIO = 0.5f;
+    // Crops larger than this fraction of the frame are not worth the copy
+    public static final float ROI_MAX_AREA_RATIO = 0.6f;
+    public static final int ROI_MIN_SIZE_PX = 64;
+
+    // ─── Eye Openness Signal ─────────────────────────────────────────────
+    // Which signal drives closure detection; contours need the slower contour detector mode
+    public static final String KEY_EAR_SOURCE = "ear_source";
+    public static final String EAR_SOURCE_PROBABILITY = "probability";
+    public static final String EAR_SOURCE_CONTOUR = "contour";
+    public static final String EAR_SOURCE_FUSED = "fused"; // mean of probability and contour openness
+    // Contour aspect ratios mapped to openness 0 and 1
+    public static final float CONTOUR_EAR_CLOSED = 0.10f;
+    public static final float CONTOUR_EAR_OPEN = 0.30f;
+
+    // ─── Personal EAR Calibration ────────────────────────────────────────
+    public static final String KEY_EAR_CALIBRATION = "ear_calibration_enabled";
+    // Baseline per profile and EAR source (their scales differ): key prefix + source + "_" + profile name
+    public static final String KEY_EAR_OPEN_PREFIX = "ear_open_";
+    public static final String KEY_EAR_OPEN_SD_PREFIX = "ear_open_sd_";
+    // Open-eye level the sensitivity table's thresholds were chosen for
+    public static final float CALIBRATION_NOMINAL_OPEN_EAR = 0.9f;
+    public static final long CALIBRATION_DURATION_MS = 20_000L;
+    public static final int CALIBRATION_MIN_SAMPLES = 100;
+    public static final long CALIBRATION_UPDATE_INTERVAL_MS = 30_000L;
+    public static final float CALIBRATION_MIN_CHANGE = 0.005f;
+    // Threshold stays this many open-eye standard deviations below the open level
+    public static final float CALIBRATION_SIGMA = 3f;
+    public static final float CALIBRATION_MIN_THRESHOLD = 0.08f;
+    public static final float CALIBRATION_MAX_THRESHOLD = 0.5f;
+
+    // ─── Driver Lock ─────────────────────────────────────────────────────
+    // A lost driver track is re-acquired by box overlap for this long
+    public static final long DRIVER_LOCK_MEMORY_MS = 3000L;
+    public static final float DRIVER_LOCK_MIN_IOU = 0.3f;
+
+    // ─── Flight Recorder ─────────────────────────────────────────────────
+    // Ring size in frames (~4.5 min at 30 fps, 256 KB); must exceed the incident window
+    public static final int FLIGHT_RECORDER_CAPACITY = 8192;
+    // Kept around a warning / critical alert
+    public static final long FLIGHT_RECORDER_PRE_MS = 30_000L;
+    public static final long FLIGHT_RECORDER_POST_MS = 10_000L;
+    // A later alert extends an open incident, up to this total length
+    public static final long FLIGHT_RECORDER_MAX_INCIDENT_MS = 120_000L;
+    public static final int FLIGHT_RECORDER_MAX_INCIDENTS = 50;
+    public static final String FLIGHT_RECORDER_DIR = "flight";
+    public static final String FLIGHT_RECORDER_RING_FILE = "recorder.ring";
+    public static final String FLIGHT_RECORDER_INCIDENT_DIR = "incidents";
+
+    // ─── Session Signal Archive ──────────────────────────────────────────
+    public static final String ARCHIVE_DIR = "archive";
+    // Oldest session archives are deleted once all of them together exceed this
+    public static final long ARCHIVE_MAX_BYTES = 64L * 1024 * 1024;
+    // Frames per independently decodable block (~34 s at 30 fps)
+    public static final int ARCHIVE_BLOCK_FRAMES = 1024;
+    // Stored precision as a power-of-two grid: EAR 1/1024, angles 1/16°, speed 1/4 km/h
+    public static final int ARCHIVE_EAR_FRACTION_BITS = 10;
+    public static final int ARCHIVE_ANGLE_FRACTION_BITS = 4;
+    public static final int ARCHIVE_SPEED_FRACTION_BITS = 2;
+
+    // ─── Speed Tracking ──────────────────────────────────────────────────
+    public static final long SPEED_LOG_COOLDOWN_MS = 30_000L;
+
+    // ─── Logging Tag ─────────────────────────────────────────────────────
+    public static final String TAG = "DriveSafe";
+
+    // ─── Sensitivity Helpers ─────────────────────────────────────────────
+
+    public static float getEarThreshold(String sensitivity) {
+        if (sensitivity == null) return EAR_THRESHOLD;
+        switch (sensitivity) {
+            case SENSITIVITY_LOW:  return 0.20f;
+            case SENSITIVITY_HIGH: return 0.30f;
+            default:               return 0.25f; // MEDIUM
+        }
+    }
+
+    public static long getWarningDuration(String sensitivity) {
+        if (sensitivity == null) return WARNING_DURATION_MS;
+        switch (sensitivity) {
+            case SENSITIVITY_LOW:  return 2000L;
+            case SENSITIVITY_HIGH: return 500L;
+            default:               return 1000L; // MEDIUM
+        }
+    }
+
+    /** Frames to keep in detection at once on a device with {@code cores} CPU cores. */
+    public static int getPipelineDepth(int cores) {
+        return Math.max(1, Math.min(PIPELINE_MAX_DEPTH, cores / PIPELINE_CORES_PER_FRAME));
+    }
+}
\ No newline at end of file
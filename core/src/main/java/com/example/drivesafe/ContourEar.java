@@ -0,0 +1,56 @@
+package com.example.drivesafe;
+
+/**
+ * Geometric eye aspect ratio from an eye contour (Soukupová &amp; Čech), as an
+ * alternative to the detector's eye-open probability.
+ *
+ * The contour is a closed loop starting at one eye corner: point 0 and point
+ * {@code n/2} are the corners, point {@code i} on one lid faces point
+ * {@code n - i} on the other. EAR is the mean lid gap over the central pairs
+ * divided by the corner-to-corner width, so it does not depend on face size.
+ *
+ * Works on interleaved x/y floats so the caller can reuse one array per frame.
+ */
+public final class ContourEar {
+
+    /** Points per eye in ML Kit's {@code FaceContour.LEFT_EYE} / {@code RIGHT_EYE}. */
+    public static final int EYE_POINTS = 16;
+
+    private ContourEar() { /* Non-instantiable */ }
+
+    /**
+     * @param xy     x0, y0, x1, y1, … of the contour
+     * @param points number of points used from {@code xy}; even, at least 8
+     * @return the aspect ratio, or NaN for a degenerate contour
+     */
+    public static float aspectRatio(float[] xy, int points) {
+        if (points < 8 || (points & 1) != 0) return Float.NaN;
+        int half = points / 2;
+        float width = distance(xy, 0, half);
+        if (!(width > 0f)) return Float.NaN;
+        // Skip the pair next to each corner, where the lids meet
+        float gap = 0f;
+        for (int i = 2; i <= half - 2; i++) gap += distance(xy, i, points - i);
+        return gap / ((half - 3) * width);
+    }
+
+    /**
+     * Aspect ratio of an ML Kit eye contour of {@code points} points. A partial
+     * contour is NaN rather than measured: with points missing, point
+     * {@code n/2} is no longer the far corner.
+     */
+    public static float eyeAspectRatio(float[] xy, int points) {
+        return points == EYE_POINTS ? aspectRatio(xy, points) : Float.NaN;
+    }
+
+    /** Maps an aspect ratio to a 0 (closed) – 1 (open) scale comparable to the open probability. */
+    public static float openness(float ear) {
+        float o = (ear - Constants.CONTOUR_EAR_CLOSED) / (Constants.CONTOUR_EAR_OPEN - Constants.CONTOUR_EAR_CLOSED);
+        return Math.max(0f, Math.min(1f, o));
+    }
+
+    private static float distance(float[] xy, int a, int b) {
+        float dx = xy[2 * a] - xy[2 * b], dy = xy[2 * a + 1] - xy[2 * b + 1];
+        return (float) Math.sqrt(dx * dx + dy * dy);
+    }
+}
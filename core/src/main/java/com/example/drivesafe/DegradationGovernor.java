@@ -0,0 +1,104 @@
+package com.example.drivesafe;
+
+/**
+ * Steps the monitoring pipeline down through fixed operating points as the
+ * device heats up or the battery runs low, and back up once it recovers.
+ *
+ * Inputs are the platform thermal status (the {@code PowerManager}
+ * THERMAL_STATUS_* scale, 0 none to 6 shutdown), the thermal headroom forecast
+ * (1.0 = throttling, NaN if unknown), battery percent (-1 if unknown) and
+ * charging state. Each level adds to the one below:
+ *  - warm: analysis rate floor, slower location updates,
+ *  - hot: fewer periodic full-tier checks, no camera preview,
+ *  - critical: lowest analysis resolution.
+ *
+ * None of these stretch a detection deadline: the rate floor stays under the
+ * rate scheduler's cap and closure confirmations always use the full tier.
+ *
+ * The level rises as soon as the inputs call for it and drops one step at a
+ * time after {@link Constants#GOVERNOR_COOLDOWN_MS} at a lower target, so a
+ * device hovering at a boundary does not keep rebinding the camera.
+ *
+ * Not thread-safe: call from one thread.
+ */
+public final class DegradationGovernor {
+
+    public static final int LEVEL_NORMAL = 0;
+    public static final int LEVEL_WARM = 1;
+    public static final int LEVEL_HOT = 2;
+    public static final int LEVEL_CRITICAL = 3;
+
+    private int level = LEVEL_NORMAL;
+    private long lowerSince = -1;  // when the target first fell below the level, -1 if it has not
+
+    /** Back to the normal operating point for a new session. */
+    public void reset() {
+        level = LEVEL_NORMAL;
+        lowerSince = -1;
+    }
+
+    /** The level the inputs call for on their own, without hysteresis. */
+    public static int targetLevel(int thermalStatus, float headroom, int batteryPercent, boolean charging) {
+        int target = Math.max(LEVEL_NORMAL, Math.min(LEVEL_CRITICAL, thermalStatus));
+        if (!Float.isNaN(headroom)) {
+            for (int l = LEVEL_CRITICAL; l > target; l--) {
+                if (headroom >= Constants.GOVERNOR_HEADROOM[l]) {
+                    target = l;
+                    break;
+                }
+            }
+        }
+        if (!charging && batteryPercent >= 0) {
+            if (batteryPercent <= Constants.GOVERNOR_BATTERY_CRITICAL) target = Math.max(target, LEVEL_HOT);
+            else if (batteryPercent <= Constants.GOVERNOR_BATTERY_LOW) target = Math.max(target, LEVEL_WARM);
+        }
+        return target;
+    }
+
+    /** Feeds the current inputs; returns true if the level changed. */
+    public boolean update(long nowMs, int thermalStatus, float headroom, int batteryPercent, boolean charging) {
+        int target = targetLevel(thermalStatus, headroom, batteryPercent, charging);
+        if (target > level) {
+            level = target;
+            lowerSince = -1;
+            return true;
+        }
+        if (target == level) {
+            lowerSince = -1;
+            return false;
+        }
+        if (lowerSince < 0) {
+            lowerSince = nowMs;
+            return false;
+        }
+        if (nowMs - lowerSince < Constants.GOVERNOR_COOLDOWN_MS) return false;
+        level--;
+        lowerSince = level > target ? nowMs : -1;
+        return true;
+    }
+
+    public int getLevel() { return level; }
+
+    // ─── Operating Point ─────────────────────────────────────────────────
+
+    /** Minimum gap between analyzed frames; 0 leaves the rate to the scheduler. */
+    public long getMinAnalysisIntervalMs() { return Constants.GOVERNOR_MIN_INTERVAL_MS[level]; }
+
+    /** Interval of the periodic full-tier check. */
+    public long getFullCheckIntervalMs() { return Constants.GOVERNOR_FULL_CHECK_INTERVAL_MS[level]; }
+
+    public long getGpsIntervalMs() { return Constants.GOVERNOR_GPS_INTERVAL_MS[level]; }
+
+    public boolean isPreviewAllowed() { return level < Constants.GOVERNOR_NO_PREVIEW_LEVEL; }
+
+    public boolean isLowResolution() { return level >= Constants.GOVERNOR_LOW_RESOLUTION_LEVEL; }
+
+    public static String levelName(int level) {
+        switch (level) {
+            case LEVEL_WARM:     return "warm";
+            case LEVEL_HOT:      return "hot";
+            case LEVEL_CRITICAL: return "critical";
+            default:             return "normal";
+        }
+    }
+}
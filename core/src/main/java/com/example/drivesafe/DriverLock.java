@@ -0,0 +1,119 @@
+package com.example.drivesafe;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps following the same face across frames once it has been picked as the
+ * driver, so a passenger leaning into view cannot take over the state machine.
+ *
+ * While the locked tracking ID is among the detections that face is used and
+ * every other face is ignored. When the ID disappears (track lost, or a
+ * detector instance that numbers faces independently) the lock is re-acquired
+ * by overlap with the driver's last box; only with no recent box does it fall
+ * back to the largest or the first face.
+ *
+ * IDs are kept per channel, because each ML Kit detector instance assigns its
+ * own. Boxes must be in full-frame coordinates. Not thread-safe.
+ */
+public final class DriverLock {
+
+    public static final int NO_ID = Integer.MIN_VALUE;
+
+    /** How to read a detection's tracking ID and bounding box. */
+    public interface Faces<T> {
+        /** The tracking ID, or {@link #NO_ID} if the detector has none. */
+        int trackingId(T face);
+        int left(T face);
+        int top(T face);
+        int right(T face);
+        int bottom(T face);
+    }
+
+    private final int[] lockedId;
+    private boolean hasBox = false;
+    private int left, top, right, bottom;
+    private long lastSeenMs;
+
+    // ─── Stats ───────────────────────────────────────────────────────────
+    private long lockedFrames, reacquired;
+
+    public DriverLock(int channels) {
+        lockedId = new int[channels];
+        reset();
+    }
+
+    public void reset() {
+        Arrays.fill(lockedId, NO_ID);
+        hasBox = false;
+        lockedFrames = reacquired = 0;
+    }
+
+    /**
+     * Picks the driver among {@code faces} (non-empty).
+     *
+     * @param channel       detector instance the faces came from
+     * @param offsetX       horizontal shift from the detections' coordinates to full-frame ones
+     * @param offsetY       vertical shift, likewise
+     * @param preferLargest fallback pick when there is no lock to recover
+     */
+    public <T> T select(int channel, List<T> faces, Faces<T> access, int offsetX, int offsetY,
+                        long nowMs, boolean preferLargest) {
+        int id = lockedId[channel];
+        T face = null;
+        if (id != NO_ID) {
+            for (int i = 0, n = faces.size(); i < n; i++) {
+                if (access.trackingId(faces.get(i)) == id) { face = faces.get(i); break; }
+            }
+        }
+        if (face != null) {
+            lockedFrames++;
+        } else {
+            face = reacquire(faces, access, offsetX, offsetY, nowMs, preferLargest);
+            lockedId[channel] = access.trackingId(face);
+            reacquired++;
+        }
+        left = access.left(face) + offsetX;
+        top = access.top(face) + offsetY;
+        right = access.right(face) + offsetX;
+        bottom = access.bottom(face) + offsetY;
+        hasBox = true;
+        lastSeenMs = nowMs;
+        return face;
+    }
+
+    private <T> T reacquire(List<T> faces, Faces<T> access, int offsetX, int offsetY,
+                            long nowMs, boolean preferLargest) {
+        int n = faces.size();
+        if (n == 1) return faces.get(0);
+        if (hasBox && nowMs - lastSeenMs <= Constants.DRIVER_LOCK_MEMORY_MS) {
+            T best = null;
+            float bestIou = Constants.DRIVER_LOCK_MIN_IOU;
+            for (int i = 0; i < n; i++) {
+                T f = faces.get(i);
+                float iou = iou(access.left(f) + offsetX, access.top(f) + offsetY,
+                        access.right(f) + offsetX, access.bottom(f) + offsetY);
+                if (iou >= bestIou) { bestIou = iou; best = f; }
+            }
+            if (best != null) return best;
+        }
+        return preferLargest
+                ? FaceSelector.largest(faces, f -> (access.right(f) - access.left(f)) * (access.bottom(f) - access.top(f)))
+                : faces.get(0);
+    }
+
+    /** Overlap of a box with the driver's last box. */
+    private float iou(int l, int t, int r, int b) {
+        long iw = Math.min(r, right) - Math.max(l, left), ih = Math.min(b, bottom) - Math.max(t, top);
+        if (iw <= 0 || ih <= 0) return 0f;
+        long inter = iw * ih;
+        long union = (long) (r - l) * (b - t) + (long) (right - left) * (bottom - top) - inter;
+        return union > 0 ? inter / (float) union : 0f;
+    }
+
+    /** Frames where the locked ID was found directly. */
+    public long getLockedFrames() { return lockedFrames; }
+
+    /** Frames that needed a re-acquire (first frame, lost track, new channel). */
+    public long getReacquired() { return reacquired; }
+}
@@ -0,0 +1,239 @@
+package com.example.drivesafe;
+
+/**
+ * Pure-Java fatigue / distraction / yawn state machine.
+ *
+ * Consumes one set of per-frame driver signals at a time and reports the
+ * outcome as a primitive state code plus a bit mask of events, so a frame
+ * never allocates and never touches Android classes. The caller decides how
+ * to render states and react to events (text, sounds, notifications, SOS).
+ *
+ * Not thread-safe: feed it from a single thread.
+ */
+public final class DriverStateEngine {
+
+    /** Millisecond time source, injectable so replays and tests can drive a virtual clock. */
+    public interface Clock {
+        long nowMillis();
+    }
+
+    public static final Clock SYSTEM_CLOCK = System::currentTimeMillis;
+
+    // ─── States ──────────────────────────────────────────────────────────
+    public static final int STATE_IDLE = 0;
+    public static final int STATE_ATTENTIVE = 1;
+    public static final int STATE_PAUSED = 2;
+    public static final int STATE_DISTRACTED = 3;
+    public static final int STATE_YAWNING = 4;
+    public static final int STATE_WARNING = 5;
+    public static final int STATE_CRITICAL = 6;
+    public static final int STATE_LOW_VISIBILITY = 7;
+
+    // ─── Events (bit flags returned by onFrame) ──────────────────────────
+    public static final int EVENT_STATE_CHANGED = 1;
+    public static final int EVENT_DISTRACTION = 1 << 1;
+    public static final int EVENT_YAWN = 1 << 2;
+    public static final int EVENT_WARNING = 1 << 3;
+    public static final int EVENT_CRITICAL = 1 << 4;
+    public static final int EVENT_BLINK = 1 << 5;
+
+    private final Clock clock;
+
+    // ─── Configuration ───────────────────────────────────────────────────
+    private float earThreshold = Constants.EAR_THRESHOLD;
+    private long warningDurationMs = Constants.WARNING_DURATION_MS;
+    private boolean minSpeedGatingEnabled = false;
+    private float minSpeedKmh = Constants.DEFAULT_MIN_SPEED_KMH;
+    private float headTurnThreshold = Constants.HEAD_TURN_THRESHOLD;
+    private float headTiltThreshold = Constants.HEAD_TILT_THRESHOLD;
+    private long distractionDurationMs = Constants.DISTRACTION_DURATION_MS;
+
+    // ─── Current State ───────────────────────────────────────────────────
+    private int state = STATE_IDLE;
+
+    // ─── Blink Tracking ──────────────────────────────────────────────────
+    private final EyeMetricsWindow eyeMetrics = new EyeMetricsWindow(Constants.EYE_METRICS_WINDOW_MS);
+    private boolean eyesWereClosed = false;
+    private boolean closureTimerRunning = false;
+    private long eyeClosedStartTime = 0;
+
+    // ─── Distraction Tracking ────────────────────────────────────────────
+    private boolean isDistracted = false;
+    private boolean distractionFired = false;
+    private long distractionStartTime = 0;
+
+    // ─── Alert Latches ───────────────────────────────────────────────────
+    private boolean yawnFired = false;
+    private boolean warningFired = false;
+    private boolean criticalFired = false;
+
+    // ─── Session Counters ────────────────────────────────────────────────
+    private int totalBlinks = 0;
+    private int totalYawns = 0;
+    private int totalDistractions = 0;
+    private int warningCount = 0;
+    private int criticalCount = 0;
+
+    public DriverStateEngine(Clock clock) {
+        this.clock = clock;
+    }
+
+    // ─── Configuration ───────────────────────────────────────────────────
+
+    public void setEarThreshold(float threshold) { earThreshold = threshold; }
+
+    public void setWarningDuration(long durationMs) { warningDurationMs = durationMs; }
+
+    public void setMinSpeedGating(boolean enabled, float minKmh) {
+        minSpeedGatingEnabled = enabled;
+        minSpeedKmh = minKmh;
+    }
+
+    /** Head pose limits (degrees) and how long they must be exceeded before a distraction alert. */
+    public void setDistractionLimits(float headTurnDeg, float headTiltDeg, long durationMs) {
+        headTurnThreshold = headTurnDeg;
+        headTiltThreshold = headTiltDeg;
+        distractionDurationMs = durationMs;
+    }
+
+    public float getEarThreshold() { return earThreshold; }
+
+    /** Clears all per-session state and counters; call when a new session starts. */
+    public void reset() {
+        state = STATE_IDLE;
+        eyeMetrics.reset();
+        eyesWereClosed = false;
+        closureTimerRunning = false;
+        isDistracted = false;
+        distractionFired = false;
+        yawnFired = false;
+        warningFired = false;
+        criticalFired = false;
+        totalBlinks = 0;
+        totalYawns = 0;
+        totalDistractions = 0;
+        warningCount = 0;
+        criticalCount = 0;
+    }
+
+    // ─── Per-frame Update ────────────────────────────────────────────────
+
+    /**
+     * Advances the state machine by one analyzed frame.
+     *
+     * @return bit mask of {@code EVENT_*} flags raised by this frame (0 if nothing happened)
+     */
+    public int onFrame(float ear, float headTurnY, float headTiltX, boolean isYawning, float speedKmh) {
+        if (minSpeedGatingEnabled && speedKmh < minSpeedKmh) {
+            closureTimerRunning = false;
+            return moveTo(STATE_PAUSED, 0);
+        }
+
+        long now = clock.nowMillis();
+        int events = 0;
+
+        if (headTurnY > headTurnThreshold || headTurnY < -headTurnThreshold
+                || headTiltX < headTiltThreshold) {
+            if (!isDistracted) {
+                distractionStartTime = now;
+                isDistracted = true;
+            } else if (now - distractionStartTime >= distractionDurationMs) {
+                if (!distractionFired) {
+                    distractionFired = true;
+                    totalDistractions++;
+                    events |= EVENT_DISTRACTION;
+                }
+                return moveTo(STATE_DISTRACTED, events);
+            }
+        } else {
+            isDistracted = false;
+            distractionFired = false;
+        }
+
+        if (isYawning) {
+            if (!yawnFired) {
+                yawnFired = true;
+                totalYawns++;
+                events |= EVENT_YAWN;
+            }
+            return moveTo(STATE_YAWNING, events);
+        }
+        yawnFired = false;
+
+        eyeMetrics.onSample(now, ear < earThreshold);
+        if (ear < earThreshold) {
+            eyesWereClosed = true;
+            if (!closureTimerRunning) {
+                eyeClosedStartTime = now;
+                closureTimerRunning = true;
+            }
+            long closedDuration = now - eyeClosedStartTime;
+            if (closedDuration >= Constants.CRITICAL_DURATION_MS) {
+                if (!criticalFired) {
+                    criticalFired = true;
+                    criticalCount++;
+                    events |= EVENT_CRITICAL;
+                }
+                events = moveTo(STATE_CRITICAL, events);
+            } else if (closedDuration >= warningDurationMs) {
+                if (!warningFired) {
+                    warningFired = true;
+                    warningCount++;
+                    events |= EVENT_WARNING;
+                }
+                events = moveTo(STATE_WARNING, events);
+            }
+        } else {
+            if (eyesWereClosed) {
+                if (closureTimerRunning) eyeMetrics.onBlink(now, now - eyeClosedStartTime);
+                totalBlinks++;
+                eyesWereClosed = false;
+                warningFired = false;
+                criticalFired = false;
+                events |= EVENT_BLINK;
+            }
+            closureTimerRunning = false;
+            events = moveTo(STATE_ATTENTIVE, events);
+        }
+        return events;
+    }
+
+    /**
+     * The camera cannot see the driver well enough to judge them (night, glare,
+     * blur). Closure and distraction timing stop rather than run across frames
+     * nobody looked at, and the state says so instead of raising an alert. The
+     * alert latches are re-armed too: the episode that raised them is over.
+     *
+     * @return bit mask of {@code EVENT_*} flags (only a state change)
+     */
+    public int onLowVisibility() {
+        closureTimerRunning = false;
+        eyesWereClosed = false;
+        isDistracted = false;
+        distractionFired = false;
+        warningFired = false;
+        criticalFired = false;
+        return moveTo(STATE_LOW_VISIBILITY, 0);
+    }
+
+    private int moveTo(int newState, int events) {
+        if (state != newState) {
+            state = newState;
+            events |= EVENT_STATE_CHANGED;
+        }
+        return events;
+    }
+
+    // ─── Accessors ───────────────────────────────────────────────────────
+
+    public int getState() { return state; }
+
+    /** Sliding-window PERCLOS, blink rate and blink durations, plus their session totals. */
+    public EyeMetricsWindow getEyeMetrics() { return eyeMetrics; }
+
+    public int getTotalBlinks() { return totalBlinks; }
+    public int getTotalYawns() { return totalYawns; }
+    public int getTotalDistractions() { return totalDistractions; }
+    public int getWarningCount() { return warningCount; }
+    public int getCriticalCount() { return criticalCount; }
+}
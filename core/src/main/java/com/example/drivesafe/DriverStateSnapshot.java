@@ -0,0 +1,70 @@
+package com.example.drivesafe;
+
+/**
+ * Immutable result of one analyzed frame.
+ * Built on the analysis thread after {@link DriverStateEngine#onFrame} and
+ * handed to the UI thread, which only renders it.
+ */
+public final class DriverStateSnapshot {
+
+    public final int state;
+    public final int events;
+    public final float ear;
+
+    // Sliding-window eye metrics
+    public final int blinkRate;       // blinks per observed minute
+    public final float perclos;       // 0–1
+    public final float meanBlinkMs;
+    public final int longBlinks;
+
+    public final float analysisRateHz;
+    // Wall-clock decision time minus camera capture time for this frame
+    public final long processingLagMs;
+    // SystemClock.elapsedRealtimeNanos() when the frame was decided
+    public final long decidedAtNanos;
+
+    // Session counters at the time of this frame
+    public final int warningCount;
+    public final int criticalCount;
+    public final int totalBlinks;
+    public final int totalYawns;
+    public final int totalDistractions;
+    public final float sessionPerclos;
+    public final float peakPerclos;
+    public final float sessionMeanBlinkMs;
+    public final int sessionLongBlinks;
+
+    private DriverStateSnapshot(DriverStateEngine engine, int events, float ear,
+                                float analysisRateHz, long processingLagMs, long decidedAtNanos) {
+        this.state = engine.getState();
+        this.events = events;
+        this.ear = ear;
+        EyeMetricsWindow m = engine.getEyeMetrics();
+        this.blinkRate = Math.round(m.getBlinksPerMinute());
+        this.perclos = m.getPerclos();
+        this.meanBlinkMs = m.getMeanBlinkMs();
+        this.longBlinks = m.getLongBlinks();
+        this.analysisRateHz = analysisRateHz;
+        this.processingLagMs = processingLagMs;
+        this.decidedAtNanos = decidedAtNanos;
+        this.warningCount = engine.getWarningCount();
+        this.criticalCount = engine.getCriticalCount();
+        this.totalBlinks = engine.getTotalBlinks();
+        this.totalYawns = engine.getTotalYawns();
+        this.totalDistractions = engine.getTotalDistractions();
+        this.sessionPerclos = m.getSessionPerclos();
+        this.peakPerclos = m.getPeakPerclos();
+        this.sessionMeanBlinkMs = m.getSessionMeanBlinkMs();
+        this.sessionLongBlinks = m.getSessionLongBlinks();
+    }
+
+    /** Captures the engine's current state together with the events of the frame just processed. */
+    public static DriverStateSnapshot from(DriverStateEngine engine, int events, float ear,
+                                           float analysisRateHz, long processingLagMs, long decidedAtNanos) {
+        return new DriverStateSnapshot(engine, events, ear, analysisRateHz, processingLagMs, decidedAtNanos);
+    }
+
+    public boolean has(int event) {
+        return (events & event) != 0;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.drivesafe;
+
+/**
+ * Personal eye-closed threshold derived from the driver's own open-eye signal.
+ *
+ * The sensitivity table's thresholds assume a nominal open-eye level
+ * ({@link Constants#CALIBRATION_NOMINAL_OPEN_EAR}); this scales them to the
+ * driver's observed level (median via {@link P2Quantile}) and keeps the result
+ * at least {@link Constants#CALIBRATION_SIGMA} standard deviations of open-eye
+ * noise below it (running variance, Welford), so drivers whose eyes read low
+ * or jittery (glasses, camera angle) don't trip alarms.
+ *
+ * Only frames facing the road without a yawn are used. The first estimate is
+ * made after {@link Constants#CALIBRATION_DURATION_MS}; after that it is
+ * refined every {@link Constants#CALIBRATION_UPDATE_INTERVAL_MS} for the rest
+ * of the drive. Until then a stored per-profile baseline, if any, is used.
+ * Constant time and no allocation per frame.
+ */
+public final class EarCalibrator {
+
+    private final P2Quantile openEar = new P2Quantile(0.5);
+    private long openCount;
+    private double openMean, openM2;
+
+    private float baseThreshold = Constants.EAR_THRESHOLD;
+    private float threshold = Constants.EAR_THRESHOLD;
+    private long startMs = -1;
+    private long lastUpdateMs;
+    private boolean calibrated = false;
+
+    /**
+     * Starts a new session.
+     *
+     * @param baseThreshold threshold from the sensitivity table
+     * @param priorOpenEar  stored open-eye median for this driver, or NaN
+     * @param priorOpenSd   stored open-eye standard deviation, or NaN
+     */
+    public void start(float baseThreshold, float priorOpenEar, float priorOpenSd) {
+        this.baseThreshold = baseThreshold;
+        threshold = Float.isNaN(priorOpenEar) ? baseThreshold
+                : deriveThreshold(baseThreshold, priorOpenEar, Float.isNaN(priorOpenSd) ? 0f : priorOpenSd);
+        openEar.reset();
+        openCount = 0;
+        openMean = openM2 = 0;
+        startMs = -1;
+        calibrated = false;
+    }
+
+    /**
+     * Feeds one frame with a face.
+     *
+     * @return true when {@link #getThreshold} changed
+     */
+    public boolean onFrame(long nowMs, float ear, float headYaw, float headPitch, boolean yawning) {
+        if (yawning || Math.abs(headYaw) > Constants.HEAD_TURN_THRESHOLD || headPitch < Constants.HEAD_TILT_THRESHOLD) {
+            return false;
+        }
+        if (startMs < 0) startMs = lastUpdateMs = nowMs;
+        openEar.add(ear);
+        if (ear >= threshold) {
+            openCount++;
+            double delta = ear - openMean;
+            openMean += delta / openCount;
+            openM2 += delta * (ear - openMean);
+        }
+
+        if (!calibrated) {
+            if (nowMs - startMs < Constants.CALIBRATION_DURATION_MS
+                    || openEar.getCount() < Constants.CALIBRATION_MIN_SAMPLES) {
+                return false;
+            }
+            calibrated = true;
+        } else if (nowMs - lastUpdateMs < Constants.CALIBRATION_UPDATE_INTERVAL_MS) {
+            return false;
+        }
+        lastUpdateMs = nowMs;
+        float t = deriveThreshold(baseThreshold, getOpenEar(), getOpenEarSd());
+        if (Math.abs(t - threshold) < Constants.CALIBRATION_MIN_CHANGE) return false;
+        threshold = t;
+        return true;
+    }
+
+    /** Sensitivity threshold scaled to the open-eye level, kept clear of open-eye noise. */
+    public static float deriveThreshold(float baseThreshold, float openEar, float openSd) {
+        float scaled = baseThreshold * openEar / Constants.CALIBRATION_NOMINAL_OPEN_EAR;
+        float t = Math.min(scaled, openEar - Constants.CALIBRATION_SIGMA * openSd);
+        return Math.max(Constants.CALIBRATION_MIN_THRESHOLD, Math.min(Constants.CALIBRATION_MAX_THRESHOLD, t));
+    }
+
+    public float getThreshold() { return threshold; }
+
+    /** True once the first estimate from this session is in use. */
+    public boolean isCalibrated() { return calibrated; }
+
+    public float getOpenEar() { return (float) openEar.get(); }
+
+    public float getOpenEarSd() {
+        return openCount > 1 ? (float) Math.sqrt(openM2 / (openCount - 1)) : 0f;
+    }
+}
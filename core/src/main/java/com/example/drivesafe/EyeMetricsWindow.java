@@ -0,0 +1,172 @@
+package com.example.drivesafe;
+
+/**
+ * Sliding-window eye metrics: PERCLOS, blinks per minute, mean blink duration
+ * and long-blink count over the last {@link Constants#EYE_METRICS_WINDOW_MS}.
+ *
+ * Samples and blinks live in fixed-size primitive ring buffers with running
+ * sums, so every update is O(1) amortized and nothing is allocated or boxed
+ * after construction. Observed time is accumulated from the gaps between
+ * samples; a gap longer than {@link Constants#EYE_METRICS_MAX_GAP_MS} (speed
+ * pause, lost face) is not counted, so rates are per observed minute.
+ *
+ * Session-wide totals are kept alongside for the end-of-session summary.
+ *
+ * Not thread-safe: feed it from a single thread.
+ */
+public final class EyeMetricsWindow {
+
+    private static final int SAMPLE_CAPACITY = 4096;  // > 60 s at 60 fps
+    private static final int BLINK_CAPACITY = 512;    // > 8 blinks/s for a full window
+
+    private final long windowMs;
+
+    // ─── Sample Ring (time, observed span, closed span) ──────────────────
+    private final long[] sampleTime = new long[SAMPLE_CAPACITY];
+    private final long[] sampleSpan = new long[SAMPLE_CAPACITY];
+    private final long[] sampleClosed = new long[SAMPLE_CAPACITY];
+    private int sampleHead = 0, sampleCount = 0;
+    private long windowSpanMs = 0, windowClosedMs = 0;
+
+    private boolean hasSample = false;
+    private long lastSampleTime = 0;
+    private boolean lastClosed = false;
+
+    // ─── Blink Ring (end time, duration) ─────────────────────────────────
+    private final long[] blinkTime = new long[BLINK_CAPACITY];
+    private final float[] blinkDuration = new float[BLINK_CAPACITY];
+    private int blinkHead = 0, blinkCount = 0;
+    private float windowBlinkMs = 0f;
+    private int windowLongBlinks = 0;
+
+    // ─── Session Totals ──────────────────────────────────────────────────
+    private long sessionSpanMs = 0, sessionClosedMs = 0;
+    private int sessionBlinks = 0, sessionLongBlinks = 0;
+    private double sessionBlinkMs = 0;
+    private float peakPerclos = 0f;
+
+    public EyeMetricsWindow(long windowMs) {
+        this.windowMs = windowMs;
+    }
+
+    public void reset() {
+        sampleHead = sampleCount = 0;
+        windowSpanMs = windowClosedMs = 0;
+        hasSample = false;
+        lastClosed = false;
+        blinkHead = blinkCount = 0;
+        windowBlinkMs = 0f;
+        windowLongBlinks = 0;
+        sessionSpanMs = sessionClosedMs = 0;
+        sessionBlinks = sessionLongBlinks = 0;
+        sessionBlinkMs = 0;
+        peakPerclos = 0f;
+    }
+
+    // ─── Updates ─────────────────────────────────────────────────────────
+
+    /**
+     * Records one eye observation. The time since the previous observation is
+     * attributed to the previous open/closed state (sample-and-hold).
+     */
+    public void onSample(long nowMs, boolean eyesClosed) {
+        long span = 0;
+        if (hasSample) {
+            long gap = nowMs - lastSampleTime;
+            if (gap > 0 && gap <= Constants.EYE_METRICS_MAX_GAP_MS) span = gap;
+        }
+        long closed = lastClosed ? span : 0;
+        hasSample = true;
+        lastSampleTime = nowMs;
+        lastClosed = eyesClosed;
+
+        if (sampleCount == SAMPLE_CAPACITY) evictSample();
+        int i = (sampleHead + sampleCount) & (SAMPLE_CAPACITY - 1);
+        sampleTime[i] = nowMs;
+        sampleSpan[i] = span;
+        sampleClosed[i] = closed;
+        sampleCount++;
+        windowSpanMs += span;
+        windowClosedMs += closed;
+        sessionSpanMs += span;
+        sessionClosedMs += closed;
+
+        expire(nowMs);
+        if (isWarmedUp()) peakPerclos = Math.max(peakPerclos, getPerclos());
+    }
+
+    /** Records a completed blink (eyes reopened at {@code endMs} after {@code durationMs} closed). */
+    public void onBlink(long endMs, long durationMs) {
+        if (blinkCount == BLINK_CAPACITY) evictBlink();
+        int i = (blinkHead + blinkCount) & (BLINK_CAPACITY - 1);
+        blinkTime[i] = endMs;
+        blinkDuration[i] = durationMs;
+        blinkCount++;
+        windowBlinkMs += durationMs;
+        if (durationMs >= Constants.LONG_BLINK_MS) windowLongBlinks++;
+
+        sessionBlinks++;
+        sessionBlinkMs += durationMs;
+        if (durationMs >= Constants.LONG_BLINK_MS) sessionLongBlinks++;
+        expire(endMs);
+    }
+
+    private void expire(long nowMs) {
+        long cutoff = nowMs - windowMs;
+        while (sampleCount > 0 && sampleTime[sampleHead] <= cutoff) evictSample();
+        while (blinkCount > 0 && blinkTime[blinkHead] <= cutoff) evictBlink();
+    }
+
+    private void evictSample() {
+        windowSpanMs -= sampleSpan[sampleHead];
+        windowClosedMs -= sampleClosed[sampleHead];
+        sampleHead = (sampleHead + 1) & (SAMPLE_CAPACITY - 1);
+        sampleCount--;
+    }
+
+    private void evictBlink() {
+        float d = blinkDuration[blinkHead];
+        windowBlinkMs -= d;
+        if (d >= Constants.LONG_BLINK_MS) windowLongBlinks--;
+        blinkHead = (blinkHead + 1) & (BLINK_CAPACITY - 1);
+        blinkCount--;
+    }
+
+    // ─── Window Metrics ──────────────────────────────────────────────────
+
+    /** True once the window holds enough observed time for stable rates. */
+    public boolean isWarmedUp() {
+        return windowSpanMs >= Constants.EYE_METRICS_MIN_COVERAGE_MS;
+    }
+
+    /** Fraction (0–1) of observed time in the window with the eyes closed. */
+    public float getPerclos() {
+        return windowSpanMs > 0 ? (float) windowClosedMs / windowSpanMs : 0f;
+    }
+
+    /** Blinks per observed minute in the window; 0 until warmed up. */
+    public float getBlinksPerMinute() {
+        return isWarmedUp() ? blinkCount * 60_000f / windowSpanMs : 0f;
+    }
+
+    public float getMeanBlinkMs() {
+        return blinkCount > 0 ? windowBlinkMs / blinkCount : 0f;
+    }
+
+    public int getLongBlinks() { return windowLongBlinks; }
+
+    // ─── Session Metrics ─────────────────────────────────────────────────
+
+    public float getSessionPerclos() {
+        return sessionSpanMs > 0 ? (float) sessionClosedMs / sessionSpanMs : 0f;
+    }
+
+    /** Highest windowed PERCLOS seen this session (after warm-up). */
+    public float getPeakPerclos() { return peakPerclos; }
+
+    public float getSessionMeanBlinkMs() {
+        return sessionBlinks > 0 ? (float) (sessionBlinkMs / sessionBlinks) : 0f;
+    }
+
+    public int getSessionLongBlinks() { return sessionLongBlinks; }
+}
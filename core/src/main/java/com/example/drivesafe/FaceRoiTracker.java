@@ -0,0 +1,124 @@
+package com.example.drivesafe;
+
+/**
+ * Tracks the driver's face region between frames so detection can run on a
+ * crop instead of the whole camera frame.
+ *
+ * Three coordinate spaces are involved:
+ *  - sensor: the raw image buffer as delivered by the camera (what gets cropped),
+ *  - upright: the full frame after applying the rotation (what the detector reports),
+ *  - crop-upright: the crop after rotation; equal to upright shifted by the crop offset.
+ *
+ * The previous bounding box plus {@link Constants#ROI_MARGIN_RATIO} on each side
+ * becomes the next crop. When no face is found in a crop, or the crop would be
+ * almost the full frame anyway, the next frame is scanned in full.
+ *
+ * Not thread-safe: call from the analysis thread only.
+ */
+public final class FaceRoiTracker {
+
+    private boolean hasFace = false;
+    // Last face box in upright full-frame coordinates
+    private int faceLeft, faceTop, faceRight, faceBottom;
+
+    // Current crop in sensor coordinates
+    private int cropLeft, cropTop, cropWidth, cropHeight;
+    // Upright position of the crop's top-left corner in the full frame
+    private int offsetX, offsetY;
+
+    public void reset() {
+        hasFace = false;
+    }
+
+    /**
+     * Works out the crop for the next frame.
+     *
+     * @return true if the frame should be cropped to {@link #getCropLeft()} etc., false for a full-frame scan
+     */
+    public boolean prepare(int sensorWidth, int sensorHeight, int rotationDegrees) {
+        if (!hasFace) return false;
+
+        boolean swapped = rotationDegrees == 90 || rotationDegrees == 270;
+        int uprightW = swapped ? sensorHeight : sensorWidth;
+        int uprightH = swapped ? sensorWidth : sensorHeight;
+
+        int marginX = (int) ((faceRight - faceLeft) * Constants.ROI_MARGIN_RATIO);
+        int marginY = (int) ((faceBottom - faceTop) * Constants.ROI_MARGIN_RATIO);
+        int u0 = Math.max(0, faceLeft - marginX);
+        int v0 = Math.max(0, faceTop - marginY);
+        int u1 = Math.min(uprightW, faceRight + marginX);
+        int v1 = Math.min(uprightH, faceBottom + marginY);
+        if (u1 <= u0 || v1 <= v0) {
+            hasFace = false;
+            return false;
+        }
+
+        // Upright rect -> sensor rect
+        int x0, x1, y0, y1;
+        switch (rotationDegrees) {
+            case 90:  x0 = v0;               x1 = v1;               y0 = sensorHeight - u1; y1 = sensorHeight - u0; break;
+            case 180: x0 = sensorWidth - u1; x1 = sensorWidth - u0; y0 = sensorHeight - v1; y1 = sensorHeight - v0; break;
+            case 270: x0 = sensorWidth - v1; x1 = sensorWidth - v0; y0 = u0;                y1 = u1;                break;
+            default:  x0 = u0;               x1 = u1;               y0 = v0;                y1 = v1;                break;
+        }
+
+        // Chroma is subsampled 2x2, so keep the crop on even pixel boundaries
+        x0 &= ~1;
+        y0 &= ~1;
+        x1 = Math.min(sensorWidth, (x1 + 1) & ~1);
+        y1 = Math.min(sensorHeight, (y1 + 1) & ~1);
+
+        int w = x1 - x0, h = y1 - y0;
+        if (w < Constants.ROI_MIN_SIZE_PX || h < Constants.ROI_MIN_SIZE_PX
+                || (long) w * h > (long) (sensorWidth * (double) sensorHeight * Constants.ROI_MAX_AREA_RATIO)) {
+            return false;
+        }
+
+        cropLeft = x0;
+        cropTop = y0;
+        cropWidth = w;
+        cropHeight = h;
+
+        // Sensor rect -> upright origin of the crop
+        switch (rotationDegrees) {
+            case 90:  offsetX = sensorHeight - y1; offsetY = x0;               break;
+            case 180: offsetX = sensorWidth - x1;  offsetY = sensorHeight - y1; break;
+            case 270: offsetX = y0;                offsetY = sensorWidth - x1;  break;
+            default:  offsetX = x0;                offsetY = y0;                break;
+        }
+        return true;
+    }
+
+    /**
+     * Records where the driver's face was found.
+     *
+     * @param fromCrop true if the box is relative to the crop from the last {@link #prepare} call
+     */
+    public void onFaceFound(int left, int top, int right, int bottom, boolean fromCrop) {
+        int dx = fromCrop ? offsetX : 0;
+        int dy = fromCrop ? offsetY : 0;
+        faceLeft = left + dx;
+        faceTop = top + dy;
+        faceRight = right + dx;
+        faceBottom = bottom + dy;
+        hasFace = true;
+    }
+
+    /** No face in the last frame: fall back to a full-frame scan. */
+    public void onFaceLost() {
+        hasFace = false;
+    }
+
+    // ─── Accessors ───────────────────────────────────────────────────────
+
+    public int getCropLeft() { return cropLeft; }
+    public int getCropTop() { return cropTop; }
+    public int getCropWidth() { return cropWidth; }
+    public int getCropHeight() { return cropHeight; }
+
+    /** Horizontal shift from crop-upright to full-frame upright coordinates. */
+    public int getOffsetX() { return offsetX; }
+
+    /** Vertical shift from crop-upright to full-frame upright coordinates. */
+    public int getOffsetY() { return offsetY; }
+}
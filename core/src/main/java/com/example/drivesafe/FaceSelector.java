@@ -0,0 +1,24 @@
+package com.example.drivesafe;
+
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Picks the driver's face among several detections.
+ */
+public final class FaceSelector {
+
+    private FaceSelector() { /* Non-instantiable */ }
+
+    /** The face with the largest box area; the first one wins ties. */
+    public static <T> T largest(List<T> faces, ToIntFunction<T> area) {
+        T largest = faces.get(0);
+        int max = area.applyAsInt(largest);
+        for (int i = 1, n = faces.size(); i < n; i++) {
+            T f = faces.get(i);
+            int a = area.applyAsInt(f);
+            if (a > max) { max = a; largest = f; }
+        }
+        return largest;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.drivesafe;
+
+/**
+ * Per-frame driver signals produced by a {@link FaceSignalSource}.
+ *
+ * Mutable and reused: a source fills one instance per frame and hands it to
+ * its listener, which must copy anything it keeps past the callback.
+ */
+public final class FaceSignal {
+
+    /** Capture time of the frame, nanoseconds on the source's timebase. */
+    public long captureNanos;
+    /** False when no face was found; the remaining signal fields are then undefined. */
+    public boolean faceFound;
+    /** Eye openness, 0 (closed) – 1 (open). */
+    public float ear;
+    /** Head turn (Euler Y) in degrees. */
+    public float headYaw;
+    /** Head tilt (Euler X) in degrees; negative is looking down. */
+    public float headPitch;
+    public boolean yawning;
+    /** Vehicle speed recorded with the frame, or NaN if the source has none. */
+    public float speedKmh = Float.NaN;
+    /**
+     * True when the camera has not produced a usable frame for a while (dark,
+     * glare, blur) and detection was skipped; {@code faceFound} is then false.
+     * Not part of {@link #set}'s arguments: {@code set} clears it.
+     */
+    public boolean lowVisibility;
+
+    public void set(long captureNanos, boolean faceFound, float ear, float headYaw, float headPitch,
+                    boolean yawning, float speedKmh) {
+        this.captureNanos = captureNanos;
+        this.faceFound = faceFound;
+        this.ear = ear;
+        this.headYaw = headYaw;
+        this.headPitch = headPitch;
+        this.yawning = yawning;
+        this.speedKmh = speedKmh;
+        this.lowVisibility = false;
+    }
+
+    public void copyFrom(FaceSignal other) {
+        set(other.captureNanos, other.faceFound, other.ear, other.headYaw, other.headPitch,
+                other.yawning, other.speedKmh);
+        lowVisibility = other.lowVisibility;
+    }
+}
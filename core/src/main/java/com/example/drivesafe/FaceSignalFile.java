@@ -0,0 +1,164 @@
+package com.example.drivesafe;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary per-frame signal recording: a 16-byte header followed by fixed-width
+ * little-endian records, one per {@link FaceSignal}.
+ *
+ * <pre>
+ * header: int magic "FSIG", int version, int recordBytes, int reserved
+ * record: long captureNanos, float ear, float headYaw, float headPitch,
+ *         float speedKmh, int flags (FLAG_FACE | FLAG_YAWN | FLAG_LOW_VISIBILITY), int events
+ * </pre>
+ *
+ * {@code events} holds the {@code DriverStateEngine.EVENT_*} bits raised by the
+ * frame when the writer knows them (flight recorder), otherwise 0.
+ *
+ * Reader and writer stream through one reused buffer, so neither allocates per record.
+ */
+public final class FaceSignalFile {
+
+    public static final int MAGIC = 0x46534947; // "FSIG"
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 16;
+    public static final int RECORD_BYTES = 32;
+
+    public static final int FLAG_FACE = 1;
+    public static final int FLAG_YAWN = 1 << 1;
+    public static final int FLAG_LOW_VISIBILITY = 1 << 2;
+
+    private static final int BUFFER_RECORDS = 2048;
+
+    private FaceSignalFile() {}
+
+    /** The {@code FLAG_*} bits of a signal. */
+    public static int flagsOf(FaceSignal s) {
+        return (s.faceFound ? FLAG_FACE : 0) | (s.yawning ? FLAG_YAWN : 0)
+                | (s.lowVisibility ? FLAG_LOW_VISIBILITY : 0);
+    }
+
+    /** Sets {@code s} from stored fields, {@code flags} being {@code FLAG_*} bits. */
+    public static void setSignal(FaceSignal s, long captureNanos, int flags, float ear, float headYaw,
+                                 float headPitch, float speedKmh) {
+        s.set(captureNanos, (flags & FLAG_FACE) != 0, ear, headYaw, headPitch, (flags & FLAG_YAWN) != 0, speedKmh);
+        s.lowVisibility = (flags & FLAG_LOW_VISIBILITY) != 0;
+    }
+
+    /** Writes one record at the buffer's position. */
+    public static void putRecord(ByteBuffer buf, FaceSignal s) {
+        putRecord(buf, s.captureNanos, flagsOf(s), s.ear, s.headYaw, s.headPitch, s.speedKmh, 0);
+    }
+
+    public static void putRecord(ByteBuffer buf, long captureNanos, int flags, float ear,
+                                 float headYaw, float headPitch, float speedKmh, int events) {
+        buf.putLong(captureNanos);
+        buf.putFloat(ear);
+        buf.putFloat(headYaw);
+        buf.putFloat(headPitch);
+        buf.putFloat(speedKmh);
+        buf.putInt(flags);
+        buf.putInt(events);
+    }
+
+    /** Reads one record at the buffer's position into {@code s}; returns its event bits. */
+    public static int getRecord(ByteBuffer buf, FaceSignal s) {
+        long t = buf.getLong();
+        float ear = buf.getFloat(), yaw = buf.getFloat(), pitch = buf.getFloat(), speed = buf.getFloat();
+        int flags = buf.getInt();
+        int events = buf.getInt();
+        setSignal(s, t, flags, ear, yaw, pitch, speed);
+        return events;
+    }
+
+    static void putHeader(ByteBuffer buf) {
+        buf.putInt(MAGIC).putInt(VERSION).putInt(RECORD_BYTES).putInt(0);
+    }
+
+    // ─── Writer ──────────────────────────────────────────────────────────
+
+    public static final class Writer implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(RECORD_BYTES * BUFFER_RECORDS)
+                .order(ByteOrder.LITTLE_ENDIAN);
+
+        public Writer(File file) throws IOException {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            putHeader(buf);
+        }
+
+        public void append(FaceSignal s) throws IOException {
+            if (buf.remaining() < RECORD_BYTES) flush();
+            putRecord(buf, s);
+        }
+
+        public void flush() throws IOException {
+            buf.flip();
+            while (buf.hasRemaining()) channel.write(buf);
+            buf.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    // ─── Reader ──────────────────────────────────────────────────────────
+
+    public static final class Reader implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(RECORD_BYTES * BUFFER_RECORDS)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        private boolean eof = false;
+        private int lastEvents = 0;
+
+        public Reader(File file) throws IOException {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            buf.limit(0);
+            if (!fill(HEADER_BYTES)) throw new IOException("Truncated signal file header: " + file);
+            int magic = buf.getInt(), version = buf.getInt(), recordBytes = buf.getInt();
+            buf.getInt();
+            if (magic != MAGIC || version != VERSION || recordBytes != RECORD_BYTES) {
+                channel.close();
+                throw new IOException("Not a v" + VERSION + " signal file: " + file);
+            }
+        }
+
+        /** Reads the next record into {@code s}; false at end of file (a trailing partial record is ignored). */
+        public boolean next(FaceSignal s) throws IOException {
+            if (!fill(RECORD_BYTES)) return false;
+            lastEvents = getRecord(buf, s);
+            return true;
+        }
+
+        /** Event bits stored with the record last returned by {@link #next}. */
+        public int getLastEvents() { return lastEvents; }
+
+        private boolean fill(int needed) throws IOException {
+            if (buf.remaining() >= needed) return true;
+            buf.compact();
+            while (!eof && buf.position() < needed) {
+                if (channel.read(buf) < 0) eof = true;
+            }
+            buf.flip();
+            return buf.remaining() >= needed;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.drivesafe;
+
+/**
+ * Producer of per-frame driver signals, between frame acquisition/detection
+ * and the driver state logic.
+ *
+ * Implementations: the CameraX + ML Kit source in the app, and
+ * {@link ReplayFaceSignalSource} / {@link SyntheticFaceSignalSource}, which run
+ * on any JVM so the state logic can be driven headlessly with identical input.
+ */
+public interface FaceSignalSource {
+
+    interface Listener {
+        /**
+         * Called on the source's delivery thread, once per analyzed frame, in
+         * capture order. {@code signal} is reused after this returns.
+         *
+         * @return the driver state after this frame ({@code DriverStateEngine.STATE_*}),
+         *         which adaptive sources use to pick their next frames
+         */
+        int onFaceSignal(FaceSignal signal);
+    }
+
+    /** Begins delivering signals to {@code listener}. */
+    void start(Listener listener);
+
+    /** Stops delivery; a frame already in the listener may still complete. */
+    void stop();
+
+    /** Smoothed rate of frames delivered to the listener. */
+    float getAnalysisRateHz();
+}
@@ -0,0 +1,208 @@
+package com.example.drivesafe;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+
+/**
+ * Always-on black box for per-frame driver signals.
+ *
+ * Every analyzed frame is written as one fixed-width {@link FaceSignalFile}
+ * record (plus the engine event bits) into a memory-mapped ring file, so a
+ * frame costs a handful of absolute stores into the page cache and no
+ * allocation, and the last few minutes survive a process crash.
+ *
+ * A warning or critical event opens an incident covering
+ * {@link Constants#FLIGHT_RECORDER_PRE_MS} before it and
+ * {@link Constants#FLIGHT_RECORDER_POST_MS} after the last alert (capped at
+ * {@link Constants#FLIGHT_RECORDER_MAX_INCIDENT_MS}). When the window closes its
+ * records are copied out of the ring, and the export executor writes them to a
+ * standalone signal file
+ * ({@code session<id>_<captureMs>.fsig}) that {@link ReplayFaceSignalSource}
+ * can replay. Only the newest {@link Constants#FLIGHT_RECORDER_MAX_INCIDENTS}
+ * incident files are kept.
+ *
+ * The ring outlives the process, so it still holds frames from earlier
+ * sessions, possibly from before a reboot when capture times restarted. Each
+ * recorder is one session: opening it marks the ring position where the
+ * session starts, and an incident never reaches back past that mark.
+ *
+ * Not thread-safe: record from a single thread.
+ */
+public final class FlightRecorder implements Closeable {
+
+    private static final int MAGIC = 0x46524543; // "FREC"
+    private static final int VERSION = 1;
+    // int magic, int version, int capacity, int recordBytes, long writeIndex, long sessionStartIndex
+    private static final int HEADER_BYTES = 32;
+    private static final int WRITE_INDEX_OFFSET = 16;
+    private static final int SESSION_START_OFFSET = 24;
+    private static final int RECORD_BYTES = FaceSignalFile.RECORD_BYTES;
+
+    private static final int ALERT_EVENTS = DriverStateEngine.EVENT_WARNING | DriverStateEngine.EVENT_CRITICAL;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer ring;
+    private final int capacity;
+    private final File incidentDir;
+    private final Executor exportExecutor;
+
+    private long writeIndex;   // records written since the ring file was created
+    private final long sessionStartIndex;   // first record of this session
+    private long sessionId = -1;
+
+    // ─── Open Incident ───────────────────────────────────────────────────
+    private boolean incidentOpen = false;
+    private long incidentStartIndex;
+    private long incidentStartNanos;
+    private long incidentTriggerNanos;
+    private long incidentEndNanos;
+
+    /**
+     * Maps {@code ringFile}, continuing an existing ring of the same capacity or
+     * starting a new one, and starts a session at its current write position.
+     */
+    public FlightRecorder(File ringFile, File incidentDir, int capacity, Executor exportExecutor) throws IOException {
+        this.capacity = capacity;
+        this.incidentDir = incidentDir;
+        this.exportExecutor = exportExecutor;
+        channel = FileChannel.open(ringFile.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean reuse = channel.size() == HEADER_BYTES + (long) capacity * RECORD_BYTES;
+        ring = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) capacity * RECORD_BYTES);
+        ring.order(ByteOrder.LITTLE_ENDIAN);
+        if (reuse && ring.getInt(0) == MAGIC && ring.getInt(4) == VERSION
+                && ring.getInt(8) == capacity && ring.getInt(12) == RECORD_BYTES) {
+            writeIndex = ring.getLong(WRITE_INDEX_OFFSET);
+        } else {
+            ring.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, capacity).putInt(12, RECORD_BYTES);
+            writeIndex = 0;
+            ring.putLong(WRITE_INDEX_OFFSET, 0);
+        }
+        sessionStartIndex = writeIndex;
+        ring.putLong(SESSION_START_OFFSET, sessionStartIndex);
+    }
+
+    /** Tags incidents opened from now on with the given Sessions row ID. */
+    public void setSessionId(long sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    // ─── Recording ───────────────────────────────────────────────────────
+
+    /**
+     * Appends one frame; {@code flags} are its {@code FaceSignalFile.FLAG_*} bits and
+     * {@code events} the engine event bits it raised.
+     */
+    public void record(long captureNanos, int flags, float ear, float headYaw, float headPitch,
+                       float speedKmh, int events) {
+        ring.position(offset(writeIndex));
+        FaceSignalFile.putRecord(ring, captureNanos, flags, ear, headYaw, headPitch, speedKmh, events);
+        writeIndex++;
+        ring.putLong(WRITE_INDEX_OFFSET, writeIndex);
+
+        if ((events & ALERT_EVENTS) != 0) onAlert(captureNanos);
+        if (incidentOpen && captureNanos >= incidentEndNanos) exportIncident();
+    }
+
+    private void onAlert(long captureNanos) {
+        long post = Constants.FLIGHT_RECORDER_POST_MS * 1_000_000L;
+        if (incidentOpen) {
+            long maxEnd = incidentStartNanos + Constants.FLIGHT_RECORDER_MAX_INCIDENT_MS * 1_000_000L;
+            incidentEndNanos = Math.min(Math.max(incidentEndNanos, captureNanos + post), maxEnd);
+            return;
+        }
+        incidentOpen = true;
+        incidentTriggerNanos = captureNanos;
+        incidentStartNanos = captureNanos - Constants.FLIGHT_RECORDER_PRE_MS * 1_000_000L;
+        incidentEndNanos = captureNanos + post;
+        // Frames of earlier sessions are on another timebase after a reboot, so never compare against them
+        long oldest = Math.max(sessionStartIndex, writeIndex - capacity);
+        long i = writeIndex - 1;
+        while (i > oldest && ring.getLong(offset(i - 1)) >= incidentStartNanos) i--;
+        incidentStartIndex = i;
+    }
+
+    /** Exports an open incident now (e.g. at session end) instead of waiting for its window to close. */
+    public void flush() {
+        if (incidentOpen) exportIncident();
+    }
+
+    private int offset(long index) {
+        return HEADER_BYTES + (int) (index % capacity) * RECORD_BYTES;
+    }
+
+    // ─── Export ──────────────────────────────────────────────────────────
+
+    private void exportIncident() {
+        incidentOpen = false;
+        final long from = Math.max(incidentStartIndex, Math.max(sessionStartIndex, writeIndex - capacity));
+        final long to = writeIndex;
+        final File file = new File(incidentDir, String.format(Locale.US, "session%d_%d.fsig",
+                sessionId, incidentTriggerNanos / 1_000_000L));
+        // Copied here, because the writer keeps going and may lap the range before the export runs
+        final byte[] records = new byte[(int) (to - from) * RECORD_BYTES];
+        ByteBuffer view = ring.duplicate();
+        int copied = 0;
+        for (long i = from; i < to; ) {
+            int slot = (int) (i % capacity);
+            int n = (int) Math.min(to - i, capacity - slot);
+            view.limit(HEADER_BYTES + (slot + n) * RECORD_BYTES).position(HEADER_BYTES + slot * RECORD_BYTES);
+            view.get(records, copied, n * RECORD_BYTES);
+            copied += n * RECORD_BYTES;
+            i += n;
+        }
+        exportExecutor.execute(() -> writeIncident(records, file));
+    }
+
+    private void writeIncident(byte[] records, File file) {
+        if (!incidentDir.isDirectory() && !incidentDir.mkdirs()) return;
+        try (FileChannel out = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(FaceSignalFile.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            FaceSignalFile.putHeader(header);
+            header.flip();
+            while (header.hasRemaining()) out.write(header);
+            ByteBuffer body = ByteBuffer.wrap(records);
+            while (body.hasRemaining()) out.write(body);
+        } catch (IOException e) {
+            file.delete();
+            return;
+        }
+        pruneIncidents();
+    }
+
+    private void pruneIncidents() {
+        File[] files = incidentDir.listFiles((dir, name) -> name.endsWith(".fsig"));
+        if (files == null || files.length <= Constants.FLIGHT_RECORDER_MAX_INCIDENTS) return;
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (int i = 0; i < files.length - Constants.FLIGHT_RECORDER_MAX_INCIDENTS; i++) files[i].delete();
+    }
+
+    /** Incident files recorded for one session, oldest first. */
+    public static File[] listIncidents(File incidentDir, long sessionId) {
+        String prefix = "session" + sessionId + "_";
+        File[] files = incidentDir.listFiles((dir, name) -> name.startsWith(prefix) && name.endsWith(".fsig"));
+        if (files == null) return new File[0];
+        Arrays.sort(files, (a, b) -> a.getName().compareTo(b.getName()));
+        return files;
+    }
+
+    public long getWriteIndex() { return writeIndex; }
+
+    /** Exports any open incident and syncs the ring to disk. */
+    @Override
+    public void close() throws IOException {
+        flush();
+        ring.force();
+        channel.close();
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.drivesafe;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Cheap check of whether a camera frame is usable for face detection.
+ *
+ * Reads the luma (Y) plane in place on a sparse {@link Constants#QUALITY_GRID_COLUMNS}
+ * × {@link Constants#QUALITY_GRID_ROWS} grid, a few hundred bytes per frame with no
+ * copy, and derives:
+ *  - mean luminance (too dark at night),
+ *  - the share of saturated samples (oncoming headlights, sun glare),
+ *  - contrast as the standard deviation of the samples (fog, a washed-out image),
+ *  - sharpness as the mean absolute 4-neighbour Laplacian (motion or focus blur).
+ *
+ * Detector probabilities from frames that fail are not trustworthy, so they are
+ * better not computed at all.
+ *
+ * Not thread-safe: one instance per analysis thread.
+ */
+public final class FrameQuality {
+
+    public static final int OK = 0;
+    public static final int TOO_DARK = 1;
+    public static final int GLARE = 2;
+    public static final int LOW_CONTRAST = 3;
+    public static final int BLURRED = 4;
+
+    private float meanLuma, saturatedRatio, contrast, sharpness;
+
+    /**
+     * Measures one frame's luma plane and returns {@link #OK} or the first check it failed.
+     * The buffer's position and limit are left untouched.
+     */
+    public int measure(ByteBuffer luma, int rowStride, int pixelStride, int width, int height) {
+        int cols = Constants.QUALITY_GRID_COLUMNS, rows = Constants.QUALITY_GRID_ROWS;
+        long sum = 0, sumSq = 0, laplacian = 0;
+        int saturated = 0;
+        // Cell centres, so the neighbours of every sample lie inside the frame
+        for (int r = 0; r < rows; r++) {
+            int y = (2 * r + 1) * height / (2 * rows);
+            int rowBase = y * rowStride;
+            for (int c = 0; c < cols; c++) {
+                int x = (2 * c + 1) * width / (2 * cols);
+                int i = rowBase + x * pixelStride;
+                int v = luma.get(i) & 0xFF;
+                sum += v;
+                sumSq += v * v;
+                if (v >= Constants.QUALITY_SATURATED_LUMA) saturated++;
+                int lap = 4 * v - (luma.get(i - pixelStride) & 0xFF) - (luma.get(i + pixelStride) & 0xFF)
+                        - (luma.get(i - rowStride) & 0xFF) - (luma.get(i + rowStride) & 0xFF);
+                laplacian += Math.abs(lap);
+            }
+        }
+        int n = cols * rows;
+        meanLuma = (float) sum / n;
+        saturatedRatio = (float) saturated / n;
+        contrast = (float) Math.sqrt(Math.max(0f, (float) sumSq / n - meanLuma * meanLuma));
+        sharpness = (float) laplacian / n;
+
+        if (meanLuma < Constants.QUALITY_MIN_LUMA) return TOO_DARK;
+        if (saturatedRatio > Constants.QUALITY_MAX_SATURATED_RATIO) return GLARE;
+        if (contrast < Constants.QUALITY_MIN_CONTRAST) return LOW_CONTRAST;
+        if (sharpness < Constants.QUALITY_MIN_SHARPNESS) return BLURRED;
+        return OK;
+    }
+
+    // ─── Last Measurement ────────────────────────────────────────────────
+
+    /** Mean luminance, 0–255. */
+    public float getMeanLuma() { return meanLuma; }
+
+    /** Share of samples at or above {@link Constants#QUALITY_SATURATED_LUMA}. */
+    public float getSaturatedRatio() { return saturatedRatio; }
+
+    /** Standard deviation of the sampled luminance. */
+    public float getContrast() { return contrast; }
+
+    /** Mean absolute Laplacian at the samples; low means no fine detail. */
+    public float getSharpness() { return sharpness; }
+
+    public static String verdictName(int verdict) {
+        switch (verdict) {
+            case TOO_DARK:     return "too dark";
+            case GLARE:        return "glare";
+            case LOW_CONTRAST: return "low contrast";
+            case BLURRED:      return "blurred";
+            default:           return "ok";
+        }
+    }
+}
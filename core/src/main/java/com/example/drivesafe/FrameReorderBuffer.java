@@ -0,0 +1,81 @@
+package com.example.drivesafe;
+
+/**
+ * Bounded window of frames in flight through face detection, handed back in
+ * capture order.
+ *
+ * Frames take a slot in the order they are submitted, which is capture order
+ * since the analyzer sees frames in sequence. Detections may complete in any
+ * order; a completed frame is only released once every earlier frame has
+ * completed too, so the state machine never sees time go backwards. At most
+ * {@code depth} frames are in flight: when the window is full the caller
+ * drops the frame, which is the back-pressure.
+ *
+ * A slot is only reused after its frame has been released, so slot indices
+ * can double as lanes for per-frame resources (a detector, a crop buffer)
+ * that two frames in flight must not share.
+ *
+ * Not thread-safe: call from the analysis thread only.
+ */
+public final class FrameReorderBuffer {
+
+    private final int depth;
+    private final boolean[] completed;
+    private int head = 0;   // slot of the oldest frame in flight
+    private int inFlight = 0;
+
+    // ─── Stats ───────────────────────────────────────────────────────────
+    private long outOfOrder = 0;
+    private int maxInFlight = 0;
+
+    public FrameReorderBuffer(int depth) {
+        if (depth < 1) throw new IllegalArgumentException("depth < 1");
+        this.depth = depth;
+        this.completed = new boolean[depth];
+    }
+
+    /** Forgets every frame in flight; their late completions must be ignored by the caller. */
+    public void reset() {
+        head = 0;
+        inFlight = 0;
+        outOfOrder = 0;
+        maxInFlight = 0;
+    }
+
+    public boolean isFull() { return inFlight == depth; }
+
+    /** Takes the slot for the next frame, or returns -1 if {@link #isFull()}. */
+    public int acquire() {
+        if (inFlight == depth) return -1;
+        int slot = (head + inFlight) % depth;
+        completed[slot] = false;
+        inFlight++;
+        if (inFlight > maxInFlight) maxInFlight = inFlight;
+        return slot;
+    }
+
+    /** Marks the frame in {@code slot} as done, successfully or not. */
+    public void complete(int slot) {
+        completed[slot] = true;
+        if (slot != head) outOfOrder++;
+    }
+
+    /** Releases the oldest frame if it has completed and returns its slot, else -1. */
+    public int poll() {
+        if (inFlight == 0 || !completed[head]) return -1;
+        int slot = head;
+        head = (head + 1) % depth;
+        inFlight--;
+        return slot;
+    }
+
+    public int getDepth() { return depth; }
+
+    public int getInFlight() { return inFlight; }
+
+    /** Most frames in flight at once since the last reset. */
+    public int getMaxInFlight() { return maxInFlight; }
+
+    /** Frames that completed while an earlier one was still in flight. */
+    public long getOutOfOrder() { return outOfOrder; }
+}
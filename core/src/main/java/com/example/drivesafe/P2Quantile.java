@@ -0,0 +1,85 @@
+package com.example.drivesafe;
+
+import java.util.Arrays;
+
+/**
+ * Streaming quantile estimate in constant space and time per sample
+ * (P² algorithm, Jain &amp; Chlamtac 1985): five markers track the minimum, the
+ * target quantile, the two quantiles halfway to it and the maximum, and are
+ * nudged along a piecewise-parabolic fit as samples arrive.
+ */
+public final class P2Quantile {
+
+    private final double p;
+    private final double[] q = new double[5];   // marker heights
+    private final double[] n = new double[5];   // actual marker positions
+    private final double[] np = new double[5];  // desired marker positions
+    private final double[] dn;
+    private long count;
+
+    public P2Quantile(double p) {
+        this.p = p;
+        dn = new double[]{0, p / 2, p, (1 + p) / 2, 1};
+    }
+
+    public void reset() {
+        count = 0;
+    }
+
+    public void add(double x) {
+        if (count < 5) {
+            q[(int) count++] = x;
+            if (count == 5) {
+                Arrays.sort(q);
+                for (int i = 0; i < 5; i++) n[i] = i + 1;
+                np[0] = 1;
+                np[1] = 1 + 2 * p;
+                np[2] = 1 + 4 * p;
+                np[3] = 3 + 2 * p;
+                np[4] = 5;
+            }
+            return;
+        }
+        count++;
+        int k;
+        if (x < q[0]) {
+            q[0] = x;
+            k = 0;
+        } else if (x >= q[4]) {
+            q[4] = x;
+            k = 3;
+        } else {
+            k = 0;
+            while (x >= q[k + 1]) k++;
+        }
+        for (int i = k + 1; i < 5; i++) n[i]++;
+        for (int i = 0; i < 5; i++) np[i] += dn[i];
+
+        for (int i = 1; i <= 3; i++) {
+            double d = np[i] - n[i];
+            if ((d >= 1 && n[i + 1] - n[i] > 1) || (d <= -1 && n[i - 1] - n[i] < -1)) {
+                int s = d > 0 ? 1 : -1;
+                double qp = parabolic(i, s);
+                q[i] = (q[i - 1] < qp && qp < q[i + 1]) ? qp : q[i] + s * (q[i + s] - q[i]) / (n[i + s] - n[i]);
+                n[i] += s;
+            }
+        }
+    }
+
+    private double parabolic(int i, int s) {
+        return q[i] + s / (n[i + 1] - n[i - 1])
+                * ((n[i] - n[i - 1] + s) * (q[i + 1] - q[i]) / (n[i + 1] - n[i])
+                + (n[i + 1] - n[i] - s) * (q[i] - q[i - 1]) / (n[i] - n[i - 1]));
+    }
+
+    /** Current estimate; exact for fewer than five samples, NaN for none. */
+    public double get() {
+        if (count == 0) return Double.NaN;
+        if (count >= 5) return q[2];
+        double[] sorted = Arrays.copyOf(q, (int) count);
+        Arrays.sort(sorted);
+        return sorted[(int) Math.min(count - 1, Math.round(p * (count - 1)))];
+    }
+
+    public long getCount() { return count; }
+}
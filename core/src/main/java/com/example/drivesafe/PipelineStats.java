@@ -0,0 +1,189 @@
+package com.example.drivesafe;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-session frame pipeline instrumentation: stage latency histograms,
+ * camera and analysis frame rates, and dropped/skipped frame counts.
+ *
+ * Stages are recorded as log-spaced histograms in fixed primitive arrays, so
+ * recording is a bucket search and a few atomic adds; percentiles are read
+ * from the buckets. When disabled every entry point returns after one
+ * volatile read, and callers check {@link #isEnabled()} before taking
+ * timestamps.
+ *
+ * Frames dropped by {@code STRATEGY_KEEP_ONLY_LATEST} never reach the
+ * analyzer, so they are inferred from gaps in the capture timestamps of
+ * delivered frames against the nominal frame interval (the shortest gap seen
+ * in the previous {@link Constants#PIPELINE_INTERVAL_EPOCH_FRAMES} frames,
+ * which follows exposure-driven frame-rate changes).
+ *
+ * Stage latencies may be recorded from any thread; frame accounting from the
+ * analysis thread only. Reads are safe from any thread.
+ */
+public final class PipelineStats {
+
+    public static final int STAGE_ACQUIRE = 0;  // capture -> analyzer entry
+    public static final int STAGE_DETECT = 1;   // ML Kit process()
+    public static final int STAGE_HANDLE = 2;   // result handling + state machine
+    public static final int STAGE_RENDER = 3;   // decision -> display frame
+    public static final int STAGE_TOTAL = 4;    // capture -> decision
+    public static final int STAGE_COUNT = 5;
+
+    private static final String[] STAGE_NAMES = {"acquire", "detect", "handle", "render", "total"};
+
+    // Bucket upper bounds in microseconds; the last bucket is open-ended
+    private static final long[] BOUNDS_US = {
+            500, 1_000, 2_000, 3_000, 4_000, 6_000, 8_000, 12_000, 16_000, 24_000, 32_000,
+            48_000, 64_000, 96_000, 128_000, 192_000, 256_000, 384_000, 512_000, 1_000_000,
+            Long.MAX_VALUE};
+    public static final int BUCKET_COUNT = BOUNDS_US.length;
+
+    private volatile boolean enabled = false;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(STAGE_COUNT * BUCKET_COUNT);
+    private final AtomicLongArray sumNanos = new AtomicLongArray(STAGE_COUNT);
+    private final AtomicLongArray maxNanos = new AtomicLongArray(STAGE_COUNT);
+
+    // ─── Frame Accounting (single writer: analysis thread) ───────────────
+    private volatile long deliveredFrames, skippedFrames, analyzedFrames, droppedFrames;
+    private volatile long firstCaptureNanos, lastCaptureNanos;
+    private long nominalIntervalNanos = 0;
+    private long epochMinIntervalNanos = Long.MAX_VALUE;
+    private int epochFrames = 0;
+
+    public boolean isEnabled() { return enabled; }
+
+    /** Clears everything and turns recording on or off for a new session. */
+    public void reset(boolean enabled) {
+        this.enabled = false;
+        for (int i = 0; i < buckets.length(); i++) buckets.set(i, 0);
+        for (int s = 0; s < STAGE_COUNT; s++) {
+            sumNanos.set(s, 0);
+            maxNanos.set(s, 0);
+        }
+        deliveredFrames = skippedFrames = analyzedFrames = droppedFrames = 0;
+        firstCaptureNanos = lastCaptureNanos = 0;
+        nominalIntervalNanos = 0;
+        epochMinIntervalNanos = Long.MAX_VALUE;
+        epochFrames = 0;
+        this.enabled = enabled;
+    }
+
+    // ─── Recording ───────────────────────────────────────────────────────
+
+    public void record(int stage, long nanos) {
+        if (!enabled || nanos < 0) return;
+        long us = nanos / 1_000L;
+        int lo = 0, hi = BUCKET_COUNT - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (us <= BOUNDS_US[mid]) hi = mid; else lo = mid + 1;
+        }
+        buckets.incrementAndGet(stage * BUCKET_COUNT + lo);
+        sumNanos.addAndGet(stage, nanos);
+        long max;
+        while (nanos > (max = maxNanos.get(stage)) && !maxNanos.compareAndSet(stage, max, nanos)) { }
+    }
+
+    /** Analysis thread: a frame reached the analyzer. */
+    public void onFrameDelivered(long captureNanos) {
+        if (!enabled) return;
+        long previous = lastCaptureNanos;
+        if (deliveredFrames == 0) {
+            firstCaptureNanos = captureNanos;
+        } else {
+            long gap = captureNanos - previous;
+            if (gap > 0) {
+                if (gap < epochMinIntervalNanos) epochMinIntervalNanos = gap;
+                if (nominalIntervalNanos == 0) nominalIntervalNanos = gap;
+                long missed = (gap + nominalIntervalNanos / 2) / nominalIntervalNanos - 1;
+                if (missed > 0) droppedFrames += missed;
+            }
+            if (++epochFrames >= Constants.PIPELINE_INTERVAL_EPOCH_FRAMES) {
+                nominalIntervalNanos = epochMinIntervalNanos;
+                epochMinIntervalNanos = Long.MAX_VALUE;
+                epochFrames = 0;
+            }
+        }
+        lastCaptureNanos = captureNanos;
+        deliveredFrames++;
+    }
+
+    /** Analysis thread: a delivered frame was closed without detection (rate scheduler, quality gate). */
+    public void onFrameSkipped() {
+        if (enabled) skippedFrames++;
+    }
+
+    /** Analysis thread: a delivered frame was sent to the detector. */
+    public void onFrameAnalyzed() {
+        if (enabled) analyzedFrames++;
+    }
+
+    // ─── Reading ─────────────────────────────────────────────────────────
+
+    public static String stageName(int stage) { return STAGE_NAMES[stage]; }
+
+    public long getSamples(int stage) {
+        long n = 0;
+        for (int b = 0; b < BUCKET_COUNT; b++) n += buckets.get(stage * BUCKET_COUNT + b);
+        return n;
+    }
+
+    public long getBucket(int stage, int bucket) {
+        return buckets.get(stage * BUCKET_COUNT + bucket);
+    }
+
+    public float getMeanMs(int stage) {
+        long n = getSamples(stage);
+        return n > 0 ? sumNanos.get(stage) / (n * 1_000_000f) : 0f;
+    }
+
+    public float getMaxMs(int stage) {
+        return maxNanos.get(stage) / 1_000_000f;
+    }
+
+    /** Upper bound (ms) of the bucket holding the given quantile; the open bucket reports the max. */
+    public float getPercentileMs(int stage, float quantile) {
+        long n = getSamples(stage);
+        if (n == 0) return 0f;
+        long rank = (long) Math.ceil(quantile * n);
+        long seen = 0;
+        for (int b = 0; b < BUCKET_COUNT - 1; b++) {
+            seen += buckets.get(stage * BUCKET_COUNT + b);
+            if (seen >= rank) return Math.min(BOUNDS_US[b] / 1_000f, getMaxMs(stage));
+        }
+        return getMaxMs(stage);
+    }
+
+    public long getDeliveredFrames() { return deliveredFrames; }
+    public long getSkippedFrames() { return skippedFrames; }
+    public long getAnalyzedFrames() { return analyzedFrames; }
+    public long getDroppedFrames() { return droppedFrames; }
+
+    private float elapsedSeconds() {
+        return (lastCaptureNanos - firstCaptureNanos) / 1_000_000_000f;
+    }
+
+    /** Frames produced by the camera per second: delivered plus inferred drops. */
+    public float getCameraFps() {
+        float s = elapsedSeconds();
+        return s > 0 ? (deliveredFrames + droppedFrames - 1) / s : 0f;
+    }
+
+    /** Frames actually sent to the detector per second. */
+    public float getAnalysisFps() {
+        float s = elapsedSeconds();
+        return s > 0 ? analyzedFrames / s : 0f;
+    }
+
+    /** Histogram counts of one stage as a comma-separated list, bucket order. */
+    public String bucketsCsv(int stage) {
+        StringBuilder sb = new StringBuilder();
+        for (int b = 0; b < BUCKET_COUNT; b++) {
+            if (b > 0) sb.append(',');
+            sb.append(buckets.get(stage * BUCKET_COUNT + b));
+        }
+        return sb.toString();
+    }
+}
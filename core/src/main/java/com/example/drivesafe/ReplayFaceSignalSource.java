@@ -0,0 +1,37 @@
+package com.example.drivesafe;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Executor;
+
+/**
+ * Replays a recorded {@link FaceSignalFile}, frame by frame, with the original
+ * capture timestamps.
+ */
+public final class ReplayFaceSignalSource extends SequencedFaceSignalSource {
+
+    private final File file;
+    private FaceSignalFile.Reader reader;
+
+    public ReplayFaceSignalSource(File file, Executor executor, boolean paced) {
+        super(executor, paced);
+        this.file = file;
+    }
+
+    @Override
+    boolean next(FaceSignal out) throws IOException {
+        if (reader == null) reader = new FaceSignalFile.Reader(file);
+        return reader.next(out);
+    }
+
+    @Override
+    void onFinished() {
+        if (reader == null) return;
+        try {
+            reader.close();
+        } catch (IOException ignored) {
+            // read-only; nothing to lose
+        }
+        reader = null;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.drivesafe;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Base for sources that produce a precomputed or generated sequence of
+ * signals: runs the delivery loop on the given executor, either as fast as the
+ * listener consumes (load tests, regression runs) or paced to the capture
+ * timestamps (demo / soak runs).
+ *
+ * Pass {@code Runnable::run} as the executor to deliver synchronously inside
+ * {@link #start}.
+ */
+abstract class SequencedFaceSignalSource implements FaceSignalSource {
+
+    private final Executor executor;
+    private final boolean paced;
+    private final FaceSignal signal = new FaceSignal();
+
+    private volatile boolean running = false;
+    private volatile float analysisRateHz = 0f;
+
+    SequencedFaceSignalSource(Executor executor, boolean paced) {
+        this.executor = executor;
+        this.paced = paced;
+    }
+
+    /** Fills {@code out} with the next frame; false when the sequence is exhausted. */
+    abstract boolean next(FaceSignal out) throws Exception;
+
+    /** Delivery thread, after the loop ends for any reason. */
+    void onFinished() {}
+
+    @Override
+    public void start(Listener listener) {
+        running = true;
+        executor.execute(() -> {
+            try {
+                run(listener);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                throw new IllegalStateException("Signal source failed", e);
+            } finally {
+                running = false;
+                onFinished();
+            }
+        });
+    }
+
+    private void run(Listener listener) throws Exception {
+        long firstCapture = 0, startWall = 0, lastCapture = 0;
+        boolean first = true;
+        while (running && next(signal)) {
+            long t = signal.captureNanos;
+            if (first) {
+                firstCapture = t;
+                startWall = System.nanoTime();
+                first = false;
+            } else {
+                long dt = t - lastCapture;
+                if (dt > 0) {
+                    float hz = 1e9f / dt;
+                    analysisRateHz = analysisRateHz == 0f ? hz : analysisRateHz * 0.9f + hz * 0.1f;
+                }
+            }
+            lastCapture = t;
+            if (paced) {
+                long waitNanos = (t - firstCapture) - (System.nanoTime() - startWall);
+                if (waitNanos > 0) Thread.sleep(waitNanos / 1_000_000L, (int) (waitNanos % 1_000_000L));
+            }
+            listener.onFaceSignal(signal);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    public boolean isRunning() { return running; }
+
+    @Override
+    public float getAnalysisRateHz() { return analysisRateHz; }
+}
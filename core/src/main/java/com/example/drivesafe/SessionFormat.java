@@ -0,0 +1,40 @@
+package com.example.drivesafe;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Display formatting for drive history rows.
+ */
+public final class SessionFormat {
+
+    private SessionFormat() { /* Non-instantiable */ }
+
+    /** Human-readable duration, e.g. "12 min 5 sec" */
+    public static String duration(int durationSeconds) {
+        if (durationSeconds < 60)
+            return durationSeconds + " sec";
+        int m = durationSeconds / 60;
+        int s = durationSeconds % 60;
+        if (m < 60)
+            return m + " min" + (s > 0 ? " " + s + " sec" : "");
+        int h = m / 60;
+        int rem = m % 60;
+        return h + " hr" + (rem > 0 ? " " + rem + " min" : "");
+    }
+
+    /** Human-readable date+time from a SQLite "yyyy-MM-dd HH:mm:ss" timestamp. */
+    public static String sqliteDateTime(String sqlTs) {
+        if (sqlTs == null) return "";
+        try {
+            SimpleDateFormat in  = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault());
+            SimpleDateFormat out = new SimpleDateFormat("MMM d, yyyy  h:mm a", Locale.getDefault());
+            Date d = in.parse(sqlTs);
+            return d != null ? out.format(d) : sqlTs;
+        } catch (ParseException e) {
+            return sqlTs;
+        }
+    }
+}
@@ -0,0 +1,525 @@
+package com.example.drivesafe;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Compressed columnar archive of one session's per-frame signals
+ * ({@code session<id>.sarc}), in the style of Gorilla time-series blocks.
+ *
+ * <pre>
+ * header: int magic "SARC", int version, long sessionId, int columns, int reserved
+ * block:  int count, long firstNanos, long lastNanos, int[columns] byteLengths,
+ *         then one bit-packed segment per column
+ * </pre>
+ *
+ * Timestamps are stored in microseconds as delta-of-delta; floats are
+ * XOR-ed with the previous value and only the meaningful bits are kept;
+ * flags and events store only changes. Floats are first snapped to a
+ * power-of-two grid ({@code ARCHIVE_*_FRACTION_BITS}), which zeroes the noise
+ * in the low mantissa bits so successive values XOR to a few bits.
+ *
+ * Each block is independent, so the writer appends one block every
+ * {@link Constants#ARCHIVE_BLOCK_FRAMES} frames (a crash loses at most that
+ * much), and the reader decodes only the blocks overlapping a time range and
+ * only the column segments it is asked for.
+ */
+public final class SignalArchive {
+
+    public static final int COL_TIME = 0;
+    public static final int COL_EAR = 1;
+    public static final int COL_YAW = 2;
+    public static final int COL_PITCH = 3;
+    public static final int COL_SPEED = 4;
+    public static final int COL_FLAGS = 5;   // FaceSignalFile.FLAG_* bits
+    public static final int COL_EVENTS = 6;  // DriverStateEngine.EVENT_* bits (low 16)
+    public static final int COLUMN_COUNT = 7;
+
+    public static final int ALL_COLUMNS = (1 << COLUMN_COUNT) - 1;
+
+    private static final int MAGIC = 0x53415243; // "SARC"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 24;
+    private static final int BLOCK_HEADER_BYTES = 20 + 4 * COLUMN_COUNT;
+    private static final int INT_BITS = 16;
+
+    private SignalArchive() {}
+
+    /** Archive file of one {@code Sessions} row. */
+    public static File fileFor(File dir, long sessionId) {
+        return new File(dir, String.format(Locale.US, "session%d.sarc", sessionId));
+    }
+
+    /**
+     * Deletes the oldest session archives in {@code dir} until the rest fit in
+     * {@code maxBytes}. The newest archive is always kept.
+     */
+    public static void prune(File dir, long maxBytes) {
+        File[] files = dir.listFiles((d, name) -> name.endsWith(".sarc"));
+        if (files == null) return;
+        Arrays.sort(files, (a, b) -> Long.compare(b.lastModified(), a.lastModified()));
+        long total = 0;
+        for (int i = 0; i < files.length; i++) {
+            total += files[i].length();
+            if (i > 0 && total > maxBytes) files[i].delete();
+        }
+    }
+
+    private static float quantize(float v, int fractionBits) {
+        if (Float.isNaN(v) || Float.isInfinite(v)) return v;
+        return Math.scalb((float) Math.round(Math.scalb(v, fractionBits)), -fractionBits);
+    }
+
+    // ─── Writer ──────────────────────────────────────────────────────────
+
+    /** Appends frames in capture order; not thread-safe, no per-frame allocation. */
+    public static final class Writer implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        private final BitWriter[] columns = new BitWriter[COLUMN_COUNT];
+        private final long[] prev = new long[COLUMN_COUNT];      // previous raw bits / value per column
+        private final int[] prevLead = new int[COLUMN_COUNT];
+        private final int[] prevTrail = new int[COLUMN_COUNT];
+        private long prevDelta;
+        private long firstNanos, lastNanos;
+        private int count;
+
+        public Writer(File file, long sessionId) throws IOException {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            ByteBuffer h = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            h.putInt(MAGIC).putInt(VERSION).putLong(sessionId).putInt(COLUMN_COUNT).putInt(0).flip();
+            while (h.hasRemaining()) channel.write(h);
+            // Worst case per frame: 4 + 64 bits of timestamp, 2 + 10 + 32 bits per float
+            for (int c = 0; c < COLUMN_COUNT; c++) columns[c] = new BitWriter(Constants.ARCHIVE_BLOCK_FRAMES * 9 + 16);
+        }
+
+        /** {@code flags} are {@code FaceSignalFile.FLAG_*} bits, {@code events} the engine event bits. */
+        public void append(long captureNanos, int flags, float ear, float headYaw, float headPitch,
+                           float speedKmh, int events) throws IOException {
+            long us = captureNanos / 1_000L;
+            if (count == 0) {
+                firstNanos = captureNanos;
+                columns[COL_TIME].write(us, 64);
+                prevDelta = 0;
+            } else {
+                long delta = us - prev[COL_TIME];
+                writeDeltaOfDelta(columns[COL_TIME], delta - prevDelta);
+                prevDelta = delta;
+            }
+            prev[COL_TIME] = us;
+            lastNanos = captureNanos;
+
+            writeFloat(COL_EAR, quantize(ear, Constants.ARCHIVE_EAR_FRACTION_BITS));
+            writeFloat(COL_YAW, quantize(headYaw, Constants.ARCHIVE_ANGLE_FRACTION_BITS));
+            writeFloat(COL_PITCH, quantize(headPitch, Constants.ARCHIVE_ANGLE_FRACTION_BITS));
+            writeFloat(COL_SPEED, quantize(speedKmh, Constants.ARCHIVE_SPEED_FRACTION_BITS));
+            writeInt(COL_FLAGS, flags & 0xFFFF);
+            writeInt(COL_EVENTS, events & 0xFFFF);
+
+            if (++count == Constants.ARCHIVE_BLOCK_FRAMES) flushBlock();
+        }
+
+        private static void writeDeltaOfDelta(BitWriter w, long dod) {
+            if (dod == 0) {
+                w.write(0, 1);
+            } else if (dod >= -64 && dod < 64) {
+                w.write(0b10, 2);
+                w.write(dod, 7);
+            } else if (dod >= -8192 && dod < 8192) {
+                w.write(0b110, 3);
+                w.write(dod, 14);
+            } else if (dod >= -524_288 && dod < 524_288) {
+                w.write(0b1110, 4);
+                w.write(dod, 20);
+            } else {
+                w.write(0b1111, 4);
+                w.write(dod, 64);
+            }
+        }
+
+        private void writeFloat(int c, float v) {
+            BitWriter w = columns[c];
+            int bits = Float.floatToIntBits(v);
+            if (count == 0) {
+                w.write(bits, 32);
+                prevLead[c] = -1;
+            } else {
+                int x = bits ^ (int) prev[c];
+                if (x == 0) {
+                    w.write(0, 1);
+                } else {
+                    int lead = Math.min(Integer.numberOfLeadingZeros(x), 31);
+                    int trail = Integer.numberOfTrailingZeros(x);
+                    if (prevLead[c] >= 0 && lead >= prevLead[c] && trail >= prevTrail[c]) {
+                        w.write(0b10, 2);
+                        w.write(x >>> prevTrail[c], 32 - prevLead[c] - prevTrail[c]);
+                    } else {
+                        int meaningful = 32 - lead - trail;
+                        w.write(0b11, 2);
+                        w.write(lead, 5);
+                        w.write(meaningful - 1, 5);
+                        w.write(x >>> trail, meaningful);
+                        prevLead[c] = lead;
+                        prevTrail[c] = trail;
+                    }
+                }
+            }
+            prev[c] = bits;
+        }
+
+        private void writeInt(int c, int v) {
+            BitWriter w = columns[c];
+            if (count == 0) {
+                w.write(v, INT_BITS);
+            } else if (v == prev[c]) {
+                w.write(0, 1);
+            } else {
+                w.write(1, 1);
+                w.write(v, INT_BITS);
+            }
+            prev[c] = v;
+        }
+
+        /** Writes the pending frames as one block. */
+        public void flushBlock() throws IOException {
+            if (count == 0) return;
+            header.clear();
+            header.putInt(count).putLong(firstNanos).putLong(lastNanos);
+            for (BitWriter w : columns) header.putInt(w.finish());
+            header.flip();
+            while (header.hasRemaining()) channel.write(header);
+            for (BitWriter w : columns) {
+                ByteBuffer out = w.buffer();
+                while (out.hasRemaining()) channel.write(out);
+                w.reset();
+            }
+            count = 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flushBlock();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    // ─── Reader ──────────────────────────────────────────────────────────
+
+    /**
+     * Indexes the block headers on open; {@link #cursor} then streams frames
+     * from the blocks that overlap a time range.
+     */
+    public static final class Reader implements Closeable {
+        private final FileChannel channel;
+        private final long sessionId;
+        private int blockCount;
+        private long[] blockOffset = new long[16];   // position of the first column segment
+        private long[] blockFirst = new long[16];
+        private long[] blockLast = new long[16];
+        private int[] blockFrames = new int[16];
+        private int[][] blockLengths = new int[16][];
+
+        public Reader(File file) throws IOException {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            try {
+                ByteBuffer h = ByteBuffer.allocate(BLOCK_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                h.limit(HEADER_BYTES);
+                if (!readFully(h, 0)) throw new IOException("Truncated archive header: " + file);
+                int magic = h.getInt(), version = h.getInt();
+                sessionId = h.getLong();
+                int columns = h.getInt();
+                if (magic != MAGIC || version != VERSION || columns != COLUMN_COUNT) {
+                    throw new IOException("Not a v" + VERSION + " signal archive: " + file);
+                }
+                long pos = HEADER_BYTES, size = channel.size();
+                while (pos + BLOCK_HEADER_BYTES <= size) {
+                    h.clear();
+                    readFully(h, pos);
+                    int frames = h.getInt();
+                    long first = h.getLong(), last = h.getLong();
+                    int[] lengths = new int[COLUMN_COUNT];
+                    long payload = 0;
+                    for (int c = 0; c < COLUMN_COUNT; c++) payload += lengths[c] = h.getInt();
+                    pos += BLOCK_HEADER_BYTES;
+                    if (pos + payload > size) break; // block cut short by a crash
+                    addBlock(pos, frames, first, last, lengths);
+                    pos += payload;
+                }
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        private void addBlock(long offset, int frames, long first, long last, int[] lengths) {
+            if (blockCount == blockOffset.length) {
+                int n = blockCount * 2;
+                blockOffset = Arrays.copyOf(blockOffset, n);
+                blockFirst = Arrays.copyOf(blockFirst, n);
+                blockLast = Arrays.copyOf(blockLast, n);
+                blockFrames = Arrays.copyOf(blockFrames, n);
+                blockLengths = Arrays.copyOf(blockLengths, n);
+            }
+            blockOffset[blockCount] = offset;
+            blockFirst[blockCount] = first;
+            blockLast[blockCount] = last;
+            blockFrames[blockCount] = frames;
+            blockLengths[blockCount] = lengths;
+            blockCount++;
+        }
+
+        private boolean readFully(ByteBuffer buf, long pos) throws IOException {
+            while (buf.hasRemaining()) {
+                int n = channel.read(buf, pos);
+                if (n < 0) return false;
+                pos += n;
+            }
+            buf.flip();
+            return true;
+        }
+
+        public long getSessionId() { return sessionId; }
+
+        public int getFrameCount() {
+            int n = 0;
+            for (int b = 0; b < blockCount; b++) n += blockFrames[b];
+            return n;
+        }
+
+        public long getFirstNanos() { return blockCount > 0 ? blockFirst[0] : 0; }
+
+        public long getLastNanos() { return blockCount > 0 ? blockLast[blockCount - 1] : 0; }
+
+        /**
+         * Frames with {@code fromNanos <= captureNanos <= toNanos}, decoding only
+         * the columns in {@code columnMask} ({@code 1 << COL_*}); time is always decoded.
+         * Both bounds are compared at the archive's microsecond precision, so the
+         * original capture time of a stored frame selects that frame.
+         */
+        public Cursor cursor(long fromNanos, long toNanos, int columnMask) {
+            return new Cursor(fromNanos, toNanos, columnMask | (1 << COL_TIME));
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        /** Streams decoded frames; reuses its buffers across blocks. */
+        public final class Cursor {
+            private final long fromUs, toUs;
+            private final int mask;
+            private final BitReader[] columns = new BitReader[COLUMN_COUNT];
+            private final long[] prev = new long[COLUMN_COUNT];
+            private final int[] prevLead = new int[COLUMN_COUNT];
+            private final int[] prevTrail = new int[COLUMN_COUNT];
+            private long prevDelta;
+            private int block = -1;
+            private int remaining = 0;
+            private boolean firstInBlock;
+            private boolean done = false;
+
+            Cursor(long fromNanos, long toNanos, int mask) {
+                this.fromUs = fromNanos / 1_000L;
+                this.toUs = toNanos / 1_000L;
+                this.mask = mask;
+                for (int c = 0; c < COLUMN_COUNT; c++) columns[c] = new BitReader();
+            }
+
+            /** Advances to the next frame in range; false when there is none. */
+            public boolean next() throws IOException {
+                while (!done) {
+                    if (remaining == 0 && !nextBlock()) return false;
+                    decodeFrame();
+                    long t = prev[COL_TIME];
+                    if (t > toUs) { done = true; return false; }
+                    if (t >= fromUs) return true;
+                }
+                return false;
+            }
+
+            private boolean nextBlock() throws IOException {
+                do {
+                    block++;
+                    if (block >= blockCount || blockFirst[block] / 1_000L > toUs) { done = true; return false; }
+                } while (blockLast[block] / 1_000L < fromUs);
+                long pos = blockOffset[block];
+                int[] lengths = blockLengths[block];
+                for (int c = 0; c < COLUMN_COUNT; c++) {
+                    if ((mask & (1 << c)) != 0) {
+                        ByteBuffer buf = columns[c].load(lengths[c]);
+                        if (!readFully(buf, pos)) throw new IOException("Truncated archive block");
+                    }
+                    pos += lengths[c];
+                }
+                remaining = blockFrames[block];
+                firstInBlock = true;
+                return true;
+            }
+
+            private void decodeFrame() {
+                BitReader tr = columns[COL_TIME];
+                if (firstInBlock) {
+                    prev[COL_TIME] = tr.read(64);
+                    prevDelta = 0;
+                } else {
+                    prevDelta += readDeltaOfDelta(tr);
+                    prev[COL_TIME] += prevDelta;
+                }
+                for (int c = COL_EAR; c <= COL_SPEED; c++) {
+                    if ((mask & (1 << c)) != 0) readFloat(c);
+                }
+                for (int c = COL_FLAGS; c <= COL_EVENTS; c++) {
+                    if ((mask & (1 << c)) != 0) readInt(c);
+                }
+                firstInBlock = false;
+                remaining--;
+            }
+
+            private long readDeltaOfDelta(BitReader r) {
+                if (r.read(1) == 0) return 0;
+                if (r.read(1) == 0) return r.readSigned(7);
+                if (r.read(1) == 0) return r.readSigned(14);
+                if (r.read(1) == 0) return r.readSigned(20);
+                return r.read(64);
+            }
+
+            private void readFloat(int c) {
+                BitReader r = columns[c];
+                if (firstInBlock) {
+                    prev[c] = (int) r.read(32);
+                    prevLead[c] = -1;
+                    return;
+                }
+                if (r.read(1) == 0) return;
+                int x;
+                if (r.read(1) == 0) {
+                    x = (int) r.read(32 - prevLead[c] - prevTrail[c]) << prevTrail[c];
+                } else {
+                    int lead = (int) r.read(5);
+                    int meaningful = (int) r.read(5) + 1;
+                    prevLead[c] = lead;
+                    prevTrail[c] = 32 - lead - meaningful;
+                    x = (int) r.read(meaningful) << prevTrail[c];
+                }
+                prev[c] = (int) prev[c] ^ x;
+            }
+
+            private void readInt(int c) {
+                BitReader r = columns[c];
+                if (firstInBlock || r.read(1) == 1) prev[c] = r.read(INT_BITS);
+            }
+
+            public long getCaptureNanos() { return prev[COL_TIME] * 1_000L; }
+
+            /** {@code COL_EAR}, {@code COL_YAW}, {@code COL_PITCH} or {@code COL_SPEED}. */
+            public float getFloat(int column) { return Float.intBitsToFloat((int) prev[column]); }
+
+            /** {@code COL_FLAGS} or {@code COL_EVENTS}. */
+            public int getInt(int column) { return (int) prev[column]; }
+
+            /** Copies the current frame into {@code out}; undecoded columns keep stale values. */
+            public void get(FaceSignal out) {
+                FaceSignalFile.setSignal(out, getCaptureNanos(), getInt(COL_FLAGS), getFloat(COL_EAR),
+                        getFloat(COL_YAW), getFloat(COL_PITCH), getFloat(COL_SPEED));
+            }
+        }
+    }
+
+    // ─── Bit Packing ─────────────────────────────────────────────────────
+
+    /** MSB-first bit writer over a fixed byte array. */
+    private static final class BitWriter {
+        private final byte[] bytes;
+        private final ByteBuffer view;
+        private int bytePos;
+        private long acc;
+        private int accBits;
+
+        BitWriter(int capacity) {
+            bytes = new byte[capacity];
+            view = ByteBuffer.wrap(bytes);
+        }
+
+        /** Writes the low {@code n} bits of {@code v}, 1 ≤ n ≤ 64. */
+        void write(long v, int n) {
+            if (n > 32) {
+                write(v >>> 32, n - 32);
+                n = 32;
+            }
+            acc = (acc << n) | (v & ((1L << n) - 1));
+            accBits += n;
+            while (accBits >= 8) {
+                accBits -= 8;
+                bytes[bytePos++] = (byte) (acc >>> accBits);
+            }
+        }
+
+        /** Pads the last byte; returns the segment length. */
+        int finish() {
+            if (accBits > 0) write(0, 8 - accBits);
+            return bytePos;
+        }
+
+        ByteBuffer buffer() {
+            view.limit(bytePos).position(0);
+            return view;
+        }
+
+        void reset() {
+            bytePos = 0;
+            acc = 0;
+            accBits = 0;
+        }
+    }
+
+    /** MSB-first bit reader over a growable byte array. */
+    private static final class BitReader {
+        private byte[] bytes = new byte[0];
+        private ByteBuffer view = ByteBuffer.wrap(bytes);
+        private int bytePos;
+        private long acc;
+        private int accBits;
+
+        ByteBuffer load(int length) {
+            if (bytes.length < length) {
+                bytes = new byte[Math.max(length, bytes.length * 2)];
+                view = ByteBuffer.wrap(bytes);
+            }
+            bytePos = 0;
+            acc = 0;
+            accBits = 0;
+            view.limit(length).position(0);
+            return view;
+        }
+
+        /** Reads {@code n} bits, 1 ≤ n ≤ 64; reads past the segment yield zeros. */
+        long read(int n) {
+            if (n > 32) {
+                long hi = read(n - 32);
+                return (hi << 32) | read(32);
+            }
+            while (accBits < n) {
+                acc = (acc << 8) | (bytePos < view.limit() ? bytes[bytePos++] & 0xFF : 0);
+                accBits += 8;
+            }
+            accBits -= n;
+            return (acc >>> accBits) & ((1L << n) - 1);
+        }
+
+        long readSigned(int n) {
+            return (read(n) << (64 - n)) >> (64 - n);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.drivesafe;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.Executor;
+
+/**
+ * Generates a plausible driver trace from a seed: open eyes with normal
+ * blinks, mirror glances, and — scaled by {@code drowsiness} (0–1) — slower
+ * and longer blinks, eye closures of one to several seconds, and yawns.
+ * Occasional frames have no face. The same seed always produces the same
+ * trace, so different backends and builds can be compared on identical input.
+ *
+ * An {@link EpisodeListener} receives the generated ground truth, so replay
+ * runs can be scored against it.
+ */
+public final class SyntheticFaceSignalSource extends SequencedFaceSignalSource {
+
+    /** Ground-truth episodes, reported on the delivery thread before their first frame. */
+    public interface EpisodeListener {
+        void onEpisode(int kind, long startNanos, long endNanos);
+    }
+
+    /** Eyes closed for a micro-sleep (1–5 s); ordinary and long blinks are not reported. */
+    public static final int EPISODE_EYES_CLOSED = 0;
+    /** Head turned 30–50° away for 1–3 s. */
+    public static final int EPISODE_GLANCE = 1;
+    public static final int EPISODE_YAWN = 2;
+    public static final int EPISODE_KINDS = 3;
+
+    private static final long MICRO_SLEEP_MS = 1_000L;
+
+    private static final float OPEN_EAR = 0.9f;
+    private static final float CLOSED_EAR = 0.05f;
+    private static final float NO_FACE_PROBABILITY = 0.005f;
+
+    private final long seed;
+    private final long frameNanos;
+    private final long durationNanos;
+    private final float drowsiness;
+    private final float speedKmh;
+
+    private SplittableRandom random;
+    private long t;
+
+    // Episode end times (ns); an episode is active while t < its end
+    private long closedUntil, nextBlinkAt;
+    private long glanceUntil, nextGlanceAt;
+    private float glanceYaw;
+    private long yawnUntil, nextYawnAt;
+
+    private EpisodeListener episodeListener;
+
+    /**
+     * @param fps        nominal frame rate; timestamps get ±10% jitter
+     * @param durationMs length of the trace
+     * @param drowsiness 0 = alert driver, 1 = strongly fatigued
+     * @param speedKmh   speed reported with every frame, or NaN for none
+     */
+    public SyntheticFaceSignalSource(long seed, float fps, long durationMs, float drowsiness,
+                                     float speedKmh, Executor executor, boolean paced) {
+        super(executor, paced);
+        this.seed = seed;
+        this.frameNanos = (long) (1e9 / fps);
+        this.durationNanos = durationMs * 1_000_000L;
+        this.drowsiness = Math.max(0f, Math.min(1f, drowsiness));
+        this.speedKmh = speedKmh;
+    }
+
+    /** Call before {@link #start}. */
+    public void setEpisodeListener(EpisodeListener listener) {
+        episodeListener = listener;
+    }
+
+    @Override
+    boolean next(FaceSignal out) {
+        if (random == null) {
+            random = new SplittableRandom(seed);
+            t = 0;
+            closedUntil = glanceUntil = yawnUntil = 0;
+            nextBlinkAt = gapNanos(blinkIntervalMs());
+            nextGlanceAt = gapNanos(Constants.SYNTHETIC_GLANCE_INTERVAL_MS);
+            nextYawnAt = drowsiness > 0 ? gapNanos(Constants.SYNTHETIC_YAWN_INTERVAL_MS / drowsiness) : Long.MAX_VALUE;
+        }
+        if (t >= durationNanos) return false;
+        t += frameNanos + (long) ((random.nextDouble() - 0.5) * 0.2 * frameNanos);
+
+        if (t >= nextBlinkAt && t >= closedUntil) {
+            long closureMs = closureMs();
+            closedUntil = t + closureMs * 1_000_000L;
+            if (closureMs >= MICRO_SLEEP_MS) report(EPISODE_EYES_CLOSED, t, closedUntil);
+            nextBlinkAt = closedUntil + gapNanos(blinkIntervalMs());
+        }
+        if (t >= nextGlanceAt && t >= glanceUntil) {
+            glanceYaw = (random.nextBoolean() ? 1 : -1) * (float) (30 + random.nextDouble() * 20);
+            glanceUntil = t + (long) ((1_000 + random.nextDouble() * 2_000) * 1_000_000L);
+            report(EPISODE_GLANCE, t, glanceUntil);
+            nextGlanceAt = glanceUntil + gapNanos(Constants.SYNTHETIC_GLANCE_INTERVAL_MS);
+        }
+        if (t >= nextYawnAt && t >= yawnUntil) {
+            yawnUntil = t + (long) ((3_000 + random.nextDouble() * 2_000) * 1_000_000L);
+            report(EPISODE_YAWN, t, yawnUntil);
+            nextYawnAt = yawnUntil + gapNanos(Constants.SYNTHETIC_YAWN_INTERVAL_MS / drowsiness);
+        }
+
+        boolean face = random.nextDouble() >= NO_FACE_PROBABILITY;
+        boolean closed = t < closedUntil;
+        float ear = (closed ? CLOSED_EAR : OPEN_EAR) + noise(0.03f);
+        float yaw = (t < glanceUntil ? glanceYaw : 0f) + noise(3f);
+        float pitch = -5f * drowsiness + noise(3f);
+        out.set(t, face, Math.max(0f, Math.min(1f, ear)), yaw, pitch, t < yawnUntil, speedKmh);
+        return true;
+    }
+
+    private void report(int kind, long startNanos, long endNanos) {
+        if (episodeListener != null) episodeListener.onEpisode(kind, startNanos, endNanos);
+    }
+
+    /** Mean gap between blinks; fatigue slows the blink rate down. */
+    private double blinkIntervalMs() {
+        return 3_500 * (1 + drowsiness);
+    }
+
+    /** Length of the next closure: a normal blink, a long blink, or a micro-sleep. */
+    private long closureMs() {
+        double r = random.nextDouble();
+        if (r < 0.05 * drowsiness) return (long) (1_000 + random.nextDouble() * 4_000);
+        if (r < 0.3 * drowsiness) return (long) (400 + random.nextDouble() * 400);
+        return (long) (100 + random.nextDouble() * (100 + 200 * drowsiness));
+    }
+
+    /** Roughly normal noise (sum of three uniforms) with the given standard deviation. */
+    private float noise(float sd) {
+        return (float) ((random.nextDouble() + random.nextDouble() + random.nextDouble() - 1.5) * 2 * sd);
+    }
+
+    /** Exponentially distributed gap (Poisson arrivals) with the given mean, in nanoseconds. */
+    private long gapNanos(double meanMs) {
+        return (long) (-Math.log(1 - random.nextDouble()) * meanMs * 1_000_000L);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.drivesafe;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Copies a rectangle out of a YUV_420_888 frame into a reusable NV21 buffer.
+ *
+ * The buffer is sized for the largest frame seen and reused afterwards, so
+ * steady-state cropping does not allocate. Crop origin and size must be even.
+ * The returned buffer is only valid until the next call.
+ */
+public final class YuvCropper {
+
+    private byte[] data;
+    private ByteBuffer buffer;
+
+    public ByteBuffer crop(ByteBuffer yPlane, int yRowStride, int yPixelStride,
+                           ByteBuffer uPlane, ByteBuffer vPlane, int uvRowStride, int uvPixelStride,
+                           int left, int top, int width, int height, int frameWidth, int frameHeight) {
+        int frameSize = frameWidth * frameHeight * 3 / 2;
+        if (data == null || data.length < frameSize) {
+            data = new byte[frameSize];
+            buffer = ByteBuffer.wrap(data);
+        }
+
+        int out = 0;
+        for (int row = 0; row < height; row++) {
+            int rowStart = (top + row) * yRowStride + left * yPixelStride;
+            if (yPixelStride == 1) {
+                yPlane.position(rowStart);
+                yPlane.get(data, out, width);
+                out += width;
+            } else {
+                for (int col = 0; col < width; col++) {
+                    data[out++] = yPlane.get(rowStart + col * yPixelStride);
+                }
+            }
+        }
+
+        // NV21 chroma: interleaved V then U, one pair per 2x2 block
+        int chromaLeft = left / 2, chromaTop = top / 2;
+        int chromaW = width / 2, chromaH = height / 2;
+        for (int row = 0; row < chromaH; row++) {
+            int rowStart = (chromaTop + row) * uvRowStride + chromaLeft * uvPixelStride;
+            for (int col = 0; col < chromaW; col++) {
+                int idx = rowStart + col * uvPixelStride;
+                data[out++] = vPlane.get(idx);
+                data[out++] = uPlane.get(idx);
+            }
+        }
+
+        buffer.clear();
+        buffer.limit(out);
+        return buffer;
+    }
+}
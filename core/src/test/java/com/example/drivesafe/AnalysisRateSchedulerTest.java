@@ -0,0 +1,99 @@
+package com.example.drivesafe;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class AnalysisRateSchedulerTest {
+
+    private static final long FRAME_MS = 33L;
+
+    private AnalysisRateScheduler scheduler;
+    private long now;
+
+    @Before
+    public void setUp() {
+        scheduler = new AnalysisRateScheduler();
+        scheduler.reset(Constants.EAR_THRESHOLD, Constants.WARNING_DURATION_MS);
+        now = 0;
+    }
+
+    /** Runs camera frames for {@code durationMs}, feeding back the given signals for analyzed ones. */
+    private void run(long durationMs, float ear, int state) {
+        for (long end = now + durationMs; now < end; now += FRAME_MS) {
+            if (scheduler.shouldAnalyze(now)) scheduler.onResult(now, ear, 0f, 0f, state);
+        }
+    }
+
+    @Test
+    public void backsOffWhileSteadyUpToTheCap() {
+        run(60_000L, 0.9f, DriverStateEngine.STATE_ATTENTIVE);
+        long cap = Math.min(Constants.SCHEDULER_MAX_INTERVAL_MS, Constants.WARNING_DURATION_MS / 4);
+        assertEquals(cap, scheduler.getIntervalMs());
+    }
+
+    @Test
+    public void capFollowsWarningDuration() {
+        scheduler.reset(Constants.EAR_THRESHOLD, 400L);
+        run(60_000L, 0.9f, DriverStateEngine.STATE_ATTENTIVE);
+        assertEquals(100L, scheduler.getIntervalMs());
+    }
+
+    @Test
+    public void nearThresholdSnapsToFullRate() {
+        run(60_000L, 0.9f, DriverStateEngine.STATE_ATTENTIVE);
+        assertTrue(scheduler.getIntervalMs() > 0);
+        scheduler.onResult(now, Constants.EAR_THRESHOLD + Constants.SCHEDULER_EAR_MARGIN / 2, 0f, 0f,
+                DriverStateEngine.STATE_ATTENTIVE);
+        assertEquals(0, scheduler.getIntervalMs());
+    }
+
+    @Test
+    public void calibratedThresholdMovesTheNearClosureLine() {
+        float personal = Constants.EAR_THRESHOLD + 0.2f;
+        float ear = personal + Constants.SCHEDULER_EAR_MARGIN / 2;
+        run(60_000L, ear, DriverStateEngine.STATE_ATTENTIVE);
+        assertTrue(scheduler.getIntervalMs() > 0);
+
+        scheduler.setEarThreshold(personal);
+        run(60_000L, ear, DriverStateEngine.STATE_ATTENTIVE);
+        assertEquals(0, scheduler.getIntervalMs());
+    }
+
+    @Test
+    public void faceLostSnapsToFullRate() {
+        run(60_000L, 0.9f, DriverStateEngine.STATE_ATTENTIVE);
+        scheduler.onFaceLost(now);
+        assertEquals(0, scheduler.getIntervalMs());
+    }
+
+    @Test
+    public void atRiskAnalyzesEveryFrame() {
+        run(10_000L, 0.9f, DriverStateEngine.STATE_WARNING);
+        assertEquals(0, scheduler.getIntervalMs());
+        for (int i = 0; i < 10; i++, now += FRAME_MS) assertTrue(scheduler.shouldAnalyze(now));
+    }
+
+    @Test
+    public void floorIsCappedAtTheDeadline() {
+        scheduler.setMinIntervalMs(10_000L);
+        assertEquals(Constants.WARNING_DURATION_MS / 4, scheduler.getIntervalMs());
+
+        // The floor outlives a reset and is re-capped for the new warning duration
+        scheduler.reset(Constants.EAR_THRESHOLD, 200L);
+        assertEquals(50L, scheduler.getIntervalMs());
+
+        scheduler.setMinIntervalMs(0L);
+        assertEquals(0, scheduler.getIntervalMs());
+    }
+
+    @Test
+    public void floorHoldsAtFullRate() {
+        scheduler.setMinIntervalMs(100L);
+        run(10_000L, 0.1f, DriverStateEngine.STATE_WARNING);
+        assertTrue(scheduler.shouldAnalyze(now));
+        assertFalse(scheduler.shouldAnalyze(now + 99L));
+        assertTrue(scheduler.shouldAnalyze(now + 100L));
+    }
+}
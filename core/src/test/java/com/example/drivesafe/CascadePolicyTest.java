@@ -0,0 +1,91 @@
+package com.example.drivesafe;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CascadePolicyTest {
+
+    private static final float OPEN = 0.9f;
+    private static final float NEAR_CLOSED = Constants.EAR_THRESHOLD + Constants.CASCADE_EAR_MARGIN / 2;
+
+    private CascadePolicy policy;
+
+    @Before
+    public void setUp() {
+        policy = new CascadePolicy(Constants.EAR_THRESHOLD);
+    }
+
+    /** First frame on the full tier, eyes open: settled on the fast tier at {@code t}. */
+    private void settle(long t) {
+        assertEquals(CascadePolicy.TIER_FULL, policy.chooseTier(t));
+        policy.onSignals(CascadePolicy.TIER_FULL, t, OPEN, false);
+    }
+
+    @Test
+    public void startsOnFullThenDropsToFast() {
+        settle(0L);
+        assertEquals(CascadePolicy.TIER_FAST, policy.chooseTier(33L));
+        policy.onSignals(CascadePolicy.TIER_FAST, 33L, OPEN, false);
+        assertEquals(CascadePolicy.TIER_FAST, policy.chooseTier(66L));
+    }
+
+    @Test
+    public void periodicFullCheck() {
+        settle(0L);
+        long interval = Constants.CASCADE_FULL_CHECK_INTERVAL_MS;
+        assertEquals(CascadePolicy.TIER_FAST, policy.chooseTier(interval - 1));
+        assertEquals(CascadePolicy.TIER_FULL, policy.chooseTier(interval));
+        policy.onSignals(CascadePolicy.TIER_FULL, interval, OPEN, false);
+        assertEquals(CascadePolicy.TIER_FAST, policy.chooseTier(interval + 1));
+
+        policy.setFullCheckIntervalMs(3 * interval);
+        assertEquals(CascadePolicy.TIER_FAST, policy.chooseTier(3 * interval));
+        assertEquals(CascadePolicy.TIER_FULL, policy.chooseTier(4 * interval));
+    }
+
+    @Test
+    public void closureCandidateEscalatesUntilConfirmedOpen() {
+        settle(0L);
+        policy.onSignals(CascadePolicy.TIER_FAST, 33L, NEAR_CLOSED, false);
+        assertEquals(CascadePolicy.TIER_FULL, policy.chooseTier(66L));
+
+        // Still near closed on the full tier: stay there, regardless of the periodic check
+        policy.onSignals(CascadePolicy.TIER_FULL, 66L, NEAR_CLOSED, false);
+        assertEquals(CascadePolicy.TIER_FULL, policy.chooseTier(99L));
+
+        policy.onSignals(CascadePolicy.TIER_FULL, 99L, OPEN, false);
+        assertEquals(CascadePolicy.TIER_FAST, policy.chooseTier(132L));
+    }
+
+    @Test
+    public void yawnHoldsTheFullTier() {
+        settle(0L);
+        policy.onSignals(CascadePolicy.TIER_FULL, 33L, OPEN, true);
+        assertEquals(CascadePolicy.TIER_FULL, policy.chooseTier(66L));
+        policy.onSignals(CascadePolicy.TIER_FULL, 66L, OPEN, false);
+        assertEquals(CascadePolicy.TIER_FAST, policy.chooseTier(99L));
+    }
+
+    @Test
+    public void faceLostDeescalates() {
+        settle(0L);
+        policy.onSignals(CascadePolicy.TIER_FAST, 33L, NEAR_CLOSED, false);
+        policy.onFaceLost();
+        assertEquals(CascadePolicy.TIER_FAST, policy.chooseTier(66L));
+    }
+
+    @Test
+    public void thresholdFollowsCalibration() {
+        settle(0L);
+        float personal = Constants.EAR_THRESHOLD + 0.2f;
+        float ear = personal + Constants.CASCADE_EAR_MARGIN / 2;
+        policy.onSignals(CascadePolicy.TIER_FAST, 33L, ear, false);
+        assertEquals(CascadePolicy.TIER_FAST, policy.chooseTier(66L));
+
+        policy.setEarThreshold(personal);
+        policy.onSignals(CascadePolicy.TIER_FAST, 66L, ear, false);
+        assertEquals(CascadePolicy.TIER_FULL, policy.chooseTier(99L));
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.drivesafe;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ContourEarTest {
+
+    /** Mean of sin(2πi/16) over the central lid pairs i = 2..6. */
+    private static final float MEAN_SIN_16 = 0.8524f;
+
+    /** An eye-shaped ellipse contour starting at a corner, rotated by {@code angle} and moved to (cx, cy). */
+    private static float[] ellipse(int points, float a, float b, double angle, float cx, float cy) {
+        float[] xy = new float[2 * points];
+        double cos = Math.cos(angle), sin = Math.sin(angle);
+        for (int i = 0; i < points; i++) {
+            double t = 2 * Math.PI * i / points;
+            double x = a * Math.cos(t), y = b * Math.sin(t);
+            xy[2 * i] = (float) (cx + x * cos - y * sin);
+            xy[2 * i + 1] = (float) (cy + x * sin + y * cos);
+        }
+        return xy;
+    }
+
+    @Test
+    public void ratioOfLidGapToWidth() {
+        float[] eye = ellipse(ContourEar.EYE_POINTS, 20f, 6f, 0, 100f, 80f);
+        assertEquals(MEAN_SIN_16 * 6f / 20f, ContourEar.aspectRatio(eye, ContourEar.EYE_POINTS), 1e-3f);
+    }
+
+    @Test
+    public void independentOfSizePositionAndRoll() {
+        float reference = ContourEar.aspectRatio(ellipse(16, 20f, 6f, 0, 0f, 0f), 16);
+        assertEquals(reference, ContourEar.aspectRatio(ellipse(16, 60f, 18f, 0, 300f, 200f), 16), 1e-4f);
+        assertEquals(reference, ContourEar.aspectRatio(ellipse(16, 20f, 6f, 0.4, 50f, 50f), 16), 1e-4f);
+    }
+
+    @Test
+    public void closedEyeIsZero() {
+        assertEquals(0f, ContourEar.aspectRatio(ellipse(16, 20f, 0f, 0, 10f, 10f), 16), 1e-6f);
+    }
+
+    @Test
+    public void degenerateContoursAreNaN() {
+        float[] eye = ellipse(16, 20f, 6f, 0, 0f, 0f);
+        assertTrue(Float.isNaN(ContourEar.aspectRatio(eye, 6)));
+        assertTrue(Float.isNaN(ContourEar.aspectRatio(eye, 15)));
+        assertTrue(Float.isNaN(ContourEar.aspectRatio(new float[32], 16)));
+    }
+
+    @Test
+    public void partialEyeContourIsNaN() {
+        float[] eye = ellipse(16, 20f, 6f, 0, 0f, 0f);
+        assertFalse(Float.isNaN(ContourEar.eyeAspectRatio(eye, ContourEar.EYE_POINTS)));
+        // Twelve of sixteen points would put the "far corner" on the lower lid
+        assertTrue(Float.isNaN(ContourEar.eyeAspectRatio(eye, 12)));
+        assertTrue(Float.isNaN(ContourEar.eyeAspectRatio(eye, 0)));
+    }
+
+    @Test
+    public void opennessIsClampedToTheUnitRange() {
+        assertEquals(0f, ContourEar.openness(Constants.CONTOUR_EAR_CLOSED), 1e-6f);
+        assertEquals(1f, ContourEar.openness(Constants.CONTOUR_EAR_OPEN), 1e-6f);
+        assertEquals(0.5f, ContourEar.openness((Constants.CONTOUR_EAR_CLOSED + Constants.CONTOUR_EAR_OPEN) / 2), 1e-6f);
+        assertEquals(0f, ContourEar.openness(0f), 0f);
+        assertEquals(1f, ContourEar.openness(1f), 0f);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.drivesafe;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DegradationGovernorTest {
+
+    private static final float NO_HEADROOM = Float.NaN;
+
+    @Test
+    public void targetLevelFromInputs() {
+        assertEquals(DegradationGovernor.LEVEL_NORMAL, DegradationGovernor.targetLevel(0, NO_HEADROOM, 80, false));
+        assertEquals(DegradationGovernor.LEVEL_HOT, DegradationGovernor.targetLevel(2, NO_HEADROOM, 80, false));
+        assertEquals(DegradationGovernor.LEVEL_CRITICAL, DegradationGovernor.targetLevel(6, NO_HEADROOM, -1, false));
+        assertEquals(DegradationGovernor.LEVEL_WARM, DegradationGovernor.targetLevel(0, 0.75f, 80, false));
+        assertEquals(DegradationGovernor.LEVEL_CRITICAL, DegradationGovernor.targetLevel(0, 0.97f, 80, false));
+        assertEquals(DegradationGovernor.LEVEL_WARM,
+                DegradationGovernor.targetLevel(0, NO_HEADROOM, Constants.GOVERNOR_BATTERY_LOW, false));
+        assertEquals(DegradationGovernor.LEVEL_HOT,
+                DegradationGovernor.targetLevel(0, NO_HEADROOM, Constants.GOVERNOR_BATTERY_CRITICAL, false));
+        // Battery does not count on the charger
+        assertEquals(DegradationGovernor.LEVEL_NORMAL, DegradationGovernor.targetLevel(0, NO_HEADROOM, 5, true));
+    }
+
+    @Test
+    public void stepsUpAtOnce() {
+        DegradationGovernor governor = new DegradationGovernor();
+        assertTrue(governor.update(0L, 3, NO_HEADROOM, 80, false));
+        assertEquals(DegradationGovernor.LEVEL_CRITICAL, governor.getLevel());
+        assertFalse(governor.update(1L, 3, NO_HEADROOM, 80, false));
+    }
+
+    @Test
+    public void stepsDownOneLevelPerCooldown() {
+        DegradationGovernor governor = new DegradationGovernor();
+        governor.update(0L, 3, NO_HEADROOM, 80, false);
+
+        long cooldown = Constants.GOVERNOR_COOLDOWN_MS;
+        assertFalse(governor.update(1_000L, 0, NO_HEADROOM, 80, false));
+        assertFalse(governor.update(1_000L + cooldown - 1, 0, NO_HEADROOM, 80, false));
+        assertEquals(DegradationGovernor.LEVEL_CRITICAL, governor.getLevel());
+
+        assertTrue(governor.update(1_000L + cooldown, 0, NO_HEADROOM, 80, false));
+        assertEquals(DegradationGovernor.LEVEL_HOT, governor.getLevel());
+        assertFalse(governor.update(1_000L + cooldown * 2 - 1, 0, NO_HEADROOM, 80, false));
+        assertTrue(governor.update(1_000L + cooldown * 2, 0, NO_HEADROOM, 80, false));
+        assertEquals(DegradationGovernor.LEVEL_WARM, governor.getLevel());
+        assertTrue(governor.update(1_000L + cooldown * 3, 0, NO_HEADROOM, 80, false));
+        assertEquals(DegradationGovernor.LEVEL_NORMAL, governor.getLevel());
+    }
+
+    @Test
+    public void hoveringAtTheLevelRestartsTheCooldown() {
+        DegradationGovernor governor = new DegradationGovernor();
+        governor.update(0L, 2, NO_HEADROOM, 80, false);
+        long cooldown = Constants.GOVERNOR_COOLDOWN_MS;
+
+        governor.update(1_000L, 0, NO_HEADROOM, 80, false);
+        governor.update(1_000L + cooldown / 2, 2, NO_HEADROOM, 80, false);
+        assertFalse(governor.update(1_000L + cooldown, 0, NO_HEADROOM, 80, false));
+        assertFalse(governor.update(1_000L + cooldown * 2 - 1, 0, NO_HEADROOM, 80, false));
+        assertEquals(DegradationGovernor.LEVEL_HOT, governor.getLevel());
+        assertTrue(governor.update(1_000L + cooldown * 2, 0, NO_HEADROOM, 80, false));
+    }
+
+    @Test
+    public void operatingPointPerLevel() {
+        DegradationGovernor governor = new DegradationGovernor();
+        assertTrue(governor.isPreviewAllowed());
+        assertFalse(governor.isLowResolution());
+        assertEquals(0L, governor.getMinAnalysisIntervalMs());
+
+        governor.update(0L, Constants.GOVERNOR_NO_PREVIEW_LEVEL, NO_HEADROOM, 80, false);
+        assertFalse(governor.isPreviewAllowed());
+        assertFalse(governor.isLowResolution());
+
+        governor.update(0L, Constants.GOVERNOR_LOW_RESOLUTION_LEVEL, NO_HEADROOM, 80, false);
+        assertTrue(governor.isLowResolution());
+        assertEquals(Constants.GOVERNOR_MIN_INTERVAL_MS[DegradationGovernor.LEVEL_CRITICAL],
+                governor.getMinAnalysisIntervalMs());
+
+        governor.reset();
+        assertEquals(DegradationGovernor.LEVEL_NORMAL, governor.getLevel());
+    }
+}
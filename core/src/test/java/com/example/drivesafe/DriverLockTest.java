@@ -0,0 +1,131 @@
+package com.example.drivesafe;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DriverLockTest {
+
+    private static final class Box {
+        final int id, left, top, right, bottom;
+
+        Box(int id, int left, int top, int right, int bottom) {
+            this.id = id;
+            this.left = left;
+            this.top = top;
+            this.right = right;
+            this.bottom = bottom;
+        }
+    }
+
+    private static final DriverLock.Faces<Box> ACCESS = new DriverLock.Faces<Box>() {
+        @Override public int trackingId(Box f) { return f.id; }
+        @Override public int left(Box f) { return f.left; }
+        @Override public int top(Box f) { return f.top; }
+        @Override public int right(Box f) { return f.right; }
+        @Override public int bottom(Box f) { return f.bottom; }
+    };
+
+    private DriverLock lock;
+
+    @Before
+    public void setUp() {
+        lock = new DriverLock(2);
+    }
+
+    private Box select(long nowMs, Box... faces) {
+        return lock.select(0, Arrays.asList(faces), ACCESS, 0, 0, nowMs, true);
+    }
+
+    @Test
+    public void firstFrameTakesTheLargestFace() {
+        Box driver = new Box(1, 100, 100, 300, 300);
+        Box passenger = new Box(2, 400, 120, 500, 220);
+        assertSame(driver, select(0, passenger, driver));
+        assertEquals(1, lock.getReacquired());
+    }
+
+    @Test
+    public void lockedIdWinsOverALargerFace() {
+        Box driver = new Box(1, 100, 100, 300, 300);
+        select(0, driver);
+
+        Box leaningPassenger = new Box(2, 350, 50, 650, 350);
+        Box driverNow = new Box(1, 110, 100, 310, 300);
+        assertSame(driverNow, select(33, leaningPassenger, driverNow));
+        assertEquals(1, lock.getLockedFrames());
+    }
+
+    @Test
+    public void lostIdIsHandedOffByOverlapWithTheLastBox() {
+        select(0, new Box(1, 100, 100, 300, 300), new Box(2, 400, 120, 500, 220));
+
+        // Track lost: the driver comes back under a new ID, next to a larger passenger
+        Box passenger = new Box(3, 350, 50, 650, 350);
+        Box driver = new Box(7, 110, 105, 310, 305);
+        assertSame(driver, select(500, passenger, driver));
+        assertEquals(2, lock.getReacquired());
+
+        // The new ID is now the lock
+        Box driverNext = new Box(7, 115, 105, 315, 305);
+        assertSame(driverNext, select(533, passenger, driverNext));
+        assertEquals(1, lock.getLockedFrames());
+    }
+
+    @Test
+    public void expiredMemoryFallsBackToTheLargestFace() {
+        select(0, new Box(1, 100, 100, 300, 300), new Box(2, 400, 120, 500, 220));
+
+        Box passenger = new Box(3, 350, 50, 650, 350);
+        Box driver = new Box(7, 110, 105, 310, 305);
+        assertSame(passenger, select(Constants.DRIVER_LOCK_MEMORY_MS + 1, passenger, driver));
+    }
+
+    @Test
+    public void noOverlapFallsBackToTheFirstFaceWhenNotPreferringLargest() {
+        select(0, new Box(1, 100, 100, 300, 300), new Box(2, 400, 120, 500, 220));
+
+        List<Box> faces = Arrays.asList(new Box(4, 600, 0, 640, 40), new Box(5, 350, 50, 650, 350));
+        assertSame(faces.get(0), lock.select(0, faces, ACCESS, 0, 0, 100, false));
+    }
+
+    @Test
+    public void overlapIsMeasuredInFullFrameCoordinates() {
+        select(0, new Box(1, 100, 100, 300, 300), new Box(2, 400, 120, 500, 220));
+
+        // A region-of-interest crop at (100, 100): the driver's box is crop-relative
+        Box passenger = new Box(3, 250, -50, 550, 250);
+        Box driver = new Box(8, 5, 5, 205, 205);
+        assertSame(driver, lock.select(0, Arrays.asList(passenger, driver), ACCESS, 100, 100, 200, true));
+    }
+
+    @Test
+    public void idsAreKeptPerChannel() {
+        Box driver = new Box(1, 100, 100, 300, 300);
+        select(0, driver, new Box(2, 400, 120, 500, 220));
+
+        // Another detector numbers the same driver differently; the box carries the lock across
+        Box passenger = new Box(1, 350, 50, 650, 350);
+        Box sameDriver = new Box(9, 100, 100, 300, 300);
+        assertSame(sameDriver, lock.select(1, Arrays.asList(passenger, sameDriver), ACCESS, 0, 0, 33, true));
+
+        // Channel 0 still holds ID 1
+        Box driverOnZero = new Box(1, 105, 100, 305, 300);
+        assertSame(driverOnZero, select(66, new Box(9, 350, 50, 650, 350), driverOnZero));
+    }
+
+    @Test
+    public void resetForgetsTheDriver() {
+        select(0, new Box(1, 100, 100, 300, 300));
+        lock.reset();
+
+        Box passenger = new Box(2, 350, 50, 650, 350);
+        assertSame(passenger, select(33, new Box(1, 100, 100, 300, 300), passenger));
+        assertEquals(0, lock.getLockedFrames());
+        assertEquals(1, lock.getReacquired());
+    }
+}
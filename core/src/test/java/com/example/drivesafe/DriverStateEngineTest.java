@@ -0,0 +1,196 @@
+package com.example.drivesafe;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DriverStateEngineTest {
+
+    private static final float OPEN = 0.9f;
+    private static final float CLOSED = 0.1f;
+    private static final float SPEED = 50f;
+
+    private long now;
+    private DriverStateEngine engine;
+
+    @Before
+    public void setUp() {
+        now = 1_000_000L;
+        engine = new DriverStateEngine(() -> now);
+    }
+
+    /** Feeds frames every {@code stepMs} for {@code durationMs}; returns the OR of their events. */
+    private int run(long durationMs, long stepMs, float ear, float yaw, float pitch, boolean yawning, float speed) {
+        int events = 0;
+        for (long t = 0; t < durationMs; t += stepMs) {
+            events |= engine.onFrame(ear, yaw, pitch, yawning, speed);
+            now += stepMs;
+        }
+        return events;
+    }
+
+    private int frame(float ear) {
+        return engine.onFrame(ear, 0f, 0f, false, SPEED);
+    }
+
+    @Test
+    public void openEyesAreAttentive() {
+        int events = frame(OPEN);
+        assertEquals(DriverStateEngine.STATE_ATTENTIVE, engine.getState());
+        assertTrue((events & DriverStateEngine.EVENT_STATE_CHANGED) != 0);
+        assertEquals(0, frame(OPEN));
+    }
+
+    @Test
+    public void closureEscalatesToWarningThenCritical() {
+        frame(OPEN);
+        int events = frame(CLOSED);
+        assertEquals(DriverStateEngine.STATE_ATTENTIVE, engine.getState());
+
+        now += Constants.WARNING_DURATION_MS - 1;
+        events = frame(CLOSED);
+        assertEquals(DriverStateEngine.STATE_ATTENTIVE, engine.getState());
+        assertEquals(0, events & DriverStateEngine.EVENT_WARNING);
+
+        now += 1;
+        events = frame(CLOSED);
+        assertEquals(DriverStateEngine.STATE_WARNING, engine.getState());
+        assertTrue((events & DriverStateEngine.EVENT_WARNING) != 0);
+        assertEquals(1, engine.getWarningCount());
+
+        now = 1_000_000L + Constants.CRITICAL_DURATION_MS - 1;
+        events = frame(CLOSED);
+        assertEquals(DriverStateEngine.STATE_WARNING, engine.getState());
+        assertEquals(0, events & (DriverStateEngine.EVENT_WARNING | DriverStateEngine.EVENT_CRITICAL));
+
+        now += 1;
+        events = frame(CLOSED);
+        assertEquals(DriverStateEngine.STATE_CRITICAL, engine.getState());
+        assertTrue((events & DriverStateEngine.EVENT_CRITICAL) != 0);
+        assertEquals(1, engine.getCriticalCount());
+    }
+
+    @Test
+    public void criticalFiresOncePerEpisodeAndBlinkRearms() {
+        frame(OPEN);
+        int critical = 0;
+        for (int i = 0; i < 3; i++) {
+            int events = run(Constants.CRITICAL_DURATION_MS + 5_000L, 100L, CLOSED, 0f, 0f, false, SPEED);
+            if ((events & DriverStateEngine.EVENT_CRITICAL) != 0) critical++;
+        }
+        // Eyes never reopened: one episode
+        assertEquals(1, critical);
+        assertEquals(1, engine.getCriticalCount());
+
+        int events = frame(OPEN);
+        assertTrue((events & DriverStateEngine.EVENT_BLINK) != 0);
+        assertEquals(DriverStateEngine.STATE_ATTENTIVE, engine.getState());
+
+        events = run(Constants.CRITICAL_DURATION_MS + 100L, 100L, CLOSED, 0f, 0f, false, SPEED);
+        assertTrue((events & DriverStateEngine.EVENT_CRITICAL) != 0);
+        assertEquals(2, engine.getCriticalCount());
+        assertEquals(2, engine.getWarningCount());
+    }
+
+    @Test
+    public void headTurnEscalatesToDistraction() {
+        float yaw = Constants.HEAD_TURN_THRESHOLD + 5f;
+        int events = run(Constants.DISTRACTION_DURATION_MS, 100L, OPEN, yaw, 0f, false, SPEED);
+        assertEquals(0, events & DriverStateEngine.EVENT_DISTRACTION);
+        assertNotEquals(DriverStateEngine.STATE_DISTRACTED, engine.getState());
+
+        events = engine.onFrame(OPEN, yaw, 0f, false, SPEED);
+        assertTrue((events & DriverStateEngine.EVENT_DISTRACTION) != 0);
+        assertEquals(DriverStateEngine.STATE_DISTRACTED, engine.getState());
+
+        // Still looking away: no second alert
+        events = run(5_000L, 100L, OPEN, yaw, 0f, false, SPEED);
+        assertEquals(0, events & DriverStateEngine.EVENT_DISTRACTION);
+        assertEquals(1, engine.getTotalDistractions());
+
+        frame(OPEN);
+        assertEquals(DriverStateEngine.STATE_ATTENTIVE, engine.getState());
+    }
+
+    @Test
+    public void pausedBelowSpeedGate() {
+        engine.setMinSpeedGating(true, Constants.DEFAULT_MIN_SPEED_KMH);
+        int events = run(Constants.CRITICAL_DURATION_MS * 2, 100L, CLOSED, 0f, 0f, false,
+                Constants.DEFAULT_MIN_SPEED_KMH - 1f);
+        assertEquals(DriverStateEngine.STATE_PAUSED, engine.getState());
+        assertEquals(0, events & (DriverStateEngine.EVENT_WARNING | DriverStateEngine.EVENT_CRITICAL));
+
+        // Closure timing starts over once moving again
+        assertEquals(0, frame(CLOSED) & DriverStateEngine.EVENT_WARNING);
+        now += Constants.WARNING_DURATION_MS;
+        assertTrue((frame(CLOSED) & DriverStateEngine.EVENT_WARNING) != 0);
+        assertEquals(DriverStateEngine.STATE_WARNING, engine.getState());
+    }
+
+    @Test
+    public void lowVisibilityStopsClosureTiming() {
+        frame(OPEN);
+        frame(CLOSED);
+        now += Constants.WARNING_DURATION_MS / 2;
+
+        int events = engine.onLowVisibility();
+        assertEquals(DriverStateEngine.STATE_LOW_VISIBILITY, engine.getState());
+        assertEquals(DriverStateEngine.EVENT_STATE_CHANGED, events);
+        now += Constants.CRITICAL_DURATION_MS;
+        assertEquals(0, engine.onLowVisibility());
+
+        // The unseen stretch does not count towards the closure
+        events = frame(CLOSED);
+        assertEquals(0, events & (DriverStateEngine.EVENT_WARNING | DriverStateEngine.EVENT_CRITICAL));
+        assertEquals(0, engine.getWarningCount());
+        assertEquals(0, engine.getCriticalCount());
+    }
+
+    @Test
+    public void lowVisibilityRearmsAlerts() {
+        frame(OPEN);
+        int events = run(Constants.CRITICAL_DURATION_MS + 100L, 100L, CLOSED, 0f, 0f, false, SPEED);
+        assertTrue((events & DriverStateEngine.EVENT_WARNING) != 0);
+        assertTrue((events & DriverStateEngine.EVENT_CRITICAL) != 0);
+
+        engine.onLowVisibility();
+        now += 1_000L;
+        frame(OPEN);
+
+        events = run(Constants.CRITICAL_DURATION_MS + 100L, 100L, CLOSED, 0f, 0f, false, SPEED);
+        assertTrue((events & DriverStateEngine.EVENT_WARNING) != 0);
+        assertTrue((events & DriverStateEngine.EVENT_CRITICAL) != 0);
+        assertEquals(2, engine.getWarningCount());
+        assertEquals(2, engine.getCriticalCount());
+
+        float yaw = Constants.HEAD_TURN_THRESHOLD + 5f;
+        events = run(Constants.DISTRACTION_DURATION_MS + 100L, 100L, OPEN, yaw, 0f, false, SPEED);
+        assertTrue((events & DriverStateEngine.EVENT_DISTRACTION) != 0);
+        engine.onLowVisibility();
+        events = run(Constants.DISTRACTION_DURATION_MS + 100L, 100L, OPEN, yaw, 0f, false, SPEED);
+        assertTrue((events & DriverStateEngine.EVENT_DISTRACTION) != 0);
+        assertEquals(2, engine.getTotalDistractions());
+    }
+
+    @Test
+    public void yawnFiresOncePerYawn() {
+        int events = run(3_000L, 100L, OPEN, 0f, 0f, true, SPEED);
+        assertEquals(DriverStateEngine.STATE_YAWNING, engine.getState());
+        assertTrue((events & DriverStateEngine.EVENT_YAWN) != 0);
+        assertEquals(1, engine.getTotalYawns());
+
+        frame(OPEN);
+        engine.onFrame(OPEN, 0f, 0f, true, SPEED);
+        assertEquals(2, engine.getTotalYawns());
+    }
+
+    @Test
+    public void resetClearsSession() {
+        run(Constants.CRITICAL_DURATION_MS + 100L, 100L, CLOSED, 0f, 0f, false, SPEED);
+        engine.reset();
+        assertEquals(DriverStateEngine.STATE_IDLE, engine.getState());
+        assertEquals(0, engine.getCriticalCount());
+        assertEquals(0, engine.getWarningCount());
+    }
+}
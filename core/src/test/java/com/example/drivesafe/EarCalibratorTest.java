@@ -0,0 +1,76 @@
+package com.example.drivesafe;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class EarCalibratorTest {
+
+    private static final float BASE = Constants.EAR_THRESHOLD;
+    private static final float NOMINAL = Constants.CALIBRATION_NOMINAL_OPEN_EAR;
+
+    @Test
+    public void nominalEyesKeepTheBaseThreshold() {
+        assertEquals(BASE, EarCalibrator.deriveThreshold(BASE, NOMINAL, 0f), 1e-6f);
+    }
+
+    @Test
+    public void scalesWithOpenEyeLevel() {
+        assertEquals(BASE * 0.5f, EarCalibrator.deriveThreshold(BASE, NOMINAL * 0.5f, 0f), 1e-6f);
+    }
+
+    @Test
+    public void staysClearOfOpenEyeNoise() {
+        float open = 0.6f, sd = 0.15f;
+        float t = EarCalibrator.deriveThreshold(BASE, open, sd);
+        assertEquals(open - Constants.CALIBRATION_SIGMA * sd, t, 1e-6f);
+        assertTrue(t < BASE * open / NOMINAL);
+    }
+
+    @Test
+    public void clampedToLimits() {
+        assertEquals(Constants.CALIBRATION_MIN_THRESHOLD, EarCalibrator.deriveThreshold(BASE, 0.3f, 0.2f), 0f);
+        assertEquals(Constants.CALIBRATION_MAX_THRESHOLD, EarCalibrator.deriveThreshold(0.9f, 1f, 0f), 0f);
+    }
+
+    @Test
+    public void calibratesAfterTheWindow() {
+        EarCalibrator calibrator = new EarCalibrator();
+        calibrator.start(BASE, Float.NaN, Float.NaN);
+        assertEquals(BASE, calibrator.getThreshold(), 0f);
+
+        long step = 50L;
+        boolean changed = false;
+        long t = 0;
+        for (; t < Constants.CALIBRATION_DURATION_MS; t += step) {
+            changed |= calibrator.onFrame(t, 0.45f + (t % 200 == 0 ? 0.01f : -0.01f), 0f, 0f, false);
+        }
+        assertFalse(changed);
+        assertFalse(calibrator.isCalibrated());
+
+        assertTrue(calibrator.onFrame(t, 0.45f, 0f, 0f, false));
+        assertTrue(calibrator.isCalibrated());
+        assertEquals(0.45f, calibrator.getOpenEar(), 0.011f);
+        assertEquals(EarCalibrator.deriveThreshold(BASE, calibrator.getOpenEar(), calibrator.getOpenEarSd()),
+                calibrator.getThreshold(), 0f);
+    }
+
+    @Test
+    public void ignoresFramesAwayFromTheRoad() {
+        EarCalibrator calibrator = new EarCalibrator();
+        calibrator.start(BASE, Float.NaN, Float.NaN);
+        for (long t = 0; t < Constants.CALIBRATION_DURATION_MS * 2; t += 50L) {
+            assertFalse(calibrator.onFrame(t, 0.45f, Constants.HEAD_TURN_THRESHOLD + 1f, 0f, false));
+            assertFalse(calibrator.onFrame(t, 0.45f, 0f, 0f, true));
+        }
+        assertFalse(calibrator.isCalibrated());
+    }
+
+    @Test
+    public void storedBaselineAppliesFromTheStart() {
+        EarCalibrator calibrator = new EarCalibrator();
+        calibrator.start(BASE, 0.45f, 0.02f);
+        assertEquals(EarCalibrator.deriveThreshold(BASE, 0.45f, 0.02f), calibrator.getThreshold(), 0f);
+        assertFalse(calibrator.isCalibrated());
+    }
+}
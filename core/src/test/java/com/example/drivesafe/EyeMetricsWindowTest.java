@@ -0,0 +1,117 @@
+package com.example.drivesafe;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class EyeMetricsWindowTest {
+
+    private static final long WINDOW = Constants.EYE_METRICS_WINDOW_MS;
+
+    /** Samples every {@code stepMs} from {@code fromMs}, closed for the first {@code closedOf} of every 4 steps. */
+    private static long feed(EyeMetricsWindow w, long fromMs, long durationMs, long stepMs, int closedOf) {
+        long t = fromMs;
+        for (int i = 0; t < fromMs + durationMs; i++, t += stepMs) w.onSample(t, i % 4 < closedOf);
+        return t;
+    }
+
+    @Test
+    public void perclosIsTheClosedShareOfObservedTime() {
+        EyeMetricsWindow w = new EyeMetricsWindow(WINDOW);
+        feed(w, 0L, 30_000L, 50L, 1);
+        assertTrue(w.isWarmedUp());
+        assertEquals(0.25f, w.getPerclos(), 0.01f);
+        assertEquals(0.25f, w.getSessionPerclos(), 0.01f);
+    }
+
+    @Test
+    public void notWarmedUpBeforeMinimumCoverage() {
+        EyeMetricsWindow w = new EyeMetricsWindow(WINDOW);
+        feed(w, 0L, Constants.EYE_METRICS_MIN_COVERAGE_MS - 100L, 50L, 0);
+        assertFalse(w.isWarmedUp());
+        w.onBlink(1_000L, 150L);
+        assertEquals(0f, w.getBlinksPerMinute(), 0f);
+    }
+
+    @Test
+    public void longGapsAreNotObservedTime() {
+        EyeMetricsWindow w = new EyeMetricsWindow(WINDOW);
+        long t = feed(w, 0L, 5_000L, 50L, 0);
+        // Eyes closed across a pause: the gap must not count as closed time
+        w.onSample(t, true);
+        t += Constants.EYE_METRICS_MAX_GAP_MS + 1_000L;
+        feed(w, t, 5_000L, 50L, 0);
+        assertEquals(0f, w.getPerclos(), 0.02f);
+        assertFalse(w.isWarmedUp());
+    }
+
+    @Test
+    public void oldSamplesExpire() {
+        EyeMetricsWindow w = new EyeMetricsWindow(WINDOW);
+        long t = feed(w, 0L, WINDOW, 50L, 4);
+        assertEquals(1f, w.getPerclos(), 0.01f);
+        feed(w, t, WINDOW + 1_000L, 50L, 0);
+        assertEquals(0f, w.getPerclos(), 0.01f);
+        // The closed minute still counts for the session
+        assertEquals(0.5f, w.getSessionPerclos(), 0.02f);
+        assertEquals(1f, w.getPeakPerclos(), 0.01f);
+    }
+
+    @Test
+    public void sampleRingWrapsAtHighFrameRates() {
+        EyeMetricsWindow w = new EyeMetricsWindow(WINDOW);
+        // 100 fps is more samples per window than the ring holds; the sums must stay consistent
+        long t = feed(w, 0L, 5 * WINDOW, 10L, 1);
+        assertEquals(0.25f, w.getPerclos(), 0.01f);
+        t = feed(w, t, WINDOW, 10L, 2);
+        assertEquals(0.5f, w.getPerclos(), 0.01f);
+        feed(w, t, 2 * WINDOW, 10L, 0);
+        assertEquals(0f, w.getPerclos(), 0f);
+    }
+
+    @Test
+    public void blinkRingWrapsAndExpires() {
+        EyeMetricsWindow w = new EyeMetricsWindow(WINDOW);
+        long t = 0;
+        for (int i = 0; i < 3_000; i++, t += 100L) {
+            w.onSample(t, false);
+            w.onBlink(t, i % 4 == 0 ? Constants.LONG_BLINK_MS : 100L);
+        }
+        float expectedMean = (Constants.LONG_BLINK_MS + 3 * 100f) / 4;
+        assertEquals(expectedMean, w.getMeanBlinkMs(), 1f);
+        assertTrue(w.getLongBlinks() > 0);
+        assertEquals(750, w.getSessionLongBlinks());
+
+        // A minute later every blink has left the window
+        feed(w, t, WINDOW + 1_000L, 50L, 0);
+        assertEquals(0, w.getLongBlinks());
+        assertEquals(0f, w.getMeanBlinkMs(), 0f);
+        assertEquals(0f, w.getBlinksPerMinute(), 0f);
+        assertEquals(expectedMean, w.getSessionMeanBlinkMs(), 1f);
+    }
+
+    @Test
+    public void blinksPerObservedMinute() {
+        EyeMetricsWindow w = new EyeMetricsWindow(WINDOW);
+        long t = 0;
+        for (int i = 0; t < 30_000L; i++, t += 50L) {
+            w.onSample(t, false);
+            if (i % 60 == 59) w.onBlink(t, 150L);   // every 3 s
+        }
+        assertEquals(20f, w.getBlinksPerMinute(), 0.5f);
+    }
+
+    @Test
+    public void resetClearsEverything() {
+        EyeMetricsWindow w = new EyeMetricsWindow(WINDOW);
+        feed(w, 0L, 20_000L, 50L, 2);
+        w.onBlink(20_000L, 600L);
+        w.reset();
+        assertEquals(0f, w.getPerclos(), 0f);
+        assertEquals(0f, w.getSessionPerclos(), 0f);
+        assertEquals(0f, w.getPeakPerclos(), 0f);
+        assertEquals(0, w.getLongBlinks());
+        assertEquals(0, w.getSessionLongBlinks());
+        assertFalse(w.isWarmedUp());
+    }
+}
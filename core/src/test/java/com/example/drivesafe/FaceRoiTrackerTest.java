@@ -0,0 +1,109 @@
+package com.example.drivesafe;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FaceRoiTrackerTest {
+
+    private static final int W = 640;
+    private static final int H = 480;
+
+    @Test
+    public void fullFrameUntilAFaceIsFound() {
+        FaceRoiTracker tracker = new FaceRoiTracker();
+        assertFalse(tracker.prepare(W, H, 0));
+        tracker.onFaceFound(300, 200, 400, 300, false);
+        assertTrue(tracker.prepare(W, H, 0));
+        tracker.onFaceLost();
+        assertFalse(tracker.prepare(W, H, 0));
+    }
+
+    @Test
+    public void cropAddsMarginAroundTheFace() {
+        FaceRoiTracker tracker = new FaceRoiTracker();
+        tracker.onFaceFound(300, 200, 400, 300, false);
+        assertTrue(tracker.prepare(W, H, 0));
+        assertEquals(250, tracker.getCropLeft());
+        assertEquals(150, tracker.getCropTop());
+        assertEquals(200, tracker.getCropWidth());
+        assertEquals(200, tracker.getCropHeight());
+        assertEquals(250, tracker.getOffsetX());
+        assertEquals(150, tracker.getOffsetY());
+    }
+
+    @Test
+    public void cropIsClampedAtTheFrameEdges() {
+        FaceRoiTracker tracker = new FaceRoiTracker();
+        tracker.onFaceFound(0, 0, 100, 100, false);
+        assertTrue(tracker.prepare(W, H, 0));
+        assertEquals(0, tracker.getCropLeft());
+        assertEquals(0, tracker.getCropTop());
+        assertEquals(150, tracker.getCropWidth());
+        assertEquals(150, tracker.getCropHeight());
+
+        // Odd face coordinates in the far corner: origin rounds down to even, the far edge stops at the frame
+        tracker.onFaceFound(581, 401, W - 1, H - 1, false);
+        assertTrue(tracker.prepare(W, H, 0));
+        assertEquals(552, tracker.getCropLeft());
+        assertEquals(362, tracker.getCropTop());
+        assertEquals(W, tracker.getCropLeft() + tracker.getCropWidth());
+        assertEquals(H, tracker.getCropTop() + tracker.getCropHeight());
+    }
+
+    @Test
+    public void cropStaysEvenAndInsideForEveryRotation() {
+        int[][] faces = {{300, 200, 400, 300}, {0, 0, 90, 90}, {383, 551, 479, 639}, {1, 3, 77, 101}};
+        for (int rotation = 0; rotation < 360; rotation += 90) {
+            boolean swapped = rotation == 90 || rotation == 270;
+            int uprightW = swapped ? H : W, uprightH = swapped ? W : H;
+            for (int[] f : faces) {
+                if (f[2] > uprightW || f[3] > uprightH) continue;
+                FaceRoiTracker tracker = new FaceRoiTracker();
+                tracker.onFaceFound(f[0], f[1], f[2], f[3], false);
+                assertTrue(tracker.prepare(W, H, rotation));
+                int left = tracker.getCropLeft(), top = tracker.getCropTop();
+                int cw = tracker.getCropWidth(), ch = tracker.getCropHeight();
+                assertEquals(0, left & 1);
+                assertEquals(0, top & 1);
+                assertEquals(0, cw & 1);
+                assertEquals(0, ch & 1);
+                assertTrue(left >= 0 && top >= 0 && left + cw <= W && top + ch <= H);
+
+                // The crop, turned upright and placed at the offset, holds the whole face
+                int uw = swapped ? ch : cw, uh = swapped ? cw : ch;
+                int ox = tracker.getOffsetX(), oy = tracker.getOffsetY();
+                String where = "rotation " + rotation + ", face " + f[0] + "," + f[1];
+                assertTrue(where, ox <= f[0] && oy <= f[1]);
+                assertTrue(where, ox + uw >= f[2] && oy + uh >= f[3]);
+            }
+        }
+    }
+
+    @Test
+    public void detectionsInTheCropAreShiftedToTheFrame() {
+        FaceRoiTracker tracker = new FaceRoiTracker();
+        tracker.onFaceFound(300, 200, 400, 300, false);
+        assertTrue(tracker.prepare(W, H, 0));
+        tracker.onFaceFound(60, 40, 160, 140, true);
+        assertTrue(tracker.prepare(W, H, 0));
+        assertEquals(310 - 50, tracker.getCropLeft());
+        assertEquals(190 - 50, tracker.getCropTop());
+    }
+
+    @Test
+    public void nearFullFrameCropFallsBackToAFullScan() {
+        FaceRoiTracker tracker = new FaceRoiTracker();
+        tracker.onFaceFound(100, 50, 540, 430, false);
+        assertFalse(tracker.prepare(W, H, 0));
+    }
+
+    @Test
+    public void faceOutsideTheFrameIsDropped() {
+        FaceRoiTracker tracker = new FaceRoiTracker();
+        tracker.onFaceFound(W + 100, 0, W + 200, 100, false);
+        assertFalse(tracker.prepare(W, H, 0));
+        // Forgotten, not retried
+        assertFalse(tracker.prepare(2 * W, H, 0));
+    }
+}
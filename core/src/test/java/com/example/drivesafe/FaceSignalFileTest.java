@@ -0,0 +1,84 @@
+package com.example.drivesafe;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.*;
+
+public class FaceSignalFileTest {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private static void fill(FaceSignal s, int i) {
+        s.set(1_000_000_000L + i * 33_333_333L, i % 7 != 0, 0.01f * (i % 50), i * 0.5f - 10f,
+                -i * 0.25f, i % 11 == 0, i % 13 == 0 ? Float.NaN : i * 0.1f);
+        s.lowVisibility = i % 7 == 0 && i % 2 == 1;
+    }
+
+    @Test
+    public void roundTrip() throws IOException {
+        File file = tmp.newFile("trace.fsig");
+        int frames = 5000;  // more than one buffer's worth
+        FaceSignal s = new FaceSignal();
+        try (FaceSignalFile.Writer w = new FaceSignalFile.Writer(file)) {
+            for (int i = 0; i < frames; i++) {
+                fill(s, i);
+                w.append(s);
+            }
+        }
+        assertEquals(FaceSignalFile.HEADER_BYTES + (long) frames * FaceSignalFile.RECORD_BYTES, file.length());
+
+        FaceSignal expected = new FaceSignal(), read = new FaceSignal();
+        try (FaceSignalFile.Reader r = new FaceSignalFile.Reader(file)) {
+            for (int i = 0; i < frames; i++) {
+                assertTrue(r.next(read));
+                fill(expected, i);
+                assertEquals(expected.captureNanos, read.captureNanos);
+                assertEquals(expected.faceFound, read.faceFound);
+                assertEquals(expected.ear, read.ear, 0f);
+                assertEquals(expected.headYaw, read.headYaw, 0f);
+                assertEquals(expected.headPitch, read.headPitch, 0f);
+                assertEquals(expected.yawning, read.yawning);
+                assertEquals(expected.lowVisibility, read.lowVisibility);
+                assertEquals(expected.speedKmh, read.speedKmh, 0f);
+                assertEquals(0, r.getLastEvents());
+            }
+            assertFalse(r.next(read));
+        }
+    }
+
+    @Test
+    public void trailingPartialRecordIsIgnored() throws IOException {
+        File file = tmp.newFile("cut.fsig");
+        FaceSignal s = new FaceSignal();
+        try (FaceSignalFile.Writer w = new FaceSignalFile.Writer(file)) {
+            for (int i = 0; i < 3; i++) {
+                fill(s, i);
+                w.append(s);
+            }
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(file.length() - FaceSignalFile.RECORD_BYTES / 2);
+        }
+        int n = 0;
+        try (FaceSignalFile.Reader r = new FaceSignalFile.Reader(file)) {
+            while (r.next(s)) n++;
+        }
+        assertEquals(2, n);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsForeignFile() throws IOException {
+        File file = tmp.newFile("other.bin");
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.write(new byte[FaceSignalFile.HEADER_BYTES]);
+        }
+        new FaceSignalFile.Reader(file).close();
+    }
+}
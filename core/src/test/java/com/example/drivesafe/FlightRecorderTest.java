@@ -0,0 +1,107 @@
+package com.example.drivesafe;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class FlightRecorderTest {
+
+    private static final int CAPACITY = 1024;
+    private static final long FRAME_NANOS = 100_000_000L;
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private File ringFile() { return new File(tmp.getRoot(), Constants.FLIGHT_RECORDER_RING_FILE); }
+
+    private File incidentDir() { return new File(tmp.getRoot(), Constants.FLIGHT_RECORDER_INCIDENT_DIR); }
+
+    private static void record(FlightRecorder recorder, long nanos, int events) {
+        recorder.record(nanos, FaceSignalFile.FLAG_FACE, 0.3f, 0f, 0f, 50f, events);
+    }
+
+    /** Reads an incident file's capture times. */
+    private static long[] readTimes(File file) throws IOException {
+        long[] times = new long[CAPACITY];
+        int n = 0;
+        FaceSignal s = new FaceSignal();
+        try (FaceSignalFile.Reader r = new FaceSignalFile.Reader(file)) {
+            while (r.next(s)) times[n++] = s.captureNanos;
+        }
+        return Arrays.copyOf(times, n);
+    }
+
+    @Test
+    public void incidentCoversPreAndPostWindow() throws IOException {
+        long preFrames = Constants.FLIGHT_RECORDER_PRE_MS * 1_000_000L / FRAME_NANOS;
+        try (FlightRecorder recorder = new FlightRecorder(ringFile(), incidentDir(), CAPACITY, Runnable::run)) {
+            recorder.setSessionId(1L);
+            long t = 0;
+            for (int i = 0; i < 400; i++, t += FRAME_NANOS) record(recorder, t, 0);
+            long alertAt = t;
+            record(recorder, alertAt, DriverStateEngine.EVENT_WARNING);
+            t += FRAME_NANOS;
+            for (int i = 0; i < 200; i++, t += FRAME_NANOS) record(recorder, t, 0);
+
+            File[] incidents = FlightRecorder.listIncidents(incidentDir(), 1L);
+            assertEquals(1, incidents.length);
+            long[] times = readTimes(incidents[0]);
+            assertEquals(alertAt - preFrames * FRAME_NANOS, times[0]);
+            assertEquals(alertAt + Constants.FLIGHT_RECORDER_POST_MS * 1_000_000L, times[times.length - 1]);
+        }
+    }
+
+    @Test
+    public void exportIsUnaffectedByLaterRecords() throws IOException {
+        List<Runnable> pending = new ArrayList<>();
+        try (FlightRecorder recorder = new FlightRecorder(ringFile(), incidentDir(), CAPACITY, pending::add)) {
+            recorder.setSessionId(1L);
+            long t = 0;
+            for (int i = 0; i < 10; i++, t += FRAME_NANOS) record(recorder, t, 0);
+            record(recorder, t, DriverStateEngine.EVENT_WARNING);
+            recorder.flush();
+            assertEquals(1, pending.size());
+
+            // The writer laps the ring before the export thread gets to run
+            for (int i = 0; i < CAPACITY; i++) record(recorder, -1L, 0);
+            pending.get(0).run();
+
+            long[] times = readTimes(FlightRecorder.listIncidents(incidentDir(), 1L)[0]);
+            assertEquals(11, times.length);
+            for (int i = 0; i < times.length; i++) assertEquals(i * FRAME_NANOS, times[i]);
+        }
+    }
+
+    @Test
+    public void incidentStopsAtSessionStart() throws IOException {
+        // A previous boot's session, late in its elapsed-time timeline
+        try (FlightRecorder recorder = new FlightRecorder(ringFile(), incidentDir(), CAPACITY, Runnable::run)) {
+            recorder.setSessionId(1L);
+            for (int i = 0; i < 300; i++) record(recorder, i * FRAME_NANOS, 0);
+        }
+
+        // After a reboot capture times start again near zero, overlapping the old records
+        try (FlightRecorder recorder = new FlightRecorder(ringFile(), incidentDir(), CAPACITY, Runnable::run)) {
+            recorder.setSessionId(2L);
+            assertEquals(300, recorder.getWriteIndex());
+            long t = 0;
+            for (int i = 0; i < 10; i++, t += FRAME_NANOS) record(recorder, t, 0);
+            record(recorder, t, DriverStateEngine.EVENT_CRITICAL);
+            recorder.flush();
+
+            File[] incidents = FlightRecorder.listIncidents(incidentDir(), 2L);
+            assertEquals(1, incidents.length);
+            long[] times = readTimes(incidents[0]);
+            assertEquals(11, times.length);
+            for (int i = 0; i < times.length; i++) assertEquals(i * FRAME_NANOS, times[i]);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.drivesafe;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class FrameQualityTest {
+
+    private static final int WIDTH = 640;
+    private static final int HEIGHT = 480;
+
+    private interface Luma {
+        int at(int x, int y);
+    }
+
+    /** A Y plane with {@code rowStride - WIDTH} bytes of padding per row, filled with {@code padding}. */
+    private static ByteBuffer plane(int rowStride, int padding, Luma luma) {
+        ByteBuffer buf = ByteBuffer.allocateDirect(rowStride * HEIGHT);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < rowStride; x++) {
+                buf.put((byte) (x < WIDTH ? luma.at(x, y) : padding));
+            }
+        }
+        buf.flip();
+        return buf;
+    }
+
+    private static int measure(FrameQuality quality, Luma luma) {
+        return quality.measure(plane(WIDTH, 0, luma), WIDTH, 1, WIDTH, HEIGHT);
+    }
+
+    /** Textured mid-grey: what a lit face looks like to the sampler. */
+    private static Luma textured(long seed, int base, int spread) {
+        Random random = new Random(seed);
+        byte[] noise = new byte[WIDTH * HEIGHT];
+        random.nextBytes(noise);
+        return (x, y) -> base + ((noise[y * WIDTH + x] & 0xFF) * spread >> 8);
+    }
+
+    @Test
+    public void goodFramePasses() {
+        FrameQuality quality = new FrameQuality();
+        assertEquals(FrameQuality.OK, measure(quality, textured(1, 70, 120)));
+        assertEquals(130f, quality.getMeanLuma(), 5f);
+        assertEquals(0f, quality.getSaturatedRatio(), 0f);
+        assertTrue(quality.getContrast() >= Constants.QUALITY_MIN_CONTRAST);
+        assertTrue(quality.getSharpness() >= Constants.QUALITY_MIN_SHARPNESS);
+    }
+
+    @Test
+    public void darkFrame() {
+        FrameQuality quality = new FrameQuality();
+        assertEquals(FrameQuality.TOO_DARK, measure(quality, textured(2, 0, 30)));
+        assertTrue(quality.getMeanLuma() < Constants.QUALITY_MIN_LUMA);
+    }
+
+    @Test
+    public void overexposedFrame() {
+        FrameQuality quality = new FrameQuality();
+        Luma face = textured(3, 70, 120);
+        // Headlights blowing out the left half
+        assertEquals(FrameQuality.GLARE, measure(quality, (x, y) -> x < WIDTH / 2 ? 255 : face.at(x, y)));
+        assertEquals(0.5f, quality.getSaturatedRatio(), 0.01f);
+    }
+
+    @Test
+    public void washedOutFrame() {
+        FrameQuality quality = new FrameQuality();
+        assertEquals(FrameQuality.LOW_CONTRAST, measure(quality, textured(4, 120, 8)));
+    }
+
+    @Test
+    public void blurredFrame() {
+        FrameQuality quality = new FrameQuality();
+        // Plenty of contrast but no fine detail
+        assertEquals(FrameQuality.BLURRED, measure(quality, (x, y) -> 40 + x * 180 / WIDTH));
+        assertTrue(quality.getContrast() >= Constants.QUALITY_MIN_CONTRAST);
+        assertTrue(quality.getSharpness() < Constants.QUALITY_MIN_SHARPNESS);
+    }
+
+    @Test
+    public void rowPaddingIsNotSampled() {
+        Luma face = textured(5, 70, 120);
+        Luma gradient = (x, y) -> 40 + x * 180 / WIDTH;
+        int rowStride = WIDTH + 64;
+        for (Luma luma : new Luma[]{face, gradient}) {
+            FrameQuality tight = new FrameQuality(), padded = new FrameQuality();
+            int expected = measure(tight, luma);
+            for (int padding : new int[]{0, 255}) {
+                ByteBuffer buf = plane(rowStride, padding, luma);
+                assertEquals(expected, padded.measure(buf, rowStride, 1, WIDTH, HEIGHT));
+                assertEquals(tight.getMeanLuma(), padded.getMeanLuma(), 0f);
+                assertEquals(tight.getSaturatedRatio(), padded.getSaturatedRatio(), 0f);
+                assertEquals(tight.getContrast(), padded.getContrast(), 0f);
+                assertEquals(tight.getSharpness(), padded.getSharpness(), 0f);
+                assertEquals(0, buf.position());
+                assertEquals(rowStride * HEIGHT, buf.limit());
+            }
+        }
+    }
+}
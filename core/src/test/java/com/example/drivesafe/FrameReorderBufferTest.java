@@ -0,0 +1,65 @@
+package com.example.drivesafe;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FrameReorderBufferTest {
+
+    @Test
+    public void releasesInAcquireOrder() {
+        FrameReorderBuffer buffer = new FrameReorderBuffer(3);
+        int a = buffer.acquire(), b = buffer.acquire(), c = buffer.acquire();
+        assertTrue(buffer.isFull());
+        assertEquals(-1, buffer.acquire());
+
+        buffer.complete(c);
+        buffer.complete(b);
+        assertEquals(-1, buffer.poll());   // a still in detection
+
+        buffer.complete(a);
+        assertEquals(a, buffer.poll());
+        assertEquals(b, buffer.poll());
+        assertEquals(c, buffer.poll());
+        assertEquals(-1, buffer.poll());
+        assertEquals(2, buffer.getOutOfOrder());
+        assertEquals(3, buffer.getMaxInFlight());
+    }
+
+    @Test
+    public void slotsAreReusedOnlyAfterRelease() {
+        FrameReorderBuffer buffer = new FrameReorderBuffer(2);
+        int[] order = new int[50];
+        int next = 0, released = 0;
+        int[] slotFrame = new int[2];
+        // Completes each second frame first; frames must still come out 0, 1, 2, ...
+        while (released < order.length) {
+            while (next < order.length && !buffer.isFull()) {
+                int slot = buffer.acquire();
+                slotFrame[slot] = next++;
+            }
+            for (int s = 1; s >= 0; s--) {
+                if (buffer.getInFlight() > s) buffer.complete((released + s) % 2);
+            }
+            int slot;
+            while ((slot = buffer.poll()) >= 0) order[released++] = slotFrame[slot];
+        }
+        for (int i = 0; i < order.length; i++) assertEquals(i, order[i]);
+    }
+
+    @Test
+    public void resetForgetsFramesInFlight() {
+        FrameReorderBuffer buffer = new FrameReorderBuffer(2);
+        buffer.acquire();
+        buffer.acquire();
+        buffer.reset();
+        assertEquals(0, buffer.getInFlight());
+        assertFalse(buffer.isFull());
+        assertEquals(0, buffer.acquire());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsZeroDepth() {
+        new FrameReorderBuffer(0);
+    }
+}
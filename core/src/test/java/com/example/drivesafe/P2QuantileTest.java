@@ -0,0 +1,65 @@
+package com.example.drivesafe;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class P2QuantileTest {
+
+    @Test
+    public void emptyIsNaN() {
+        assertTrue(Double.isNaN(new P2Quantile(0.5).get()));
+    }
+
+    @Test
+    public void exactForFirstFiveSamples() {
+        P2Quantile median = new P2Quantile(0.5);
+        median.add(0.4);
+        assertEquals(0.4, median.get(), 0);
+        median.add(0.2);
+        // Index round(0.5 * 1) = 1 of {0.2, 0.4}
+        assertEquals(0.4, median.get(), 0);
+        median.add(0.3);
+        assertEquals(0.3, median.get(), 0);
+        median.add(0.1);
+        assertEquals(0.3, median.get(), 0);
+        median.add(0.5);
+        assertEquals(0.3, median.get(), 0);
+        assertEquals(5, median.getCount());
+
+        P2Quantile high = new P2Quantile(0.9);
+        for (double x : new double[]{5, 1, 4, 2}) high.add(x);
+        assertEquals(5, high.get(), 0);
+    }
+
+    @Test
+    public void tracksQuantilesOfAStream() {
+        Random random = new Random(7);
+        double[] samples = new double[20_000];
+        P2Quantile median = new P2Quantile(0.5);
+        P2Quantile p90 = new P2Quantile(0.9);
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = 0.3 + 0.05 * random.nextGaussian();
+            median.add(samples[i]);
+            p90.add(samples[i]);
+        }
+        Arrays.sort(samples);
+        assertEquals(samples[samples.length / 2], median.get(), 0.002);
+        assertEquals(samples[samples.length * 9 / 10], p90.get(), 0.003);
+        assertEquals(samples.length, median.getCount());
+    }
+
+    @Test
+    public void resetStartsOver() {
+        P2Quantile median = new P2Quantile(0.5);
+        for (int i = 0; i < 100; i++) median.add(i);
+        median.reset();
+        assertEquals(0, median.getCount());
+        assertTrue(Double.isNaN(median.get()));
+        median.add(7);
+        assertEquals(7, median.get(), 0);
+    }
+}
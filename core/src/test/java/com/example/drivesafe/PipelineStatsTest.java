@@ -0,0 +1,104 @@
+package com.example.drivesafe;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PipelineStatsTest {
+
+    private static final long FPS30 = 33_333_333L;
+    private static final long FPS15 = 66_666_667L;
+    private static final int EPOCH = Constants.PIPELINE_INTERVAL_EPOCH_FRAMES;
+
+    private PipelineStats stats;
+    private long t;
+
+    @Before
+    public void setUp() {
+        stats = new PipelineStats();
+        stats.reset(true);
+        t = 1_000_000_000L;
+    }
+
+    /**
+     * Captures {@code frames} frames {@code interval} apart, dropping every {@code dropEvery}-th
+     * (0: none). A drop only shows once the next frame arrives.
+     */
+    private void deliver(int frames, long interval, int dropEvery) {
+        for (int i = 1; i <= frames; i++) {
+            t += interval;
+            if (dropEvery > 0 && i % dropEvery == 0) continue;
+            stats.onFrameDelivered(t);
+        }
+    }
+
+    @Test
+    public void steadyRateHasNoDrops() {
+        deliver(300, FPS30, 0);
+        assertEquals(300, stats.getDeliveredFrames());
+        assertEquals(0, stats.getDroppedFrames());
+        assertEquals(30f, stats.getCameraFps(), 0.1f);
+    }
+
+    @Test
+    public void gapsCountAsDrops() {
+        deliver(300, FPS30, 10);
+        assertEquals(270, stats.getDeliveredFrames());
+        assertEquals(30, stats.getDroppedFrames(), 1);
+        assertEquals(30f, stats.getCameraFps(), 0.2f);
+    }
+
+    @Test
+    public void slowerFrameRateIsRelearnedWithinTwoEpochs() {
+        deliver(200, FPS30, 0);
+        assertEquals(0, stats.getDroppedFrames());
+
+        // Exposure halves the frame rate: gaps look like drops only until an epoch of them is seen
+        deliver(3 * EPOCH, FPS15, 0);
+        long spurious = stats.getDroppedFrames();
+        assertTrue("spurious drops " + spurious, spurious <= 2 * EPOCH);
+
+        deliver(200, FPS15, 0);
+        assertEquals(spurious, stats.getDroppedFrames());
+
+        // Real drops at the new rate are still counted, one per missed frame
+        deliver(101, FPS15, 5);
+        assertEquals(spurious + 20, stats.getDroppedFrames());
+    }
+
+    @Test
+    public void fasterFrameRateAddsNoDrops() {
+        deliver(200, FPS15, 0);
+        deliver(300, FPS30, 0);
+        assertEquals(0, stats.getDroppedFrames());
+        deliver(101, FPS30, 4);
+        assertEquals(25, stats.getDroppedFrames());
+    }
+
+    @Test
+    public void latencyPercentilesFromBuckets() {
+        for (int i = 0; i < 90; i++) stats.record(PipelineStats.STAGE_DETECT, 5_000_000L);   // 5 ms
+        for (int i = 0; i < 10; i++) stats.record(PipelineStats.STAGE_DETECT, 100_000_000L); // 100 ms
+        assertEquals(100, stats.getSamples(PipelineStats.STAGE_DETECT));
+        assertEquals(14.5f, stats.getMeanMs(PipelineStats.STAGE_DETECT), 0.01f);
+        assertEquals(6f, stats.getPercentileMs(PipelineStats.STAGE_DETECT, 0.5f), 0f);
+        assertEquals(100f, stats.getPercentileMs(PipelineStats.STAGE_DETECT, 0.95f), 0f);
+        assertEquals(100f, stats.getMaxMs(PipelineStats.STAGE_DETECT), 0f);
+        assertEquals(0, stats.getSamples(PipelineStats.STAGE_TOTAL));
+    }
+
+    @Test
+    public void disabledRecordsNothing() {
+        stats.reset(false);
+        deliver(100, FPS30, 10);
+        stats.onFrameAnalyzed();
+        stats.onFrameSkipped();
+        stats.record(PipelineStats.STAGE_TOTAL, 1_000_000L);
+        assertEquals(0, stats.getDeliveredFrames());
+        assertEquals(0, stats.getDroppedFrames());
+        assertEquals(0, stats.getAnalyzedFrames());
+        assertEquals(0, stats.getSkippedFrames());
+        assertEquals(0, stats.getSamples(PipelineStats.STAGE_TOTAL));
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.drivesafe;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class SignalArchiveTest {
+
+    private static final int FRAMES = Constants.ARCHIVE_BLOCK_FRAMES * 3 + 100;
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private final long[] times = new long[FRAMES];
+    private final float[] ears = new float[FRAMES];
+
+    /** Writes a session of ~30 fps frames with jittered timestamps and returns its file. */
+    private File writeArchive() throws IOException {
+        File file = SignalArchive.fileFor(tmp.getRoot(), 42L);
+        long t = 5_000_000_123L;
+        try (SignalArchive.Writer w = new SignalArchive.Writer(file, 42L)) {
+            for (int i = 0; i < FRAMES; i++) {
+                t += 33_333_333L + (i % 5) * 1_234_567L;
+                times[i] = t;
+                ears[i] = 0.3f + 0.001f * (i % 97);
+                int flags = (i % 9 != 0 ? FaceSignalFile.FLAG_FACE : 0) | (i % 100 == 0 ? FaceSignalFile.FLAG_YAWN : 0)
+                        | (i % 9 == 0 && i % 2 == 0 ? FaceSignalFile.FLAG_LOW_VISIBILITY : 0);
+                w.append(t, flags, ears[i], i % 40 - 20f, -5f, 60f,
+                        i % 500 == 0 ? DriverStateEngine.EVENT_WARNING : 0);
+            }
+        }
+        return file;
+    }
+
+    @Test
+    public void roundTrip() throws IOException {
+        File file = writeArchive();
+        try (SignalArchive.Reader r = new SignalArchive.Reader(file)) {
+            assertEquals(42L, r.getSessionId());
+            assertEquals(FRAMES, r.getFrameCount());
+            assertEquals(times[0], r.getFirstNanos());
+            assertEquals(times[FRAMES - 1], r.getLastNanos());
+
+            SignalArchive.Reader.Cursor c = r.cursor(Long.MIN_VALUE, Long.MAX_VALUE, SignalArchive.ALL_COLUMNS);
+            FaceSignal s = new FaceSignal();
+            for (int i = 0; i < FRAMES; i++) {
+                assertTrue(c.next());
+                c.get(s);
+                // Time is kept to the microsecond, floats to their quantization grid
+                assertEquals(times[i] / 1_000L * 1_000L, s.captureNanos);
+                assertEquals(ears[i], s.ear, 1f / (1 << Constants.ARCHIVE_EAR_FRACTION_BITS));
+                assertEquals(i % 40 - 20f, s.headYaw, 0f);
+                assertEquals(-5f, s.headPitch, 0f);
+                assertEquals(60f, s.speedKmh, 0f);
+                assertEquals(i % 9 != 0, s.faceFound);
+                assertEquals(i % 100 == 0, s.yawning);
+                assertEquals(i % 9 == 0 && i % 2 == 0, s.lowVisibility);
+                assertEquals(i % 500 == 0 ? DriverStateEngine.EVENT_WARNING : 0,
+                        c.getInt(SignalArchive.COL_EVENTS));
+            }
+            assertFalse(c.next());
+        }
+    }
+
+    /** Counts the frames a cursor returns and checks they are {@code first}, {@code first + 1}, ... */
+    private int countFrom(SignalArchive.Reader r, long fromNanos, long toNanos, int first) throws IOException {
+        SignalArchive.Reader.Cursor c = r.cursor(fromNanos, toNanos, 0);
+        int n = 0;
+        while (c.next()) {
+            assertEquals(times[first + n] / 1_000L * 1_000L, c.getCaptureNanos());
+            n++;
+        }
+        return n;
+    }
+
+    @Test
+    public void rangeBoundsAreOriginalCaptureTimes() throws IOException {
+        File file = writeArchive();
+        try (SignalArchive.Reader r = new SignalArchive.Reader(file)) {
+            assertEquals(1101, countFrom(r, times[2000], times[3100], 2000));
+            assertEquals(1, countFrom(r, times[500], times[500], 500));
+            assertEquals(FRAMES, countFrom(r, times[0], times[FRAMES - 1], 0));
+        }
+    }
+
+    @Test
+    public void rangeStartingAtBlockBoundary() throws IOException {
+        File file = writeArchive();
+        int lastOfFirstBlock = Constants.ARCHIVE_BLOCK_FRAMES - 1;
+        try (SignalArchive.Reader r = new SignalArchive.Reader(file)) {
+            assertEquals(2, countFrom(r, times[lastOfFirstBlock], times[lastOfFirstBlock + 1], lastOfFirstBlock));
+            assertEquals(1, countFrom(r, times[FRAMES - 1], Long.MAX_VALUE, FRAMES - 1));
+            assertEquals(0, countFrom(r, times[FRAMES - 1] + 1_000L, Long.MAX_VALUE, FRAMES));
+        }
+    }
+
+    @Test
+    public void cursorDecodesOnlyRequestedColumns() throws IOException {
+        File file = writeArchive();
+        try (SignalArchive.Reader r = new SignalArchive.Reader(file)) {
+            SignalArchive.Reader.Cursor c = r.cursor(Long.MIN_VALUE, Long.MAX_VALUE,
+                    1 << SignalArchive.COL_EAR);
+            int n = 0;
+            while (c.next()) {
+                assertEquals(ears[n], c.getFloat(SignalArchive.COL_EAR),
+                        1f / (1 << Constants.ARCHIVE_EAR_FRACTION_BITS));
+                n++;
+            }
+            assertEquals(FRAMES, n);
+        }
+    }
+
+    @Test
+    public void pruneDeletesOldestArchivesOverTheLimit() throws IOException {
+        File dir = tmp.newFolder("archive");
+        File[] files = new File[4];
+        for (int i = 0; i < files.length; i++) {
+            files[i] = SignalArchive.fileFor(dir, i);
+            Files.write(files[i].toPath(), new byte[1000]);
+            assertTrue(files[i].setLastModified(1_000_000_000_000L + i * 60_000L));
+        }
+        File other = new File(dir, "notes.txt");
+        Files.write(other.toPath(), new byte[5000]);
+
+        SignalArchive.prune(dir, 2500);
+        assertFalse(files[0].exists());
+        assertFalse(files[1].exists());
+        assertTrue(files[2].exists());
+        assertTrue(files[3].exists());
+        assertTrue(other.exists());
+
+        // The newest archive survives even when it alone is over the limit
+        SignalArchive.prune(dir, 10);
+        assertFalse(files[2].exists());
+        assertTrue(files[3].exists());
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.drivesafe;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class YuvCropperTest {
+
+    private static int luma(int x, int y) { return (x * 7 + y * 13) & 0xFF; }
+
+    private static int u(int cx, int cy) { return (cx * 3 + cy * 5) & 0xFF; }
+
+    private static int v(int cx, int cy) { return (cx * 11 + cy * 2 + 100) & 0xFF; }
+
+    /** YUV_420_888 planes; pixelStride 1 is planar (I420), 2 is interleaved VU (NV21) with shared memory. */
+    private static final class Frame {
+        final int width, height, yRowStride, uvRowStride, uvPixelStride;
+        final ByteBuffer y, u, v;
+
+        Frame(int width, int height, int rowPadding, int uvPixelStride) {
+            this.width = width;
+            this.height = height;
+            this.uvPixelStride = uvPixelStride;
+            int cw = (width + 1) / 2, ch = (height + 1) / 2;
+            yRowStride = width + rowPadding;
+            uvRowStride = cw * uvPixelStride + rowPadding;
+            y = ByteBuffer.allocate(yRowStride * height);
+            for (int r = 0; r < height; r++) {
+                for (int c = 0; c < width; c++) y.put(r * yRowStride + c, (byte) luma(c, r));
+            }
+            if (uvPixelStride == 1) {
+                u = ByteBuffer.allocate(uvRowStride * ch);
+                v = ByteBuffer.allocate(uvRowStride * ch);
+                for (int r = 0; r < ch; r++) {
+                    for (int c = 0; c < cw; c++) {
+                        u.put(r * uvRowStride + c, (byte) u(c, r));
+                        v.put(r * uvRowStride + c, (byte) v(c, r));
+                    }
+                }
+            } else {
+                ByteBuffer vu = ByteBuffer.allocate(uvRowStride * ch);
+                for (int r = 0; r < ch; r++) {
+                    for (int c = 0; c < cw; c++) {
+                        vu.put(r * uvRowStride + 2 * c, (byte) v(c, r));
+                        vu.put(r * uvRowStride + 2 * c + 1, (byte) u(c, r));
+                    }
+                }
+                v = vu.duplicate();
+                vu.position(1);
+                u = vu.slice();
+            }
+        }
+
+        ByteBuffer crop(YuvCropper cropper, int left, int top, int w, int h) {
+            return cropper.crop(y, yRowStride, 1, u, v, uvRowStride, uvPixelStride, left, top, w, h, width, height);
+        }
+    }
+
+    private static void assertNv21(ByteBuffer out, int left, int top, int w, int h) {
+        assertEquals(0, out.position());
+        assertEquals(w * h * 3 / 2, out.remaining());
+        for (int r = 0; r < h; r++) {
+            for (int c = 0; c < w; c++) {
+                assertEquals("Y " + c + "," + r, luma(left + c, top + r), out.get(r * w + c) & 0xFF);
+            }
+        }
+        int base = w * h;
+        for (int r = 0; r < h / 2; r++) {
+            for (int c = 0; c < w / 2; c++) {
+                int i = base + r * w + 2 * c;
+                assertEquals("V " + c + "," + r, v(left / 2 + c, top / 2 + r), out.get(i) & 0xFF);
+                assertEquals("U " + c + "," + r, u(left / 2 + c, top / 2 + r), out.get(i + 1) & 0xFF);
+            }
+        }
+    }
+
+    @Test
+    public void cropsPlanarFrame() {
+        Frame f = new Frame(64, 48, 0, 1);
+        assertNv21(f.crop(new YuvCropper(), 10, 6, 32, 20), 10, 6, 32, 20);
+    }
+
+    @Test
+    public void cropsInterleavedFrameWithRowPadding() {
+        Frame f = new Frame(64, 48, 24, 2);
+        assertNv21(f.crop(new YuvCropper(), 20, 12, 40, 36), 20, 12, 40, 36);
+    }
+
+    @Test
+    public void cropsOddSizedFrameToItsLastChromaRow() {
+        // 63x47: the last chroma column and row cover a single luma column and row
+        for (int pixelStride = 1; pixelStride <= 2; pixelStride++) {
+            Frame f = new Frame(63, 47, 8, pixelStride);
+            YuvCropper cropper = new YuvCropper();
+            assertNv21(f.crop(cropper, 0, 0, 62, 46), 0, 0, 62, 46);
+            assertNv21(f.crop(cropper, 40, 30, 22, 16), 40, 30, 22, 16);
+        }
+    }
+
+    @Test
+    public void reusesItsBuffer() {
+        YuvCropper cropper = new YuvCropper();
+        Frame big = new Frame(64, 48, 0, 2), small = new Frame(32, 24, 0, 2);
+        ByteBuffer first = big.crop(cropper, 0, 0, 64, 48);
+        ByteBuffer second = small.crop(cropper, 2, 2, 20, 10);
+        assertSame(first, second);
+        assertNv21(second, 2, 2, 20, 10);
+    }
+}
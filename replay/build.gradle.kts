@@ -0,0 +1,25 @@
+plugins {
+    application
+}
+
+// Faster-than-real-time replay of recorded or synthetic traces through the
+// detection logic, scored against ground truth. No device needed:
+//   ./gradlew :replay:run --args="--sessions 2000 --sensitivity high"
+//   ./gradlew :replay:run --args="--traces /path/to/fsig-dir --ear 0.22"
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+// Sources use box-drawing section rules; don't depend on the platform charset
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+dependencies {
+    implementation(project(":core"))
+}
+
+application {
+    mainClass.set("com.example.drivesafe.ReplayHarness")
+}
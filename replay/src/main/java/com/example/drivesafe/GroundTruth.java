@@ -0,0 +1,72 @@
+package com.example.drivesafe;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Labelled episodes of one trace, by {@code SyntheticFaceSignalSource.EPISODE_*} kind.
+ *
+ * Recorded traces carry them in a {@code <trace>.labels.csv} next to the
+ * {@code .fsig}: one {@code kind,startMs,endMs} line per episode, times on the
+ * trace's capture clock, kind one of {@code eyes_closed}, {@code glance},
+ * {@code yawn}. Lines starting with {@code #} are comments.
+ */
+final class GroundTruth {
+
+    private static final String[] KIND_NAMES = {"eyes_closed", "glance", "yawn"};
+
+    private final long[][] starts = new long[SyntheticFaceSignalSource.EPISODE_KINDS][16];
+    private final long[][] ends = new long[SyntheticFaceSignalSource.EPISODE_KINDS][16];
+    private final int[] counts = new int[SyntheticFaceSignalSource.EPISODE_KINDS];
+
+    void add(int kind, long startNanos, long endNanos) {
+        int n = counts[kind];
+        if (n == starts[kind].length) {
+            starts[kind] = Arrays.copyOf(starts[kind], n * 2);
+            ends[kind] = Arrays.copyOf(ends[kind], n * 2);
+        }
+        starts[kind][n] = startNanos;
+        ends[kind][n] = endNanos;
+        counts[kind] = n + 1;
+    }
+
+    int count(int kind) { return counts[kind]; }
+
+    long start(int kind, int i) { return starts[kind][i]; }
+
+    long end(int kind, int i) { return ends[kind][i]; }
+
+    static String kindName(int kind) { return KIND_NAMES[kind]; }
+
+    /** Labels for {@code trace}, or an empty set if it has no labels file. */
+    static GroundTruth forTrace(File trace) throws IOException {
+        GroundTruth truth = new GroundTruth();
+        String name = trace.getName();
+        String base = name.endsWith(".fsig") ? name.substring(0, name.length() - 5) : name;
+        File labels = new File(trace.getParentFile(), base + ".labels.csv");
+        if (!labels.isFile()) return truth;
+        try (BufferedReader in = Files.newBufferedReader(labels.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            int lineNo = 0;
+            while ((line = in.readLine()) != null) {
+                lineNo++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] f = line.split(",");
+                int kind = f.length == 3 ? Arrays.asList(KIND_NAMES).indexOf(f[0].trim().toLowerCase(Locale.US)) : -1;
+                if (kind < 0) throw new IOException(labels + ":" + lineNo + ": expected kind,startMs,endMs");
+                try {
+                    truth.add(kind, Long.parseLong(f[1].trim()) * 1_000_000L, Long.parseLong(f[2].trim()) * 1_000_000L);
+                } catch (NumberFormatException e) {
+                    throw new IOException(labels + ":" + lineNo + ": bad time", e);
+                }
+            }
+        }
+        return truth;
+    }
+}
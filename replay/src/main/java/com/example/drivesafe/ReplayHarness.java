@@ -0,0 +1,196 @@
+package com.example.drivesafe;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Command-line regression harness: streams synthetic or recorded traces
+ * through {@link DriverStateEngine} as fast as the CPU allows, one session per
+ * task across all cores, and reports alert counts, detection latency and
+ * missed / false alerts against ground truth.
+ *
+ * Time is virtual: each engine runs on a {@link CaptureClock} set from the
+ * trace's capture timestamps, so a 30 min session replays in milliseconds and
+ * timing results do not depend on machine load.
+ */
+public final class ReplayHarness {
+
+    private static final String USAGE = String.join("\n",
+            "usage: ReplayHarness [options]",
+            "  input (synthetic unless --traces is given):",
+            "    --sessions N        synthetic sessions (default 1000)",
+            "    --minutes M         length of each synthetic session (default 30)",
+            "    --fps F             synthetic analysis rate (default 20)",
+            "    --seed S            seed of the first session; session i uses S+i (default 1)",
+            "    --drowsiness D      fixed 0..1 fatigue level (default: spread evenly over sessions)",
+            "    --traces DIR        replay every .fsig in DIR, labelled by <name>.labels.csv",
+            "  detection parameters (default: Constants):",
+            "    --sensitivity low|medium|high   sets --ear and --warning-ms",
+            "    --ear T  --warning-ms MS  --head-turn DEG  --head-tilt DEG  --distraction-ms MS",
+            "  scoring:",
+            "    --tolerance-ms MS   alert may trail the episode end by this much (default 1000)",
+            "    --min-glance-ms MS  shorter glances are neutral (default 2000)",
+            "  run:",
+            "    --threads N         worker threads (default: all cores)",
+            "    --csv FILE          write one row per session");
+
+    // ─── Options ─────────────────────────────────────────────────────────
+    private int sessions = 1000;
+    private long minutes = 30;
+    private float fps = 20f;
+    private long seed = 1;
+    private float drowsiness = Float.NaN;
+    private File traceDir;
+    private float earThreshold = Constants.EAR_THRESHOLD;
+    private long warningMs = Constants.WARNING_DURATION_MS;
+    private float headTurn = Constants.HEAD_TURN_THRESHOLD;
+    private float headTilt = Constants.HEAD_TILT_THRESHOLD;
+    private long distractionMs = Constants.DISTRACTION_DURATION_MS;
+    private long toleranceMs = 1000;
+    private long minGlanceMs = 2000;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private File csv;
+
+    public static void main(String[] args) throws Exception {
+        ReplayHarness harness = new ReplayHarness();
+        try {
+            harness.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        harness.run();
+    }
+
+    private void parse(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String key = args[i];
+            if (key.equals("--help") || key.equals("-h")) throw new IllegalArgumentException("");
+            if (i + 1 >= args.length) throw new IllegalArgumentException("missing value for " + key);
+            String v = args[++i];
+            try {
+                switch (key) {
+                    case "--sessions":       sessions = Integer.parseInt(v); break;
+                    case "--minutes":        minutes = Long.parseLong(v); break;
+                    case "--fps":            fps = Float.parseFloat(v); break;
+                    case "--seed":           seed = Long.parseLong(v); break;
+                    case "--drowsiness":     drowsiness = Float.parseFloat(v); break;
+                    case "--traces":         traceDir = new File(v); break;
+                    case "--sensitivity":
+                        earThreshold = Constants.getEarThreshold(v);
+                        warningMs = Constants.getWarningDuration(v);
+                        break;
+                    case "--ear":            earThreshold = Float.parseFloat(v); break;
+                    case "--warning-ms":     warningMs = Long.parseLong(v); break;
+                    case "--head-turn":      headTurn = Float.parseFloat(v); break;
+                    case "--head-tilt":      headTilt = Float.parseFloat(v); break;
+                    case "--distraction-ms": distractionMs = Long.parseLong(v); break;
+                    case "--tolerance-ms":   toleranceMs = Long.parseLong(v); break;
+                    case "--min-glance-ms":  minGlanceMs = Long.parseLong(v); break;
+                    case "--threads":        threads = Math.max(1, Integer.parseInt(v)); break;
+                    case "--csv":            csv = new File(v); break;
+                    default: throw new IllegalArgumentException("unknown option " + key);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("bad number for " + key + ": " + v);
+            }
+        }
+    }
+
+    // ─── Run ─────────────────────────────────────────────────────────────
+
+    private void run() throws IOException, InterruptedException {
+        List<String> names = new ArrayList<>();
+        List<File> traces = new ArrayList<>();
+        if (traceDir != null) {
+            File[] files = traceDir.listFiles((dir, name) -> name.endsWith(".fsig"));
+            if (files == null || files.length == 0) throw new IOException("No .fsig traces in " + traceDir);
+            Arrays.sort(files);
+            for (File f : files) {
+                traces.add(f);
+                names.add(f.getName());
+            }
+        } else {
+            for (int i = 0; i < sessions; i++) names.add("seed" + (seed + i));
+        }
+        System.out.printf(Locale.US, "ear<%.2f warning=%d ms | head turn>%.0f tilt<%.0f deg for %d ms | %d threads%n",
+                earThreshold, warningMs, headTurn, headTilt, distractionMs, threads);
+
+        long startWall = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<ReplayScore>> results = new ArrayList<>(names.size());
+        for (int i = 0; i < names.size(); i++) {
+            final int index = i;
+            final File trace = traceDir != null ? traces.get(i) : null;
+            results.add(pool.submit(() -> trace != null ? replayTrace(trace) : replaySynthetic(index)));
+        }
+        pool.shutdown();
+
+        ReplayScore total = new ReplayScore();
+        try (PrintWriter rows = csv != null ? new PrintWriter(csv, StandardCharsets.UTF_8.name()) : null) {
+            if (rows != null) rows.println(ReplayScore.csvHeader());
+            for (int i = 0; i < results.size(); i++) {
+                ReplayScore s;
+                try {
+                    s = results.get(i).get();
+                } catch (ExecutionException e) {
+                    throw new IOException("Session " + names.get(i) + " failed", e.getCause());
+                }
+                total.merge(s);
+                if (rows != null) rows.println(s.csvRow(names.get(i)));
+            }
+        }
+        total.print(System.out, System.nanoTime() - startWall);
+    }
+
+    private ReplayScore replaySynthetic(int index) {
+        float d = Float.isNaN(drowsiness) ? (sessions > 1 ? index / (float) (sessions - 1) : 0.5f) : drowsiness;
+        SyntheticFaceSignalSource source = new SyntheticFaceSignalSource(seed + index, fps,
+                minutes * 60_000L, d, Float.NaN, Runnable::run, false);
+        GroundTruth truth = new GroundTruth();
+        source.setEpisodeListener(truth::add);
+        return replay(source, truth);
+    }
+
+    private ReplayScore replayTrace(File trace) throws IOException {
+        return replay(new ReplayFaceSignalSource(trace, Runnable::run, false), GroundTruth.forTrace(trace));
+    }
+
+    /** Runs one session synchronously on the calling thread. */
+    private ReplayScore replay(FaceSignalSource source, GroundTruth truth) {
+        CaptureClock clock = new CaptureClock();
+        DriverStateEngine engine = new DriverStateEngine(clock);
+        engine.setEarThreshold(earThreshold);
+        engine.setWarningDuration(warningMs);
+        engine.setDistractionLimits(headTurn, headTilt, distractionMs);
+        engine.reset();
+        ReplayScore score = new ReplayScore();
+        source.start(signal -> {
+            int events = 0;
+            if (signal.faceFound) {
+                clock.setFrameTime(signal.captureNanos);
+                events = engine.onFrame(signal.ear, signal.headYaw, signal.headPitch, signal.yawning, signal.speedKmh);
+            } else if (signal.lowVisibility) {
+                clock.setFrameTime(signal.captureNanos);
+                events = engine.onLowVisibility();
+            }
+            score.onFrame(signal.captureNanos, events);
+            return engine.getState();
+        });
+        long[] minLabelNanos = new long[SyntheticFaceSignalSource.EPISODE_KINDS];
+        minLabelNanos[SyntheticFaceSignalSource.EPISODE_GLANCE] = minGlanceMs * 1_000_000L;
+        score.score(truth, toleranceMs * 1_000_000L, minLabelNanos);
+        return score;
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.drivesafe;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Alerts of one replayed session (or the sum of many) scored against ground truth.
+ *
+ * An alert matches a labelled episode of its kind when it fires between the
+ * episode start and its end plus a tolerance: the first match counts the
+ * episode as detected and gives its latency, later ones are duplicates.
+ * Alerts that match nothing are false alerts, episodes without a match are
+ * missed. Episodes shorter than the kind's minimum are neutral: alerts during
+ * them are neither credited nor counted as false.
+ */
+final class ReplayScore {
+
+    private static final int KINDS = SyntheticFaceSignalSource.EPISODE_KINDS;
+
+    /** Engine events that answer each episode kind. */
+    private static final int[] ALERT_EVENTS = {
+            DriverStateEngine.EVENT_WARNING | DriverStateEngine.EVENT_CRITICAL,
+            DriverStateEngine.EVENT_DISTRACTION,
+            DriverStateEngine.EVENT_YAWN,
+    };
+
+    int sessions;
+    long frames;
+    long tracedNanos;
+    int warnings, criticals, distractions, yawns;
+
+    final int[] labels = new int[KINDS];
+    final int[] detected = new int[KINDS];
+    final int[] falseAlerts = new int[KINDS];
+    private long[][] latenciesMs = new long[KINDS][16];
+    private final int[] latencyCount = new int[KINDS];
+
+    // ─── Per-session Alert Log ───────────────────────────────────────────
+    private long[][] alertNanos = new long[KINDS][16];
+    private final int[] alertCount = new int[KINDS];
+    private long firstNanos = Long.MIN_VALUE, lastNanos;
+
+    /** Logs one replayed frame and the engine events it raised. */
+    void onFrame(long captureNanos, int events) {
+        frames++;
+        if (firstNanos == Long.MIN_VALUE) firstNanos = captureNanos;
+        lastNanos = captureNanos;
+        if (events == 0) return;
+        if ((events & DriverStateEngine.EVENT_WARNING) != 0) warnings++;
+        if ((events & DriverStateEngine.EVENT_CRITICAL) != 0) criticals++;
+        if ((events & DriverStateEngine.EVENT_DISTRACTION) != 0) distractions++;
+        if ((events & DriverStateEngine.EVENT_YAWN) != 0) yawns++;
+        for (int k = 0; k < KINDS; k++) {
+            if ((events & ALERT_EVENTS[k]) == 0) continue;
+            if (alertCount[k] == alertNanos[k].length) alertNanos[k] = Arrays.copyOf(alertNanos[k], alertCount[k] * 2);
+            alertNanos[k][alertCount[k]++] = captureNanos;
+        }
+    }
+
+    /** Matches the logged alerts against {@code truth}; call once, after the session's last frame. */
+    void score(GroundTruth truth, long toleranceNanos, long[] minLabelNanos) {
+        sessions = 1;
+        tracedNanos = frames > 1 ? lastNanos - firstNanos : 0;
+        for (int k = 0; k < KINDS; k++) {
+            int n = truth.count(k);
+            boolean[] hit = new boolean[n];
+            for (int a = 0; a < alertCount[k]; a++) {
+                long t = alertNanos[k][a];
+                boolean matched = false, neutral = false;
+                for (int i = 0; i < n; i++) {
+                    long start = truth.start(k, i), end = truth.end(k, i);
+                    if (t < start || t > end + toleranceNanos) continue;
+                    if (end - start < minLabelNanos[k]) { neutral = true; continue; }
+                    matched = true;
+                    if (!hit[i]) {
+                        hit[i] = true;
+                        addLatency(k, (t - start) / 1_000_000L);
+                    }
+                }
+                if (!matched && !neutral) falseAlerts[k]++;
+            }
+            for (int i = 0; i < n; i++) {
+                if (truth.end(k, i) - truth.start(k, i) < minLabelNanos[k]) continue;
+                labels[k]++;
+                if (hit[i]) detected[k]++;
+            }
+        }
+        alertNanos = null;
+    }
+
+    private void addLatency(int k, long ms) {
+        if (latencyCount[k] == latenciesMs[k].length) latenciesMs[k] = Arrays.copyOf(latenciesMs[k], latencyCount[k] * 2);
+        latenciesMs[k][latencyCount[k]++] = ms;
+    }
+
+    /** Adds a scored session into this total. */
+    void merge(ReplayScore s) {
+        sessions += s.sessions;
+        frames += s.frames;
+        tracedNanos += s.tracedNanos;
+        warnings += s.warnings;
+        criticals += s.criticals;
+        distractions += s.distractions;
+        yawns += s.yawns;
+        for (int k = 0; k < KINDS; k++) {
+            labels[k] += s.labels[k];
+            detected[k] += s.detected[k];
+            falseAlerts[k] += s.falseAlerts[k];
+            for (int i = 0; i < s.latencyCount[k]; i++) addLatency(k, s.latenciesMs[k][i]);
+        }
+    }
+
+    private long latencyPercentile(int k, double p) {
+        if (latencyCount[k] == 0) return -1;
+        long[] sorted = Arrays.copyOf(latenciesMs[k], latencyCount[k]);
+        Arrays.sort(sorted);
+        return sorted[(int) Math.min(sorted.length - 1, Math.round(p * (sorted.length - 1)))];
+    }
+
+    // ─── Reporting ───────────────────────────────────────────────────────
+
+    void print(PrintStream out, long wallNanos) {
+        double hours = tracedNanos / 3.6e12;
+        out.printf(Locale.US, "%d sessions, %d frames, %.1f h of trace in %.1f s (%.0fx real time)%n",
+                sessions, frames, hours, wallNanos / 1e9, tracedNanos / (double) Math.max(1, wallNanos));
+        out.printf(Locale.US, "alerts: %d warning, %d critical, %d distraction, %d yawn (%.1f warnings/h)%n",
+                warnings, criticals, distractions, yawns, hours > 0 ? warnings / hours : 0);
+        out.printf(Locale.US, "%-12s %7s %7s %7s %7s %9s %8s %8s %8s%n",
+                "episode", "labels", "hit", "missed", "recall", "false/h", "p50 ms", "p95 ms", "max ms");
+        for (int k = 0; k < KINDS; k++) {
+            out.printf(Locale.US, "%-12s %7d %7d %7d %7.3f %9.2f %8d %8d %8d%n",
+                    GroundTruth.kindName(k), labels[k], detected[k], labels[k] - detected[k],
+                    labels[k] > 0 ? detected[k] / (double) labels[k] : 1.0,
+                    hours > 0 ? falseAlerts[k] / hours : 0,
+                    latencyPercentile(k, 0.5), latencyPercentile(k, 0.95), latencyPercentile(k, 1.0));
+        }
+    }
+
+    static String csvHeader() {
+        StringBuilder sb = new StringBuilder("session,frames,trace_s,warnings,criticals,distractions,yawns");
+        for (int k = 0; k < KINDS; k++) {
+            String n = GroundTruth.kindName(k);
+            sb.append(',').append(n).append("_labels,").append(n).append("_hit,")
+                    .append(n).append("_false,").append(n).append("_p50_ms");
+        }
+        return sb.toString();
+    }
+
+    String csvRow(String name) {
+        StringBuilder sb = new StringBuilder(name).append(',').append(frames).append(',')
+                .append(String.format(Locale.US, "%.1f", tracedNanos / 1e9)).append(',')
+                .append(warnings).append(',').append(criticals).append(',')
+                .append(distractions).append(',').append(yawns);
+        for (int k = 0; k < KINDS; k++) {
+            sb.append(',').append(labels[k]).append(',').append(detected[k]).append(',')
+                    .append(falseAlerts[k]).append(',').append(latencyPercentile(k, 0.5));
+        }
+        return sb.toString();
+    }
+}
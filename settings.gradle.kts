@@ -21,4 +21,6 @@ dependencyResolutionManagement {
 
 rootProject.name = "DriveSafe"
 include(":app")
- 
\ No newline at end of file
+include(":core")
+include(":replay")
+include(":bench")